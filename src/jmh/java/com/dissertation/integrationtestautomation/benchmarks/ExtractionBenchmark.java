@@ -0,0 +1,83 @@
+package com.dissertation.integrationtestautomation.benchmarks;
+
+import com.dissertation.integrationtestautomation.model.AuthResponse;
+import com.dissertation.integrationtestautomation.utils.BufferedResponse;
+import com.dissertation.integrationtestautomation.utils.JsonCodec;
+import com.dissertation.integrationtestautomation.utils.JsonStreams;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading values out of responses: Groovy-backed jsonPath() versus Jackson binding and streaming.
+ * The single-field case reads the token from a login response; the list cases count and search
+ * a user-orders response of the given size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExtractionBenchmark {
+
+    @Param({"10", "1000"})
+    public int orders;
+
+    private Response authResponse;
+    private Response ordersResponse;
+    private String lastOrderNumber;
+
+    @Setup
+    public void setUp() {
+        authResponse = Payloads.response(Payloads.AUTH_RESPONSE);
+        ordersResponse = Payloads.response(Payloads.orderList(orders));
+        lastOrderNumber = "ORD-BENCH-" + (orders - 1);
+    }
+
+    @Benchmark
+    public String tokenViaJsonPath() {
+        return authResponse.jsonPath().getString("token");
+    }
+
+    @Benchmark
+    public String tokenViaCodec() {
+        return JsonCodec.read(authResponse, AuthResponse.class).token();
+    }
+
+    @Benchmark
+    public String tokenViaBufferedResponse() {
+        return BufferedResponse.of(authResponse).field("token");
+    }
+
+    @Benchmark
+    public int countViaJsonPath() {
+        return ordersResponse.jsonPath().getList("").size();
+    }
+
+    @Benchmark
+    public int countViaStreaming() {
+        return JsonStreams.countElements(ordersResponse);
+    }
+
+    @Benchmark
+    public Object findOrderViaJsonPath() {
+        return ordersResponse.jsonPath().getMap("find { it.orderNumber == '" + lastOrderNumber + "' }");
+    }
+
+    @Benchmark
+    public Object findOrderViaStreaming() {
+        return JsonStreams.findOrder(ordersResponse, lastOrderNumber).orElse(null);
+    }
+}
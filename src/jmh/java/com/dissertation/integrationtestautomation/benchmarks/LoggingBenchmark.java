@@ -0,0 +1,69 @@
+package com.dissertation.integrationtestautomation.benchmarks;
+
+import com.dissertation.integrationtestautomation.utils.RequestLog;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request logging cost on the calling thread with several threads logging at once:
+ * the console blocks RestApiUtils prints (into a discarding PrintStream, so only formatting and the
+ * stream lock are measured) versus handing a summary to the async RequestLog.
+ * Runs in a JVM with -Drest.logging=async writing to /dev/null so the writer thread has a sink.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = {"-Drest.logging=async", "-Drest.logging.file=/dev/null"})
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final String ENDPOINT = "http://localhost:8080/api/orders";
+
+    private final PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+    private Object requestBody;
+    private Response response;
+
+    @Setup
+    public void setUp() {
+        requestBody = Payloads.orderMap();
+        response = Payloads.response(Payloads.orderList(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestLog.flush(5, TimeUnit.SECONDS);
+        System.out.println(RequestLog.stats());
+    }
+
+    @Benchmark
+    public void consoleBlocks() {
+        discard.println("===========================================");
+        discard.println("RestAssured POST Request Details:");
+        discard.println("Endpoint: " + ENDPOINT);
+        discard.println("Request Body: " + requestBody);
+        discard.println("===========================================");
+        discard.println("postRequest - Response Status: " + response.getStatusCode() + ", Body: " + response.asString());
+    }
+
+    @Benchmark
+    public void asyncRequestLog() {
+        RequestLog.record("POST", ENDPOINT, 201, 1_500_000L, requestBody, null, null);
+    }
+}
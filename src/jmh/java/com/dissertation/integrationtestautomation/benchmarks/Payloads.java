@@ -0,0 +1,68 @@
+package com.dissertation.integrationtestautomation.benchmarks;
+
+import com.dissertation.integrationtestautomation.model.OrderRequest;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Representative request and response bodies shared by the benchmarks
+ */
+final class Payloads {
+
+    static final String TOKEN = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9"
+            + ".eyJzdWIiOiJiZW5jaHVzZXIiLCJyb2xlIjoiVVNFUiIsImlhdCI6MTcwMDAwMDAwMCwiZXhwIjo0MTAyNDQ0ODAwfQ"
+            + ".c2lnbmF0dXJlLW5vdC1jaGVja2VkLWluLWJlbmNobWFya3M";
+
+    static final String AUTH_RESPONSE = "{\"token\":\"" + TOKEN + "\",\"type\":\"Bearer\",\"username\":\"benchuser\","
+            + "\"email\":\"benchuser@example.com\",\"role\":\"USER\"}";
+
+    private Payloads() {
+    }
+
+    static Map<String, Object> orderMap() {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("username", "benchuser");
+        requestBody.put("productName", "Laptop");
+        requestBody.put("quantity", 1);
+        requestBody.put("unitPrice", 999.99);
+        return requestBody;
+    }
+
+    static OrderRequest orderRecord() {
+        return new OrderRequest("benchuser", "Laptop", 1, 999.99);
+    }
+
+    /**
+     * JSON array of orders, as returned by GET /api/orders/user/{username}
+     */
+    static String orderList(int size) {
+        StringBuilder out = new StringBuilder(size * 240).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"id\":").append(i)
+                    .append(",\"orderNumber\":\"ORD-BENCH-").append(i).append('"')
+                    .append(",\"username\":\"benchuser\",\"productName\":\"Product ").append(i % 10).append('"')
+                    .append(",\"quantity\":2,\"unitPrice\":10.5,\"totalAmount\":21.0,\"status\":\"PAID\"")
+                    .append(",\"createdAt\":\"2024-01-01T00:00:00Z\"}");
+        }
+        return out.append(']').toString();
+    }
+
+    /**
+     * In-memory RestAssured response, the same kind AsyncRestApiUtils builds
+     */
+    static Response response(String body) {
+        return new ResponseBuilder()
+                .setStatusCode(200)
+                .setStatusLine("HTTP/1.1 200")
+                .setContentType("application/json")
+                .setBody(body.getBytes(StandardCharsets.UTF_8))
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.dissertation.integrationtestautomation.benchmarks;
+
+import com.dissertation.integrationtestautomation.metrics.LatencyMetrics;
+import com.dissertation.integrationtestautomation.utils.FlightRecorder;
+import com.dissertation.integrationtestautomation.utils.JsonCodec;
+import com.dissertation.integrationtestautomation.utils.RequestTemplates;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Cost of assembling a request before anything is sent: the RestAssured specification chained call by call,
+ * the same specification merged from a RequestTemplates template (as RestApiUtils.postRequestWithAuth does),
+ * and the JDK HttpRequest built by AsyncRestApiUtils
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestBuildingBenchmark {
+
+    private static final String ENDPOINT = "http://localhost:8080/api/orders";
+
+    @Benchmark
+    public RequestSpecification restAssuredSpecification() {
+        return given()
+                .filter(LatencyMetrics.FILTER)
+                .filter(FlightRecorder.FILTER)
+                .cookies(new HashMap<>())
+                .contentType(ContentType.JSON)
+                .accept("*/*")
+                .header("User-Agent", "curl/8.4.0")
+                .header("Connection", "close")
+                .header("Authorization", "Bearer " + Payloads.TOKEN)
+                .redirects().follow(false)
+                .body(JsonCodec.toJson(Payloads.orderRecord()));
+    }
+
+    @Benchmark
+    public RequestSpecification restAssuredTemplate() {
+        return given(RequestTemplates.post())
+                .header(RequestTemplates.authorization(Payloads.TOKEN))
+                .body(JsonCodec.toJson(Payloads.orderRecord()));
+    }
+
+    @Benchmark
+    public HttpRequest jdkHttpRequest() {
+        return HttpRequest.newBuilder(URI.create(ENDPOINT))
+                .timeout(Duration.ofMillis(30000))
+                .header("Accept", "*/*")
+                .header("User-Agent", "curl/8.4.0")
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + Payloads.TOKEN)
+                .POST(HttpRequest.BodyPublishers.ofString(JsonCodec.toJson(Payloads.orderRecord())))
+                .build();
+    }
+}
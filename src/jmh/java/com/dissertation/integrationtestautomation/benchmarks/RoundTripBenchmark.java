@@ -0,0 +1,77 @@
+package com.dissertation.integrationtestautomation.benchmarks;
+
+import com.dissertation.integrationtestautomation.model.AuthResponse;
+import com.dissertation.integrationtestautomation.model.LoginRequest;
+import com.dissertation.integrationtestautomation.model.RegisterRequest;
+import com.dissertation.integrationtestautomation.stub.StubServer;
+import com.dissertation.integrationtestautomation.utils.ApiClient;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full client round trips against the in-process StubServer on loopback (no added latency), so the
+ * numbers are client-stack cost plus loopback I/O rather than service time. Console wire logging is
+ * switched off (see LoggingBenchmark for its cost).
+ * Transport and logging settings are read from system properties, so compare them with separate runs,
+ * e.g. -Djmh.args="RoundTrip -jvmArgsAppend -Drest.transport=pooled -rf json -rff target/jmh-pooled.json"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Dstub.latency=none", "-Dmetrics.enabled=false", "-Drest.logging=async",
+        "-Drest.logging.sample=errors"})
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+
+    private static final String USERNAME = "jmhbench";
+    private static final String PASSWORD = "password123";
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void startStub() {
+        StubServer.startShared();
+        AuthResponse auth = ApiClient.registerUserAsync(
+                new RegisterRequest(USERNAME, USERNAME + "@example.com", PASSWORD)).join();
+        token = auth.token();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopStub() {
+        StubServer.stopShared();
+    }
+
+    @Benchmark
+    public Response healthBlocking() {
+        return ApiClient.getUserServiceHealth();
+    }
+
+    @Benchmark
+    public Response healthAsync() {
+        return ApiClient.getUserServiceHealthAsync().join();
+    }
+
+    @Benchmark
+    public AuthResponse loginTypedAsync() {
+        return ApiClient.loginUserAsync(new LoginRequest(USERNAME, PASSWORD)).join();
+    }
+
+    @Benchmark
+    public Response userOrdersBlocking() {
+        return ApiClient.getUserOrders(USERNAME, token);
+    }
+}
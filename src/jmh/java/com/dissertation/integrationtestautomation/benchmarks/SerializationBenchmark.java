@@ -0,0 +1,46 @@
+package com.dissertation.integrationtestautomation.benchmarks;
+
+import com.dissertation.integrationtestautomation.utils.JsonCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body serialisation: the HashMap bodies the client used to build versus the model records
+ * written through JsonCodec's cached writers. Each variant includes building the body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    private final ObjectMapper plainMapper = new ObjectMapper();
+
+    @Benchmark
+    public String hashMapBody() throws JsonProcessingException {
+        return plainMapper.writeValueAsString(Payloads.orderMap());
+    }
+
+    @Benchmark
+    public String hashMapBodyViaCodec() {
+        return JsonCodec.toJson(Payloads.orderMap());
+    }
+
+    @Benchmark
+    public String recordBodyViaCodec() {
+        return JsonCodec.toJson(Payloads.orderRecord());
+    }
+}
@@ -1,14 +1,35 @@
 package com.dissertation.integrationtestautomation.listeners;
 
+import com.dissertation.integrationtestautomation.metrics.LatencyMetrics;
+import com.dissertation.integrationtestautomation.stub.StubServer;
+import com.dissertation.integrationtestautomation.utils.AsyncAwaiter;
+import com.dissertation.integrationtestautomation.utils.CircuitBreaker;
+import com.dissertation.integrationtestautomation.utils.EndpointRegistry;
+import com.dissertation.integrationtestautomation.utils.FlightRecorder;
+import com.dissertation.integrationtestautomation.utils.IdempotencyKeys;
+import com.dissertation.integrationtestautomation.utils.RequestLog;
+import com.dissertation.integrationtestautomation.utils.RetryBudget;
+import com.dissertation.integrationtestautomation.utils.TokenCache;
+import com.dissertation.integrationtestautomation.utils.TrafficCapture;
+import com.dissertation.integrationtestautomation.utils.UserPool;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 import org.testng.Reporter;
 
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Custom TestNG listener to provide detailed error reporting
  * Helps display assertion errors and test failures in IDE output
+ * At suite end it prints per-endpoint latency percentiles and writes them to a file
+ * On failure or skip it prints the test's recent HTTP exchanges from the FlightRecorder
+ * At suite start it starts the StubServer (-Dstub.server=true) and provisions the UserPool (-Duserpool.size)
  */
-public class TestNGListener implements ITestListener {
+public class TestNGListener implements ITestListener, ISuiteListener {
 
     @Override
     public void onTestFailure(ITestResult result) {
@@ -43,7 +64,8 @@ public class TestNGListener implements ITestListener {
                 System.out.println("  - " + message);
             }
         }
-        
+
+        printRecentExchanges();
         System.out.println("==========================================\n");
     }
 
@@ -58,11 +80,98 @@ public class TestNGListener implements ITestListener {
         if (result.getThrowable() != null) {
             System.out.println("  Reason: " + result.getThrowable().getMessage());
         }
+        printRecentExchanges();
     }
 
     @Override
     public void onTestStart(ITestResult result) {
         System.out.println("▶ RUNNING: " + result.getMethod().getMethodName());
+        FlightRecorder.clear();
+    }
+
+    /**
+     * Print the HTTP exchanges the current test made on this thread (from the FlightRecorder)
+     */
+    private static void printRecentExchanges() {
+        if (!FlightRecorder.isEnabled()) {
+            return;
+        }
+        String exchanges = FlightRecorder.dump();
+        if (!exchanges.isEmpty()) {
+            System.out.println("\nRecent HTTP Exchanges:");
+            System.out.print(exchanges);
+        }
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        String waits = AsyncAwaiter.summary();
+        if (!waits.isEmpty()) {
+            System.out.println("\n==========================================");
+            System.out.println("EVENTUAL-CONSISTENCY WAITS: " + context.getName());
+            System.out.println("==========================================");
+            System.out.print(waits);
+            System.out.println("==========================================\n");
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (StubServer.isEnabled()) {
+            StubServer.startShared();
+        }
+        if (UserPool.isEnabled()) {
+            UserPool.provisionShared();
+        }
     }
-}
 
+    @Override
+    public void onFinish(ISuite suite) {
+        if (UserPool.isEnabled()) {
+            System.out.println("UserPool - " + UserPool.shared().stats());
+        }
+        if (TokenCache.shared().size() > 0) {
+            System.out.println("TokenCache - " + TokenCache.shared().stats());
+        }
+        if (StubServer.isEnabled()) {
+            StubServer.stopShared();
+        }
+        if (RetryBudget.shared().wasUsed()) {
+            System.out.println("RetryBudget - " + RetryBudget.shared().stats());
+        }
+        if (IdempotencyKeys.wasUsed()) {
+            System.out.println("Idempotency - " + IdempotencyKeys.stats());
+        }
+        String breakers = CircuitBreaker.report();
+        if (!breakers.isEmpty()) {
+            System.out.println("CircuitBreaker:");
+            System.out.print(breakers);
+        }
+        String endpoints = EndpointRegistry.shared().report();
+        if (!endpoints.isEmpty()) {
+            System.out.println("EndpointRegistry (" + EndpointRegistry.shared().getBalancer() + "):");
+            System.out.print(endpoints);
+        }
+        if (TrafficCapture.isEnabled()) {
+            TrafficCapture.close();
+            System.out.println("TrafficCapture - " + TrafficCapture.stats());
+        }
+        if (RequestLog.isAsync()) {
+            RequestLog.flush(5, TimeUnit.SECONDS);
+            System.out.println("RequestLog - " + RequestLog.stats());
+        }
+        String latencies = LatencyMetrics.report();
+        if (latencies.isEmpty()) {
+            return;
+        }
+        System.out.println("\n==========================================");
+        System.out.println("ENDPOINT LATENCY (ms): " + suite.getName());
+        System.out.println("==========================================");
+        System.out.print(latencies);
+        Path reportFile = LatencyMetrics.writeReport();
+        if (reportFile != null) {
+            System.out.println("Latency report written to " + reportFile.toAbsolutePath());
+        }
+        System.out.println("==========================================\n");
+    }
+}
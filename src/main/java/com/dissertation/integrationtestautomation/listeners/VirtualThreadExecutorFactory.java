@@ -0,0 +1,233 @@
+package com.dissertation.integrationtestautomation.listeners;
+
+import com.dissertation.integrationtestautomation.utils.VirtualThreads;
+import org.testng.IDynamicGraph;
+import org.testng.IExecutionVisualiser;
+import org.testng.ISuite;
+import org.testng.ITestNGMethod;
+import org.testng.thread.IExecutorFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import org.testng.thread.IThreadWorkerFactory;
+import org.testng.thread.IWorker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TestNG executor factory that runs parallel test methods on virtual threads
+ * TestNG only takes an executor factory through TestNG.setExecutorFactory or its -threadpoolfactoryclass
+ * option, neither of which Surefire exposes, so the factory is installed by VirtualThreadTestMain
+ * (mvn test-compile exec:java@virtual-tests) rather than by mvn test. DataProvider rows run on the virtual
+ * thread of the method they belong to.
+ *
+ * Supported system properties:
+ * - testng.virtual.maxConcurrency: max test methods in flight (default: thread-count from testng.xml)
+ * - testng.virtual.preservePriority: only start a method once all lower priorities have finished (default true)
+ */
+public class VirtualThreadExecutorFactory implements IExecutorFactory {
+
+    private static final Integer MAX_CONCURRENCY = Integer.getInteger("testng.virtual.maxConcurrency");
+    private static final boolean PRESERVE_PRIORITY =
+            Boolean.parseBoolean(System.getProperty("testng.virtual.preservePriority", "true"));
+
+    /**
+     * @return the largest number of test methods run at once, or null to use the suite's thread-count
+     */
+    static Integer getMaxConcurrency() {
+        return MAX_CONCURRENCY;
+    }
+
+    @Override
+    public ITestNGThreadPoolExecutor newSuiteExecutor(String name, IDynamicGraph<ISuite> graph,
+                                                      IThreadWorkerFactory<ISuite> factory, int corePoolSize,
+                                                      int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                                      BlockingQueue<Runnable> workQueue, Comparator<ISuite> comparator) {
+        return new GraphExecutor<>(graph, factory, Math.max(1, maximumPoolSize), keepAliveTime, unit, workQueue,
+                comparator, platformThreadFactory("TestNG-suite-" + name));
+    }
+
+    @Override
+    public ITestNGThreadPoolExecutor newTestMethodExecutor(String name, IDynamicGraph<ITestNGMethod> graph,
+                                                           IThreadWorkerFactory<ITestNGMethod> factory, int corePoolSize,
+                                                           int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                                           BlockingQueue<Runnable> workQueue,
+                                                           Comparator<ITestNGMethod> comparator) {
+        int concurrency = MAX_CONCURRENCY != null ? Math.max(1, MAX_CONCURRENCY) : Math.max(1, maximumPoolSize);
+        IDynamicGraph<ITestNGMethod> effectiveGraph = PRESERVE_PRIORITY ? new PriorityOrderedGraph(graph) : graph;
+        // Worker names keep the "TestNG" marker that TestNG uses to recognise its own threads
+        return new GraphExecutor<>(effectiveGraph, factory, concurrency, keepAliveTime, unit, workQueue, comparator,
+                VirtualThreads.threadFactory("TestNG-virtual-" + name));
+    }
+
+    private static ThreadFactory platformThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + "-" + counter.getAndIncrement());
+    }
+
+    /**
+     * Runs the nodes of a TestNG dependency graph as they become free
+     * Every finished worker marks its nodes finished and submits the nodes that became free; the executor shuts
+     * down once every node has finished, which is what TestNG waits for. TestNG's own graph executor is internal
+     * API, so this is the part of it the suite needs (without its opt-in testng.thread.affinity mode).
+     */
+    static final class GraphExecutor<T> extends ThreadPoolExecutor implements ITestNGThreadPoolExecutor {
+
+        private final IDynamicGraph<T> graph;
+        private final IThreadWorkerFactory<T> factory;
+        private final Comparator<T> comparator;
+
+        GraphExecutor(IDynamicGraph<T> graph, IThreadWorkerFactory<T> factory, int poolSize, long keepAliveTime,
+                      TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<T> comparator,
+                      ThreadFactory threadFactory) {
+            super(poolSize, poolSize, keepAliveTime, unit, workQueue, threadFactory);
+            this.graph = graph;
+            this.factory = factory;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public void run() {
+            synchronized (graph) {
+                if (graph.getNodeCount() == 0) {
+                    shutdown();
+                    return;
+                }
+                runNodes(graph.getFreeNodes());
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void afterExecute(Runnable runnable, Throwable error) {
+            synchronized (graph) {
+                setStatus((IWorker<T>) runnable, IDynamicGraph.Status.FINISHED);
+                if (graph.getNodeCount() == graph.getNodeCountWithStatus(IDynamicGraph.Status.FINISHED)) {
+                    shutdown();
+                } else {
+                    runNodes(graph.getFreeNodes());
+                }
+            }
+        }
+
+        private void runNodes(List<T> freeNodes) {
+            List<T> nodes = new ArrayList<>(freeNodes);
+            if (comparator != null) {
+                nodes.sort(comparator);
+            }
+            for (IWorker<T> worker : factory.createWorkers(nodes)) {
+                setStatus(worker, IDynamicGraph.Status.RUNNING);
+                execute(worker);
+            }
+        }
+
+        private void setStatus(IWorker<T> worker, IDynamicGraph.Status status) {
+            for (T node : worker.getTasks()) {
+                graph.setStatus(node, status);
+            }
+        }
+    }
+
+    /**
+     * Graph decorator that only releases free methods of the lowest unfinished priority,
+     * so tests that rely on priority ordering still see earlier priorities complete first.
+     * Methods sharing a priority run concurrently.
+     */
+    static class PriorityOrderedGraph implements IDynamicGraph<ITestNGMethod> {
+
+        private final IDynamicGraph<ITestNGMethod> delegate;
+
+        PriorityOrderedGraph(IDynamicGraph<ITestNGMethod> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<ITestNGMethod> getFreeNodes() {
+            List<ITestNGMethod> freeNodes = delegate.getFreeNodes();
+            if (freeNodes.isEmpty()) {
+                return freeNodes;
+            }
+            int lowestPending = Integer.MAX_VALUE;
+            for (ITestNGMethod method : delegate.getNodesWithStatus(Status.READY)) {
+                lowestPending = Math.min(lowestPending, method.getPriority());
+            }
+            for (ITestNGMethod method : delegate.getNodesWithStatus(Status.RUNNING)) {
+                lowestPending = Math.min(lowestPending, method.getPriority());
+            }
+            List<ITestNGMethod> released = new ArrayList<>();
+            for (ITestNGMethod method : freeNodes) {
+                if (method.getPriority() == lowestPending) {
+                    released.add(method);
+                }
+            }
+            return released;
+        }
+
+        @Override
+        public boolean addNode(ITestNGMethod node) {
+            return delegate.addNode(node);
+        }
+
+        @Override
+        public void addEdge(int weight, ITestNGMethod from, ITestNGMethod to) {
+            delegate.addEdge(weight, from, to);
+        }
+
+        @Override
+        public void setVisualisers(Set<IExecutionVisualiser> visualisers) {
+            delegate.setVisualisers(visualisers);
+        }
+
+        @Override
+        public void addEdges(int weight, ITestNGMethod from, Iterable<ITestNGMethod> to) {
+            delegate.addEdges(weight, from, to);
+        }
+
+        @Override
+        public List<ITestNGMethod> getUpstreamDependenciesFor(ITestNGMethod node) {
+            return delegate.getUpstreamDependenciesFor(node);
+        }
+
+        @Override
+        public List<ITestNGMethod> getDependenciesFor(ITestNGMethod node) {
+            return delegate.getDependenciesFor(node);
+        }
+
+        @Override
+        public void setStatus(Collection<ITestNGMethod> nodes, Status status) {
+            delegate.setStatus(nodes, status);
+        }
+
+        @Override
+        public void setStatus(ITestNGMethod node, Status status) {
+            delegate.setStatus(node, status);
+        }
+
+        @Override
+        public int getNodeCount() {
+            return delegate.getNodeCount();
+        }
+
+        @Override
+        public int getNodeCountWithStatus(Status status) {
+            return delegate.getNodeCountWithStatus(status);
+        }
+
+        @Override
+        public Set<ITestNGMethod> getNodesWithStatus(Status status) {
+            return delegate.getNodesWithStatus(status);
+        }
+
+        @Override
+        public String toDot() {
+            return delegate.toDot();
+        }
+    }
+}
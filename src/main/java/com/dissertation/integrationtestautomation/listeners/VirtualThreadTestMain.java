@@ -0,0 +1,34 @@
+package com.dissertation.integrationtestautomation.listeners;
+
+import com.dissertation.integrationtestautomation.utils.VirtualThreads;
+import org.testng.TestNG;
+
+import java.util.List;
+
+/**
+ * Runs the TestNG suite with test methods on virtual threads (see VirtualThreadExecutorFactory)
+ * Run with: mvn test-compile exec:java@virtual-tests -Dtestng.virtual.maxConcurrency=500
+ *
+ * Supported system properties:
+ * - testng.suite: suite file to run (default src/test/resources/testng.xml)
+ * - testng.outputDir: directory for TestNG's reports (default target/testng-virtual)
+ */
+public class VirtualThreadTestMain {
+
+    public static void main(String[] args) {
+        String suite = System.getProperty("testng.suite", "src/test/resources/testng.xml");
+        Integer maxConcurrency = VirtualThreadExecutorFactory.getMaxConcurrency();
+        System.out.println("VirtualThreadTestMain - Running " + suite + " with test methods on "
+                + (VirtualThreads.isAvailable() ? "virtual" : "platform (virtual threads need Java 21+)")
+                + " threads" + (maxConcurrency != null ? ", max concurrency " + maxConcurrency : ""));
+
+        TestNG testng = new TestNG();
+        testng.setExecutorFactory(new VirtualThreadExecutorFactory());
+        testng.setTestSuites(List.of(suite));
+        testng.setOutputDirectory(System.getProperty("testng.outputDir", "target/testng-virtual"));
+        testng.run();
+        if (testng.hasFailure()) {
+            throw new IllegalStateException("TestNG suite " + suite + " failed (status " + testng.getStatus() + ")");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.dissertation.integrationtestautomation.load;
+
+/**
+ * Target arrival rate (requests per second) as a function of elapsed run time
+ * Used by the open-model LoadGenerator to decide when the next request is due.
+ */
+@FunctionalInterface
+public interface ArrivalProfile {
+
+    /**
+     * @param elapsedNanos time since the start of the run
+     * @return the target arrival rate in requests per second at that time
+     */
+    double rateAt(long elapsedNanos);
+
+    /**
+     * Constant arrival rate
+     *
+     * @param ratePerSecond requests per second
+     * @return the profile
+     */
+    static ArrivalProfile constant(double ratePerSecond) {
+        return elapsedNanos -> ratePerSecond;
+    }
+
+    /**
+     * Linear ramp from one rate to another, then hold the final rate
+     *
+     * @param fromRate starting requests per second
+     * @param toRate final requests per second
+     * @param rampNanos duration of the ramp
+     * @return the profile
+     */
+    static ArrivalProfile ramp(double fromRate, double toRate, long rampNanos) {
+        return elapsedNanos -> {
+            if (elapsedNanos >= rampNanos) {
+                return toRate;
+            }
+            return fromRate + (toRate - fromRate) * ((double) elapsedNanos / rampNanos);
+        };
+    }
+
+    /**
+     * Staircase: start at a rate and add a fixed increment every step, up to a maximum number of steps
+     *
+     * @param startRate requests per second for the first step
+     * @param increment requests per second added at each step
+     * @param stepNanos duration of each step
+     * @param maxSteps number of increments after which the rate is held
+     * @return the profile
+     * @throws IllegalArgumentException if stepNanos is not positive or maxSteps is negative
+     */
+    static ArrivalProfile step(double startRate, double increment, long stepNanos, int maxSteps) {
+        if (stepNanos <= 0) {
+            throw new IllegalArgumentException("Step duration must be positive, was " + stepNanos + "ns");
+        }
+        if (maxSteps < 0) {
+            throw new IllegalArgumentException("Number of steps must not be negative, was " + maxSteps);
+        }
+        return elapsedNanos -> startRate + increment * Math.min(maxSteps, elapsedNanos / stepNanos);
+    }
+
+    /**
+     * Base rate with a single burst at a higher rate
+     *
+     * @param baseRate requests per second outside the spike
+     * @param spikeRate requests per second during the spike
+     * @param spikeStartNanos when the spike starts
+     * @param spikeNanos how long the spike lasts
+     * @return the profile
+     */
+    static ArrivalProfile spike(double baseRate, double spikeRate, long spikeStartNanos, long spikeNanos) {
+        return elapsedNanos -> elapsedNanos >= spikeStartNanos && elapsedNanos < spikeStartNanos + spikeNanos
+                ? spikeRate : baseRate;
+    }
+}
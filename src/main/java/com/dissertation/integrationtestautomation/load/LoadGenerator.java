@@ -0,0 +1,131 @@
+package com.dissertation.integrationtestautomation.load;
+
+import io.restassured.response.Response;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator
+ * Requests are started at the times dictated by an ArrivalProfile, independent of how long earlier
+ * requests take (unlike the closed-loop TestNG tests). Operations are asynchronous so a single
+ * scheduler thread can keep thousands of requests in flight.
+ */
+public class LoadGenerator {
+
+    /**
+     * One request issued by the generator
+     */
+    @FunctionalInterface
+    public interface Operation {
+        /**
+         * @param sequence 0-based sequence number of this request in the run
+         * @return future completing with the response
+         */
+        CompletableFuture<Response> execute(long sequence);
+    }
+
+    private final String name;
+    private final ArrivalProfile profile;
+    private final long durationNanos;
+    private final int maxInFlight;
+    private final boolean poissonArrivals;
+    private final long drainTimeoutNanos;
+
+    /**
+     * @param name name shown in the report
+     * @param profile target arrival rate over time
+     * @param duration how long to issue requests
+     * @param unit unit of duration
+     * @param maxInFlight safety cap on outstanding requests; arrivals beyond it are counted as dropped
+     * @param poissonArrivals true for exponentially distributed inter-arrival times, false for uniform spacing
+     */
+    public LoadGenerator(String name, ArrivalProfile profile, long duration, TimeUnit unit,
+                         int maxInFlight, boolean poissonArrivals) {
+        this.name = name;
+        this.profile = profile;
+        this.durationNanos = unit.toNanos(duration);
+        this.maxInFlight = maxInFlight;
+        this.poissonArrivals = poissonArrivals;
+        this.drainTimeoutNanos = TimeUnit.SECONDS.toNanos(30);
+    }
+
+    /**
+     * Run the load and wait for outstanding requests to finish (up to 30s after the last arrival)
+     *
+     * @param operation the request to issue at each arrival
+     * @return the report for the run
+     */
+    public LoadReport run(Operation operation) {
+        LoadReport report = new LoadReport(name);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicLong sequence = new AtomicLong();
+
+        long start = System.nanoTime();
+        report.started(start);
+        double nextOffset = 0;
+
+        while (nextOffset < durationNanos) {
+            double rate = profile.rateAt((long) nextOffset);
+            if (rate <= 0) {
+                // Nothing due at this rate, look again shortly
+                nextOffset += TimeUnit.MILLISECONDS.toNanos(10);
+                continue;
+            }
+
+            long intendedStart = start + (long) nextOffset;
+            long waitNanos = intendedStart - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            if (inFlight.get() >= maxInFlight) {
+                report.recordDropped();
+            } else {
+                inFlight.incrementAndGet();
+                report.recordIssued();
+                dispatch(operation, sequence.getAndIncrement(), intendedStart, report, inFlight);
+            }
+
+            double meanGap = 1e9 / rate;
+            nextOffset += poissonArrivals
+                    ? -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanGap
+                    : meanGap;
+        }
+
+        long drainDeadline = System.nanoTime() + drainTimeoutNanos;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        if (inFlight.get() > 0) {
+            System.err.println("LoadGenerator - " + inFlight.get() + " requests still in flight after drain timeout");
+        }
+        report.finished(System.nanoTime());
+        return report;
+    }
+
+    private static void dispatch(Operation operation, long sequence, long intendedStart,
+                                 LoadReport report, AtomicInteger inFlight) {
+        long actualStart = System.nanoTime();
+        CompletableFuture<Response> future;
+        try {
+            future = operation.execute(sequence);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((response, error) -> {
+            long end = System.nanoTime();
+            if (error != null) {
+                report.recordError(error.getCause() != null ? error.getCause() : error,
+                        end - intendedStart, end - actualStart);
+            } else {
+                report.recordResponse(response.getStatusCode(), end - intendedStart, end - actualStart);
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+}
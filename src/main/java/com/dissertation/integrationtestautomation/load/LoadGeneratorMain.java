@@ -0,0 +1,171 @@
+package com.dissertation.integrationtestautomation.load;
+
+import com.dissertation.integrationtestautomation.metrics.LatencyMetrics;
+import com.dissertation.integrationtestautomation.utils.ApiClient;
+import com.dissertation.integrationtestautomation.utils.CircuitBreaker;
+import com.dissertation.integrationtestautomation.utils.EndpointRegistry;
+import com.dissertation.integrationtestautomation.utils.IdempotencyKeys;
+import com.dissertation.integrationtestautomation.utils.RetryBudget;
+import com.dissertation.integrationtestautomation.utils.TestDataUtils;
+import com.dissertation.integrationtestautomation.utils.TrafficCapture;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command-line entry point for open-model load runs against the gateway
+ * Run with: mvn compile exec:java@load -Dload.operation=createOrder -Dload.profile=ramp -Dload.rate=10 -Dload.rateTo=200
+ *
+ * Supported system properties:
+ * - load.operation: health | register | login | createOrder | getOrder | getPayment | userOrders | notifications (default health)
+ * - load.profile: constant | ramp | step | spike (default constant)
+ * - load.rate: base requests per second (default 10)
+ * - load.rateTo: target rate for ramp, spike rate for spike (default 2 x load.rate)
+ * - load.duration: run length, e.g. 60s, 2m, 500ms (default 60s)
+ * - load.rampDuration: ramp length (default load.duration)
+ * - load.stepIncrement / load.stepDuration / load.steps: staircase settings (default rate / 10s / 10)
+ * - load.spikeStart / load.spikeDuration: spike window (default 1/3 of duration / 10s)
+ * - load.maxInFlight: cap on outstanding requests (default 10000)
+ * - load.poisson: exponentially distributed arrivals instead of uniform spacing (default false)
+ * - flight.recorder.enabled: keep per-thread exchanges for failure dumps; nothing reads them here (default false)
+ */
+public class LoadGeneratorMain {
+
+    private static final String PASSWORD = "password123";
+
+    public static void main(String[] args) {
+        disableFlightRecorderByDefault();
+        String operationName = System.getProperty("load.operation", "health");
+        double rate = Double.parseDouble(System.getProperty("load.rate", "10"));
+        long durationNanos = parseDurationNanos(System.getProperty("load.duration", "60s"));
+        int maxInFlight = Integer.getInteger("load.maxInFlight", 10000);
+        boolean poisson = Boolean.parseBoolean(System.getProperty("load.poisson", "false"));
+
+        ArrivalProfile profile = buildProfile(System.getProperty("load.profile", "constant"), rate, durationNanos);
+        LoadGenerator.Operation operation = buildOperation(operationName);
+
+        System.out.println("LoadGenerator - Running " + operationName + " (" + System.getProperty("load.profile", "constant")
+                + ", base rate " + rate + " req/s) for " + TimeUnit.NANOSECONDS.toSeconds(durationNanos) + "s");
+        LoadGenerator generator = new LoadGenerator(operationName, profile, durationNanos, TimeUnit.NANOSECONDS,
+                maxInFlight, poisson);
+        LoadReport report = generator.run(operation);
+
+        System.out.print(report.format());
+        System.out.print(LatencyMetrics.report());
+        System.out.print(CircuitBreaker.report());
+        System.out.print(EndpointRegistry.shared().report());
+        System.out.println("RetryBudget - " + RetryBudget.shared().stats());
+        System.out.println("Idempotency - " + IdempotencyKeys.stats());
+        if (TrafficCapture.isEnabled()) {
+            TrafficCapture.close();
+            System.out.println("TrafficCapture - " + TrafficCapture.stats());
+        }
+        Path reportFile = LatencyMetrics.writeReport();
+        if (reportFile != null) {
+            System.out.println("Latency report written to " + reportFile.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Turn the FlightRecorder off unless flight.recorder.enabled was given; load runs never dump it
+     * Must run before anything touches FlightRecorder, which reads the property once.
+     */
+    public static void disableFlightRecorderByDefault() {
+        if (System.getProperty("flight.recorder.enabled") == null) {
+            System.setProperty("flight.recorder.enabled", "false");
+        }
+    }
+
+    /**
+     * Build the arrival profile named by load.profile
+     */
+    static ArrivalProfile buildProfile(String name, double rate, long durationNanos) {
+        double rateTo = Double.parseDouble(System.getProperty("load.rateTo", String.valueOf(rate * 2)));
+        switch (name.toLowerCase()) {
+            case "constant":
+                return ArrivalProfile.constant(rate);
+            case "ramp":
+                return ArrivalProfile.ramp(rate, rateTo,
+                        parseDurationNanos(System.getProperty("load.rampDuration", durationNanos + "ns")));
+            case "step":
+                try {
+                    return ArrivalProfile.step(rate,
+                            Double.parseDouble(System.getProperty("load.stepIncrement", String.valueOf(rate))),
+                            parseDurationNanos(System.getProperty("load.stepDuration", "10s")),
+                            Integer.getInteger("load.steps", 10));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid load.stepDuration / load.steps: " + e.getMessage(), e);
+                }
+            case "spike":
+                return ArrivalProfile.spike(rate, rateTo,
+                        parseDurationNanos(System.getProperty("load.spikeStart", (durationNanos / 3) + "ns")),
+                        parseDurationNanos(System.getProperty("load.spikeDuration", "10s")));
+            default:
+                throw new IllegalArgumentException("Unknown load.profile: " + name
+                        + " (expected constant, ramp, step or spike)");
+        }
+    }
+
+    /**
+     * Build the operation named by load.operation, provisioning a user (and order) first where needed
+     */
+    static LoadGenerator.Operation buildOperation(String name) {
+        String runId = Long.toString(System.currentTimeMillis() % 100000, 36);
+        switch (name) {
+            case "health":
+                return sequence -> ApiClient.getUserServiceHealthAsync();
+            case "register":
+                return sequence -> {
+                    String username = "ld" + runId + "u" + sequence;
+                    return ApiClient.registerUserAsync(username, username + "@example.com", PASSWORD);
+                };
+            default:
+                break;
+        }
+
+        String username = TestDataUtils.generateValidUsername("load");
+        String token = TestDataUtils.registerAndGetToken(username, username + "@example.com");
+        if (token == null) {
+            throw new IllegalStateException("Could not provision load user " + username + "; is the gateway running?");
+        }
+
+        switch (name) {
+            case "login":
+                return sequence -> ApiClient.loginUserAsync(username, PASSWORD);
+            case "createOrder":
+                return sequence -> ApiClient.createOrderAsync(username, "Load Product", 1, 9.99, token);
+            case "userOrders":
+                return sequence -> ApiClient.getUserOrdersAsync(username, token);
+            case "notifications":
+                return sequence -> ApiClient.getUserNotificationsAsync(username, token);
+            case "getOrder":
+            case "getPayment":
+                String orderNumber = TestDataUtils.createOrderAndGetOrderNumber(token, username, "Load Product", 1, 9.99);
+                if (orderNumber == null) {
+                    throw new IllegalStateException("Could not create an order for the load run");
+                }
+                return "getOrder".equals(name)
+                        ? sequence -> ApiClient.getOrderDetailsAsync(orderNumber, token)
+                        : sequence -> ApiClient.getPaymentDetailsAsync(orderNumber, token);
+            default:
+                throw new IllegalArgumentException("Unknown load.operation: " + name);
+        }
+    }
+
+    /**
+     * Parse durations such as "500ms", "30s", "2m" or "1000000ns"; plain numbers are seconds
+     */
+    public static long parseDurationNanos(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ns")) {
+            return Long.parseLong(v.substring(0, v.length() - 2));
+        } else if (v.endsWith("ms")) {
+            return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(v.substring(0, v.length() - 2)));
+        } else if (v.endsWith("s")) {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(v.substring(0, v.length() - 1)));
+        } else if (v.endsWith("m")) {
+            return TimeUnit.MINUTES.toNanos(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return TimeUnit.SECONDS.toNanos(Long.parseLong(v));
+    }
+}
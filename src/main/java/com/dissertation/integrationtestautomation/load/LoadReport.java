@@ -0,0 +1,145 @@
+package com.dissertation.integrationtestautomation.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome of a load run: counts, errors by status and latency percentiles
+ * Response time is measured from the intended start of each request (so queueing behind a slow
+ * system is included, avoiding coordinated omission); service time is measured from the actual send.
+ */
+public class LoadReport {
+
+    private static final long HIGHEST_TRACKABLE_US = TimeUnit.HOURS.toMicros(1);
+
+    private final String name;
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errorCounts = new ConcurrentHashMap<>();
+    private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_US, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_US, 3);
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    public LoadReport(String name) {
+        this.name = name;
+    }
+
+    void started(long nanos) {
+        startNanos = nanos;
+    }
+
+    void finished(long nanos) {
+        endNanos = nanos;
+    }
+
+    void recordIssued() {
+        issued.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void recordResponse(int statusCode, long responseNanos, long serviceNanos) {
+        completed.increment();
+        statusCounts.computeIfAbsent(statusCode, key -> new LongAdder()).increment();
+        responseTime.recordValue(toMicros(responseNanos));
+        serviceTime.recordValue(toMicros(serviceNanos));
+    }
+
+    void recordError(Throwable error, long responseNanos, long serviceNanos) {
+        completed.increment();
+        errorCounts.computeIfAbsent(error.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        responseTime.recordValue(toMicros(responseNanos));
+        serviceTime.recordValue(toMicros(serviceNanos));
+    }
+
+    /** @return requests issued */
+    public long getIssued() {
+        return issued.sum();
+    }
+
+    /** @return requests that completed (with a response or an error) */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /** @return requests not issued because the in-flight cap was reached */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /** @return count of responses per HTTP status */
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    /** @return count of failed requests per exception type */
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        errorCounts.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    /** @return achieved throughput in completed requests per second */
+    public double getThroughput() {
+        long elapsed = endNanos - startNanos;
+        return elapsed <= 0 ? 0.0 : completed.sum() / (elapsed / 1e9);
+    }
+
+    /** @return copy of the response-time histogram (microseconds, from intended start) */
+    public Histogram getResponseTime() {
+        return responseTime.copy();
+    }
+
+    /** @return copy of the service-time histogram (microseconds, from actual send) */
+    public Histogram getServiceTime() {
+        return serviceTime.copy();
+    }
+
+    /**
+     * Human-readable summary of the run
+     *
+     * @return the formatted report
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("==========================================\n");
+        sb.append("LOAD RUN: ").append(name).append('\n');
+        sb.append("==========================================\n");
+        sb.append(String.format("  Duration:    %.1fs%n", (endNanos - startNanos) / 1e9));
+        sb.append(String.format("  Issued:      %d (dropped at in-flight cap: %d)%n", getIssued(), getDropped()));
+        sb.append(String.format("  Completed:   %d%n", getCompleted()));
+        sb.append(String.format("  Throughput:  %.1f req/s%n", getThroughput()));
+        sb.append("  Status:      ").append(getStatusCounts()).append('\n');
+        if (!errorCounts.isEmpty()) {
+            sb.append("  Errors:      ").append(getErrorCounts()).append('\n');
+        }
+        sb.append(String.format("  %-14s %9s %9s %9s %9s %9s%n", "Latency (ms)", "p50", "p90", "p99", "p99.9", "max"));
+        sb.append(percentiles("response", responseTime));
+        sb.append(percentiles("service", serviceTime));
+        sb.append("==========================================\n");
+        return sb.toString();
+    }
+
+    private static String percentiles(String label, Histogram h) {
+        return String.format("  %-14s %9.2f %9.2f %9.2f %9.2f %9.2f%n", label,
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0,
+                h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0);
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(0, Math.min(HIGHEST_TRACKABLE_US, nanos / 1000L));
+    }
+}
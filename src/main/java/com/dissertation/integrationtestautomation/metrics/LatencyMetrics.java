@@ -0,0 +1,300 @@
+package com.dissertation.integrationtestautomation.metrics;
+
+import com.dissertation.integrationtestautomation.utils.RouteTemplate;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms for every call made through RestApiUtils
+ * Endpoints are keyed by method plus route template (e.g. "POST /api/orders").
+ * Values are recorded in microseconds into HdrHistograms (3 significant digits).
+ * Hedged GETs (see HedgePolicy) are also counted per endpoint: hedges sent and hedges that answered first.
+ * Time spent waiting for a RateLimiter permit is kept in separate per-endpoint histograms, so throttling
+ * shows up in the report without inflating the request latencies.
+ *
+ * Supported system properties:
+ * - metrics.enabled: record latencies (default true)
+ * - metrics.expectedIntervalMs: intended interval between requests when driving a fixed rate;
+ *   when set, reports include percentiles corrected for coordinated omission
+ * - metrics.reportFile: where the suite-end report is written (default target/latency-report.csv)
+ */
+public final class LatencyMetrics {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("metrics.enabled", "true"));
+    private static final String REPORT_FILE = System.getProperty("metrics.reportFile", "target/latency-report.csv");
+
+    /** Highest trackable value: one hour in microseconds. */
+    private static final long HIGHEST_TRACKABLE_US = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder[]> HEDGES = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> THROTTLE_WAITS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> THROTTLE_REJECTED = new ConcurrentHashMap<>();
+
+    private static volatile long expectedIntervalUs = parseExpectedIntervalUs();
+
+    /**
+     * RestAssured filter timing the HTTP exchange of each request (excluding client-side retry waits)
+     */
+    public static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        record(requestSpec.getMethod(), requestSpec.getURI(), System.nanoTime() - start);
+        return response;
+    };
+
+    private LatencyMetrics() {
+    }
+
+    /**
+     * @return true if latency recording is enabled
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Record one call
+     *
+     * @param method the HTTP method
+     * @param url the request URL
+     * @param elapsedNanos the call latency in nanoseconds
+     */
+    public static void record(String method, String url, long elapsedNanos) {
+        recordEndpoint(RouteTemplate.key(method, url), elapsedNanos);
+    }
+
+    /**
+     * Record one call against an explicit endpoint key
+     *
+     * @param endpoint the endpoint key, e.g. "GET /api/orders/{n}"
+     * @param elapsedNanos the latency in nanoseconds
+     */
+    public static void recordEndpoint(String endpoint, long elapsedNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        long micros = Math.max(0, Math.min(HIGHEST_TRACKABLE_US, elapsedNanos / 1000L));
+        HISTOGRAMS.computeIfAbsent(endpoint, key -> new ConcurrentHistogram(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS))
+                .recordValue(micros);
+    }
+
+    /**
+     * Count a hedge sent for an endpoint
+     *
+     * @param endpoint the endpoint key, e.g. "GET /api/orders/{n}"
+     */
+    public static void recordHedge(String endpoint) {
+        if (ENABLED) {
+            hedgeCounters(endpoint)[0].increment();
+        }
+    }
+
+    /**
+     * Count a hedge that answered before the original request
+     *
+     * @param endpoint the endpoint key, e.g. "GET /api/orders/{n}"
+     */
+    public static void recordHedgeWon(String endpoint) {
+        if (ENABLED) {
+            hedgeCounters(endpoint)[1].increment();
+        }
+    }
+
+    /**
+     * Record how long a request waited for its rate limit permit (0 if it went straight out)
+     *
+     * @param endpoint the endpoint key, e.g. "POST /api/orders"
+     * @param waitNanos the wait in nanoseconds
+     */
+    public static void recordThrottleWait(String endpoint, long waitNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        long micros = Math.max(0, Math.min(HIGHEST_TRACKABLE_US, waitNanos / 1000L));
+        THROTTLE_WAITS.computeIfAbsent(endpoint, key -> new ConcurrentHistogram(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS))
+                .recordValue(micros);
+    }
+
+    /**
+     * Count a request the rate limiter refused
+     *
+     * @param endpoint the endpoint key, e.g. "POST /api/orders"
+     */
+    public static void recordThrottleRejected(String endpoint) {
+        if (ENABLED) {
+            THROTTLE_REJECTED.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Latency of an endpoint at a percentile, read from its live histogram
+     *
+     * @param endpoint the endpoint key, e.g. "GET /api/orders/{n}"
+     * @param percentile the percentile, e.g. 95
+     * @param minSamples calls the endpoint must have recorded
+     * @return the latency in nanoseconds, or -1 if fewer than minSamples calls were recorded
+     */
+    public static long valueAtPercentileNanos(String endpoint, double percentile, long minSamples) {
+        Histogram histogram = HISTOGRAMS.get(endpoint);
+        if (histogram == null || histogram.getTotalCount() < Math.max(1, minSamples)) {
+            return -1L;
+        }
+        return TimeUnit.MICROSECONDS.toNanos(histogram.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Set the intended interval between requests for coordinated-omission correction.
+     * Use 0 to disable correction.
+     *
+     * @param interval the expected interval
+     * @param unit the unit of interval
+     */
+    public static void setExpectedInterval(long interval, TimeUnit unit) {
+        expectedIntervalUs = unit.toMicros(interval);
+    }
+
+    /**
+     * Copy of the recorded histograms, keyed by endpoint
+     *
+     * @return sorted snapshot of every endpoint histogram
+     */
+    public static Map<String, Histogram> snapshot() {
+        Map<String, Histogram> copy = new TreeMap<>();
+        HISTOGRAMS.forEach((endpoint, histogram) -> copy.put(endpoint, histogram.copy()));
+        return copy;
+    }
+
+    /**
+     * Discard all recorded values
+     */
+    public static void reset() {
+        HISTOGRAMS.clear();
+        HEDGES.clear();
+        THROTTLE_WAITS.clear();
+        THROTTLE_REJECTED.clear();
+    }
+
+    /**
+     * Format a percentile table for all endpoints (milliseconds)
+     *
+     * @return the report, or an empty string if nothing was recorded
+     */
+    public static String report() {
+        Map<String, Histogram> histograms = snapshot();
+        if (histograms.isEmpty()) {
+            return "";
+        }
+        long correctionUs = expectedIntervalUs;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("  %-40s %8s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Count", "p50", "p90", "p99", "p99.9", "max"));
+        histograms.forEach((endpoint, histogram) -> {
+            sb.append(formatRow(endpoint, histogram));
+            if (correctionUs > 0) {
+                sb.append(formatRow("  (CO-corrected)", histogram.copyCorrectedForCoordinatedOmission(correctionUs)));
+            }
+        });
+        if (!HEDGES.isEmpty()) {
+            sb.append(String.format("  %-40s %8s %9s%n", "Hedged endpoint", "Hedges", "Won"));
+            new TreeMap<>(HEDGES).forEach((endpoint, counters) -> sb.append(String.format("  %-40s %8d %9d%n",
+                    endpoint, counters[0].sum(), counters[1].sum())));
+        }
+        if (!THROTTLE_WAITS.isEmpty() || !THROTTLE_REJECTED.isEmpty()) {
+            sb.append(String.format("  %-40s %8s %9s %9s %9s %9s%n",
+                    "Throttled endpoint", "Permits", "Delayed", "p99 wait", "max wait", "Rejected"));
+            Map<String, Histogram> waits = new TreeMap<>();
+            THROTTLE_WAITS.forEach((endpoint, histogram) -> waits.put(endpoint, histogram.copy()));
+            THROTTLE_REJECTED.keySet().forEach(endpoint -> waits.putIfAbsent(endpoint, null));
+            waits.forEach((endpoint, h) -> {
+                LongAdder rejected = THROTTLE_REJECTED.get(endpoint);
+                sb.append(h == null
+                        ? String.format("  %-40s %8d %9d %9s %9s %9d%n", endpoint, 0, 0, "-", "-", rejected.sum())
+                        : String.format("  %-40s %8d %9d %9.2f %9.2f %9d%n", endpoint, h.getTotalCount(),
+                        h.getTotalCount() - h.getCountAtValue(0), millis(h.getValueAtPercentile(99)),
+                        millis(h.getMaxValue()), rejected != null ? rejected.sum() : 0));
+            });
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write the percentile table as CSV to metrics.reportFile
+     *
+     * @return the path written, or null if nothing was recorded or writing failed
+     */
+    public static Path writeReport() {
+        Map<String, Histogram> histograms = snapshot();
+        if (histograms.isEmpty()) {
+            return null;
+        }
+        Path path = Paths.get(REPORT_FILE);
+        long correctionUs = expectedIntervalUs;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+                out.println("endpoint,corrected,count,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+                histograms.forEach((endpoint, histogram) -> {
+                    out.println(csvRow(endpoint, false, histogram));
+                    if (correctionUs > 0) {
+                        out.println(csvRow(endpoint, true, histogram.copyCorrectedForCoordinatedOmission(correctionUs)));
+                    }
+                });
+            }
+            return path;
+        } catch (IOException e) {
+            System.err.println("LatencyMetrics - Failed to write latency report to " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static LongAdder[] hedgeCounters(String endpoint) {
+        return HEDGES.computeIfAbsent(endpoint, key -> new LongAdder[] {new LongAdder(), new LongAdder()});
+    }
+
+    private static String formatRow(String endpoint, Histogram h) {
+        return String.format("  %-40s %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", endpoint, h.getTotalCount(),
+                millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()));
+    }
+
+    private static String csvRow(String endpoint, boolean corrected, Histogram h) {
+        return String.format("\"%s\",%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f", endpoint, corrected, h.getTotalCount(),
+                millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static long parseExpectedIntervalUs() {
+        String value = System.getProperty("metrics.expectedIntervalMs");
+        if (value == null || value.trim().isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Math.round(Double.parseDouble(value.trim()) * 1000.0);
+        } catch (NumberFormatException e) {
+            System.err.println("LatencyMetrics - Ignoring invalid metrics.expectedIntervalMs: " + value);
+            return 0L;
+        }
+    }
+}
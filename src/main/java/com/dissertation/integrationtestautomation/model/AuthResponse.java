@@ -0,0 +1,16 @@
+package com.dissertation.integrationtestautomation.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Successful register or login response
+ *
+ * @param token the JWT token
+ * @param type the token type, normally Bearer
+ * @param username the username
+ * @param email the email address
+ * @param role the user role
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AuthResponse(String token, String type, String username, String email, String role) {
+}
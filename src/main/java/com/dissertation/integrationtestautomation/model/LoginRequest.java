@@ -0,0 +1,10 @@
+package com.dissertation.integrationtestautomation.model;
+
+/**
+ * Body of POST /api/auth/login
+ *
+ * @param username the username
+ * @param password the password
+ */
+public record LoginRequest(String username, String password) {
+}
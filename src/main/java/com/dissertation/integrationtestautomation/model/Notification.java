@@ -0,0 +1,18 @@
+package com.dissertation.integrationtestautomation.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A notification as returned by the notification service
+ *
+ * @param id the notification id
+ * @param username the recipient
+ * @param orderNumber the order the notification is about, if any
+ * @param type the notification type, e.g. ORDER_CREATED
+ * @param message the message text
+ * @param createdAt creation time as sent by the service
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Notification(Long id, String username, String orderNumber, String type, String message,
+                           String createdAt) {
+}
@@ -0,0 +1,12 @@
+package com.dissertation.integrationtestautomation.model;
+
+/**
+ * Body of POST /api/orders
+ *
+ * @param username the user placing the order
+ * @param productName the product name
+ * @param quantity the quantity (at least 1)
+ * @param unitPrice the unit price
+ */
+public record OrderRequest(String username, String productName, int quantity, double unitPrice) {
+}
@@ -0,0 +1,21 @@
+package com.dissertation.integrationtestautomation.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * An order as returned by the order service
+ *
+ * @param id the order id
+ * @param orderNumber the order number used by the payment and notification services
+ * @param username the user who placed the order
+ * @param productName the product name
+ * @param quantity the quantity
+ * @param unitPrice the unit price
+ * @param totalAmount quantity times unit price
+ * @param status the order status, e.g. PENDING or PAID
+ * @param createdAt creation time as sent by the service
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OrderResponse(Long id, String orderNumber, String username, String productName, int quantity,
+                            double unitPrice, double totalAmount, String status, String createdAt) {
+}
@@ -0,0 +1,16 @@
+package com.dissertation.integrationtestautomation.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Payment for an order as returned by the payment service
+ *
+ * @param paymentId the payment id
+ * @param orderNumber the order the payment belongs to
+ * @param amount the amount charged
+ * @param status the payment status, e.g. COMPLETED
+ * @param createdAt creation time as sent by the service
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record PaymentResponse(String paymentId, String orderNumber, double amount, String status, String createdAt) {
+}
@@ -0,0 +1,19 @@
+package com.dissertation.integrationtestautomation.model;
+
+/**
+ * Body of POST /api/auth/register
+ *
+ * @param username the username (3-20 characters)
+ * @param email the email address
+ * @param password the password (at least 6 characters)
+ * @param role the user role (USER, ADMIN, etc.)
+ */
+public record RegisterRequest(String username, String email, String password, String role) {
+
+    /**
+     * Registration with the default role USER
+     */
+    public RegisterRequest(String username, String email, String password) {
+        this(username, email, password, "USER");
+    }
+}
@@ -0,0 +1,76 @@
+package com.dissertation.integrationtestautomation.scenario;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Source of per-journey test data
+ * Each call to next() returns the attributes to copy into a new Session. Implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface Feeder {
+
+    /**
+     * @return the next record
+     */
+    Map<String, Object> next();
+
+    /**
+     * Cycle through a fixed list of records
+     *
+     * @param records the records, must not be empty
+     * @return the feeder
+     */
+    static Feeder circular(List<Map<String, Object>> records) {
+        List<Map<String, Object>> copy = new ArrayList<>(records);
+        if (copy.isEmpty()) {
+            throw new IllegalArgumentException("Feeder records must not be empty");
+        }
+        AtomicLong index = new AtomicLong();
+        return () -> copy.get((int) (index.getAndIncrement() % copy.size()));
+    }
+
+    /**
+     * Pick a random record from a fixed list for each journey
+     *
+     * @param records the records, must not be empty
+     * @return the feeder
+     */
+    static Feeder random(List<Map<String, Object>> records) {
+        List<Map<String, Object>> copy = new ArrayList<>(records);
+        if (copy.isEmpty()) {
+            throw new IllegalArgumentException("Feeder records must not be empty");
+        }
+        return () -> copy.get(ThreadLocalRandom.current().nextInt(copy.size()));
+    }
+
+    /**
+     * Generate a record from a global sequence number
+     *
+     * @param generator builds the record for sequence 0, 1, 2, ...
+     * @return the feeder
+     */
+    static Feeder generated(LongFunction<Map<String, Object>> generator) {
+        AtomicLong sequence = new AtomicLong();
+        return () -> generator.apply(sequence.getAndIncrement());
+    }
+
+    /**
+     * Unique, validation-compliant (3-20 chars) username with a matching email and the default password
+     *
+     * @param prefix username prefix, up to 6 characters
+     * @return the feeder setting "username", "email" and "password"
+     */
+    static Feeder uniqueUsers(String prefix) {
+        String runId = Long.toString(System.currentTimeMillis() % 1000000L, 36);
+        String safePrefix = prefix.length() > 6 ? prefix.substring(0, 6) : prefix;
+        return generated(sequence -> {
+            String username = safePrefix + runId + Long.toString(sequence, 36);
+            return Map.of("username", username, "email", username + "@example.com", "password", "password123");
+        });
+    }
+}
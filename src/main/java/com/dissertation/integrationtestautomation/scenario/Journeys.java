@@ -0,0 +1,118 @@
+package com.dissertation.integrationtestautomation.scenario;
+
+import com.dissertation.integrationtestautomation.utils.ApiClient;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ready-made journeys against the gateway, built from ApiClient steps
+ */
+public final class Journeys {
+
+    private Journeys() {
+    }
+
+    /**
+     * The end-to-end flow from MicroservicesIntegrationTest.testEndToEndFlow:
+     * register, get user details, create order, get order, then get payment once it has been processed
+     *
+     * @param weight weight in the mix
+     * @return the scenario
+     */
+    public static Scenario endToEnd(int weight) {
+        return Scenario.named("end-to-end").weight(weight)
+                .feed(Feeder.uniqueUsers("e2e"))
+                .exec("register", s -> ApiClient.registerUserAsync(
+                        s.getString("username"), s.getString("email"), s.getString("password")))
+                    .expectStatus(200).extract("token", "token")
+                .exec("get user details", s -> ApiClient.getUserDetailsAsync(s.getString("username"), s.getString("token")))
+                    .expectStatus(200)
+                .pause(1, 3, TimeUnit.SECONDS)
+                .exec("create order", s -> ApiClient.createOrderAsync(
+                        s.getString("username"), "E2E Product", 1, 299.99, s.getString("token")))
+                    .expectStatus(200, 201).extract("orderNumber", "orderNumber")
+                .exec("get order", s -> ApiClient.getOrderDetailsAsync(s.getString("orderNumber"), s.getString("token")))
+                    .expectStatus(200)
+                .pause(2, 4, TimeUnit.SECONDS)
+                .exec("get payment", s -> ApiClient.getPaymentDetailsAsync(s.getString("orderNumber"), s.getString("token")))
+                    .expectStatus(200)
+                .build();
+    }
+
+    /**
+     * Sign up and browse: register, then look at orders and notifications
+     *
+     * @param weight weight in the mix
+     * @return the scenario
+     */
+    public static Scenario browse(int weight) {
+        return Scenario.named("browse").weight(weight)
+                .feed(Feeder.uniqueUsers("brw"))
+                .exec("register", s -> ApiClient.registerUserAsync(
+                        s.getString("username"), s.getString("email"), s.getString("password")))
+                    .expectStatus(200).extract("token", "token")
+                .pause(1, 5, TimeUnit.SECONDS)
+                .exec("get user orders", s -> ApiClient.getUserOrdersAsync(s.getString("username"), s.getString("token")))
+                    .expectStatus(200)
+                .pause(1, 5, TimeUnit.SECONDS)
+                .exec("get notifications", s -> ApiClient.getUserNotificationsAsync(s.getString("username"), s.getString("token")))
+                    .expectStatus(200)
+                .build();
+    }
+
+    /**
+     * Repeat buyer: register, then place several orders with think time in between
+     *
+     * @param weight weight in the mix
+     * @return the scenario
+     */
+    public static Scenario repeatBuyer(int weight) {
+        Scenario.Builder builder = Scenario.named("repeat-buyer").weight(weight)
+                .feed(Feeder.uniqueUsers("buy"))
+                .exec("register", s -> ApiClient.registerUserAsync(
+                        s.getString("username"), s.getString("email"), s.getString("password")))
+                    .expectStatus(200).extract("token", "token");
+        for (int i = 1; i <= 3; i++) {
+            builder.pause(2, 6, TimeUnit.SECONDS)
+                    .exec("create order " + i, s -> ApiClient.createOrderAsync(
+                            s.getString("username"), "Repeat Product", 2, 49.99, s.getString("token")))
+                        .expectStatus(200, 201);
+        }
+        return builder
+                .exec("get user orders", s -> ApiClient.getUserOrdersAsync(s.getString("username"), s.getString("token")))
+                    .expectStatus(200)
+                .build();
+    }
+
+    /**
+     * Look up a journey by name
+     *
+     * @param name end-to-end, browse or repeat-buyer
+     * @param weight weight in the mix
+     * @return the scenario
+     */
+    public static Scenario byName(String name, int weight) {
+        switch (name) {
+            case "end-to-end":
+                return endToEnd(weight);
+            case "browse":
+                return browse(weight);
+            case "repeat-buyer":
+                return repeatBuyer(weight);
+            default:
+                throw new IllegalArgumentException("Unknown journey: " + name
+                        + " (expected end-to-end, browse or repeat-buyer)");
+        }
+    }
+
+    /**
+     * Default traffic mix: mostly browsing, some repeat buyers, a few full end-to-end flows
+     *
+     * @return the scenarios
+     */
+    public static List<Scenario> defaultMix() {
+        return Arrays.asList(browse(6), repeatBuyer(3), endToEnd(1));
+    }
+}
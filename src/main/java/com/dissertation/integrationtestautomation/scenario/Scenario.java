@@ -0,0 +1,289 @@
+package com.dissertation.integrationtestautomation.scenario;
+
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Declarative user journey: an ordered list of requests and think times with a weight in the traffic mix
+ * Built with Scenario.named(...), for example:
+ *
+ *   Scenario.named("place-order").weight(3)
+ *       .feed(Feeder.uniqueUsers("mix"))
+ *       .exec("register", s -> ApiClient.registerUserAsync(s.getString("username"), s.getString("email"), s.getString("password")))
+ *           .expectStatus(200).extract("token", "token")
+ *       .pause(500, 2000, TimeUnit.MILLISECONDS)
+ *       .exec("create order", s -> ApiClient.createOrderAsync(s.getString("username"), "Widget", 1, 9.99, s.getString("token")))
+ *           .expectStatus(200, 201).extract("orderNumber", "orderNumber")
+ *       .build();
+ *
+ * A journey stops at the first step whose check fails, so later steps never run with missing data.
+ */
+public final class Scenario {
+
+    /**
+     * One request in a journey
+     */
+    public static final class Step {
+        private final String name;
+        private final Function<Session, CompletableFuture<Response>> request;
+        private final List<Integer> expectedStatuses = new ArrayList<>();
+        private final Map<String, Function<Response, Object>> extractors = new LinkedHashMap<>();
+
+        private Step(String name, Function<Session, CompletableFuture<Response>> request) {
+            this.name = name;
+            this.request = request;
+        }
+
+        /** @return the step name used in reports */
+        public String getName() {
+            return name;
+        }
+
+        CompletableFuture<Response> execute(Session session) {
+            return request.apply(session);
+        }
+
+        /**
+         * Check the response and copy extracted values into the session
+         *
+         * @return null if the step passed, otherwise the failure reason
+         */
+        String verify(Response response, Session session) {
+            int status = response.getStatusCode();
+            if (!expectedStatuses.isEmpty() && !expectedStatuses.contains(status)) {
+                return "status " + status;
+            }
+            for (Map.Entry<String, Function<Response, Object>> extractor : extractors.entrySet()) {
+                Object value;
+                try {
+                    value = extractor.getValue().apply(response);
+                } catch (RuntimeException e) {
+                    return "extract " + extractor.getKey() + ": " + e.getClass().getSimpleName();
+                }
+                if (value == null) {
+                    return "extract " + extractor.getKey() + ": missing";
+                }
+                session.set(extractor.getKey(), value);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Think time between steps, uniformly distributed between min and max
+     */
+    static final class Pause {
+        private final long minMillis;
+        private final long maxMillis;
+
+        private Pause(long minMillis, long maxMillis) {
+            this.minMillis = minMillis;
+            this.maxMillis = maxMillis;
+        }
+
+        long nextMillis() {
+            return maxMillis <= minMillis ? minMillis : ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+        }
+    }
+
+    private final String name;
+    private final int weight;
+    private final List<Feeder> feeders;
+    private final List<Object> actions;
+
+    private Scenario(Builder builder) {
+        this.name = builder.name;
+        this.weight = builder.weight;
+        this.feeders = Collections.unmodifiableList(new ArrayList<>(builder.feeders));
+        this.actions = Collections.unmodifiableList(new ArrayList<>(builder.actions));
+    }
+
+    /**
+     * Start building a scenario
+     *
+     * @param name the scenario name used in reports
+     * @return the builder
+     */
+    public static Builder named(String name) {
+        return new Builder(name);
+    }
+
+    /** @return the scenario name */
+    public String getName() {
+        return name;
+    }
+
+    /** @return relative weight in the traffic mix */
+    public int getWeight() {
+        return weight;
+    }
+
+    /** @return the request steps, in order */
+    public List<Step> getSteps() {
+        List<Step> steps = new ArrayList<>();
+        for (Object action : actions) {
+            if (action instanceof Step) {
+                steps.add((Step) action);
+            }
+        }
+        return steps;
+    }
+
+    List<Feeder> feeders() {
+        return feeders;
+    }
+
+    /**
+     * Steps and pauses in execution order; each element is a Step or a Pause
+     */
+    List<Object> actions() {
+        return actions;
+    }
+
+    /**
+     * Builder for Scenario
+     */
+    public static final class Builder {
+        private final String name;
+        private int weight = 1;
+        private final List<Feeder> feeders = new ArrayList<>();
+        private final List<Object> actions = new ArrayList<>();
+        private Step current;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param weight relative weight in the traffic mix (default 1)
+         * @return this builder
+         */
+        public Builder weight(int weight) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Scenario weight must not be negative: " + weight);
+            }
+            this.weight = weight;
+            return this;
+        }
+
+        /**
+         * Add a feeder whose record is copied into the session at the start of each journey
+         *
+         * @param feeder the feeder
+         * @return this builder
+         */
+        public Builder feed(Feeder feeder) {
+            feeders.add(feeder);
+            return this;
+        }
+
+        /**
+         * Add a request step, typically one of the ApiClient *Async methods
+         *
+         * @param stepName the step name used in reports
+         * @param request builds the request from the session
+         * @return this builder
+         */
+        public Builder exec(String stepName, Function<Session, CompletableFuture<Response>> request) {
+            current = new Step(stepName, request);
+            actions.add(current);
+            return this;
+        }
+
+        /**
+         * Require the previous step to return one of the given statuses
+         *
+         * @param statuses accepted HTTP statuses
+         * @return this builder
+         */
+        public Builder expectStatus(Integer... statuses) {
+            requireStep("expectStatus").expectedStatuses.addAll(Arrays.asList(statuses));
+            return this;
+        }
+
+        /**
+         * Save a JSON path of the previous step's response into the session
+         *
+         * @param attribute session attribute to set
+         * @param jsonPath JSON path in the response body, e.g. "token" or "orderNumber"
+         * @return this builder
+         */
+        public Builder extract(String attribute, String jsonPath) {
+            return extract(attribute, response -> response.jsonPath().get(jsonPath));
+        }
+
+        /**
+         * Save a value computed from the previous step's response into the session
+         *
+         * @param attribute session attribute to set
+         * @param extractor computes the value; returning null fails the step
+         * @return this builder
+         */
+        public Builder extract(String attribute, Function<Response, Object> extractor) {
+            requireStep("extract").extractors.put(attribute, extractor);
+            return this;
+        }
+
+        /**
+         * Fixed think time
+         *
+         * @param duration the pause
+         * @param unit unit of duration
+         * @return this builder
+         */
+        public Builder pause(long duration, TimeUnit unit) {
+            return pause(duration, duration, unit);
+        }
+
+        /**
+         * Random think time between min and max
+         *
+         * @param min shortest pause
+         * @param max longest pause
+         * @param unit unit of min and max
+         * @return this builder
+         */
+        public Builder pause(long min, long max, TimeUnit unit) {
+            actions.add(new Pause(unit.toMillis(min), unit.toMillis(max)));
+            current = null;
+            return this;
+        }
+
+        /**
+         * @return the scenario
+         */
+        public Scenario build() {
+            if (getStepCount() == 0) {
+                throw new IllegalStateException("Scenario " + name + " has no steps");
+            }
+            return new Scenario(this);
+        }
+
+        private int getStepCount() {
+            int count = 0;
+            for (Object action : actions) {
+                if (action instanceof Step) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private Step requireStep(String method) {
+            if (current == null) {
+                throw new IllegalStateException(method + "() must follow exec()");
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.dissertation.integrationtestautomation.scenario;
+
+import com.dissertation.integrationtestautomation.load.LoadGeneratorMain;
+import com.dissertation.integrationtestautomation.metrics.LatencyMetrics;
+import com.dissertation.integrationtestautomation.utils.CircuitBreaker;
+import com.dissertation.integrationtestautomation.utils.EndpointRegistry;
+import com.dissertation.integrationtestautomation.utils.IdempotencyKeys;
+import com.dissertation.integrationtestautomation.utils.RetryBudget;
+import com.dissertation.integrationtestautomation.utils.TrafficCapture;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command-line entry point for running a weighted journey mix against the gateway
+ * Run with: mvn compile exec:java@scenario -Dscenario.users=500 -Dscenario.duration=5m
+ *
+ * Supported system properties:
+ * - scenario.mix: comma-separated name:weight pairs, e.g. browse:6,repeat-buyer:3,end-to-end:1 (default)
+ * - scenario.users: concurrent virtual users (default 50)
+ * - scenario.rampUp: time to start all virtual users, e.g. 30s (default 10s)
+ * - scenario.duration: how long virtual users keep starting journeys (default 60s)
+ * - flight.recorder.enabled: keep per-thread exchanges for failure dumps; nothing reads them here (default false)
+ */
+public class ScenarioMain {
+
+    public static void main(String[] args) {
+        LoadGeneratorMain.disableFlightRecorderByDefault();
+        List<Scenario> mix = parseMix(System.getProperty("scenario.mix", ""));
+        int users = Integer.getInteger("scenario.users", 50);
+        long rampUpNanos = LoadGeneratorMain.parseDurationNanos(System.getProperty("scenario.rampUp", "10s"));
+        long durationNanos = LoadGeneratorMain.parseDurationNanos(System.getProperty("scenario.duration", "60s"));
+
+        StringBuilder names = new StringBuilder();
+        for (Scenario scenario : mix) {
+            names.append(names.length() == 0 ? "" : ", ").append(scenario.getName()).append(':').append(scenario.getWeight());
+        }
+        System.out.println("ScenarioRunner - Running " + users + " virtual users for "
+                + TimeUnit.NANOSECONDS.toSeconds(durationNanos) + "s with mix [" + names + "]");
+
+        ScenarioReport report = new ScenarioRunner(mix, users, rampUpNanos, durationNanos, TimeUnit.NANOSECONDS).run();
+
+        System.out.print(report.format());
+        System.out.print(LatencyMetrics.report());
+        System.out.print(CircuitBreaker.report());
+        System.out.print(EndpointRegistry.shared().report());
+        System.out.println("RetryBudget - " + RetryBudget.shared().stats());
+        System.out.println("Idempotency - " + IdempotencyKeys.stats());
+        if (TrafficCapture.isEnabled()) {
+            TrafficCapture.close();
+            System.out.println("TrafficCapture - " + TrafficCapture.stats());
+        }
+        Path reportFile = LatencyMetrics.writeReport();
+        if (reportFile != null) {
+            System.out.println("Latency report written to " + reportFile.toAbsolutePath());
+        }
+    }
+
+    static List<Scenario> parseMix(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Journeys.defaultMix();
+        }
+        List<Scenario> mix = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            mix.add(Journeys.byName(parts[0].trim(), weight));
+        }
+        return mix;
+    }
+}
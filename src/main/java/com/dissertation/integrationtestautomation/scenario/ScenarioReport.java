@@ -0,0 +1,152 @@
+package com.dissertation.integrationtestautomation.scenario;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome of a scenario run: journeys and steps passed/failed per scenario, plus journey durations
+ * Per-request latencies are recorded separately by LatencyMetrics.
+ */
+public class ScenarioReport {
+
+    private static final long HIGHEST_TRACKABLE_MS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Counters for one scenario or step
+     */
+    public static final class Counts {
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder ko = new LongAdder();
+        private final Map<String, LongAdder> failures = new ConcurrentSkipListMap<>();
+
+        void success() {
+            ok.increment();
+        }
+
+        void failure(String reason) {
+            ko.increment();
+            failures.computeIfAbsent(reason, key -> new LongAdder()).increment();
+        }
+
+        /** @return successful count */
+        public long getOk() {
+            return ok.sum();
+        }
+
+        /** @return failed count */
+        public long getKo() {
+            return ko.sum();
+        }
+
+        /** @return failure count per reason, e.g. "status 500" */
+        public Map<String, Long> getFailures() {
+            Map<String, Long> copy = new ConcurrentSkipListMap<>();
+            failures.forEach((reason, count) -> copy.put(reason, count.sum()));
+            return copy;
+        }
+    }
+
+    // Populated by register() before the run starts and only read afterwards, so insertion order is kept
+    private final Map<String, Counts> journeys = new LinkedHashMap<>();
+    private final Map<String, Counts> steps = new LinkedHashMap<>();
+    private final Map<String, Histogram> journeyTimes = new LinkedHashMap<>();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    void register(Scenario scenario) {
+        journeys.put(scenario.getName(), new Counts());
+        journeyTimes.put(scenario.getName(), new ConcurrentHistogram(HIGHEST_TRACKABLE_MS, 3));
+        for (Scenario.Step step : scenario.getSteps()) {
+            steps.putIfAbsent(stepKey(scenario.getName(), step.getName()), new Counts());
+        }
+    }
+
+    void started(long nanos) {
+        startNanos = nanos;
+    }
+
+    void finished(long nanos) {
+        endNanos = nanos;
+    }
+
+    void stepOk(String scenario, String step) {
+        stepCounts(scenario, step).success();
+    }
+
+    void stepFailed(String scenario, String step, String reason) {
+        stepCounts(scenario, step).failure(reason);
+    }
+
+    void journeyOk(String scenario, long elapsedNanos) {
+        journeyCounts(scenario).success();
+        journeyTimes.get(scenario).recordValue(Math.max(0, Math.min(HIGHEST_TRACKABLE_MS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos))));
+    }
+
+    void journeyFailed(String scenario, String reason) {
+        journeyCounts(scenario).failure(reason);
+    }
+
+    /** @return journey counters keyed by scenario name */
+    public Map<String, Counts> getJourneys() {
+        return Collections.unmodifiableMap(journeys);
+    }
+
+    /** @return step counters keyed by "scenario / step" */
+    public Map<String, Counts> getSteps() {
+        return Collections.unmodifiableMap(steps);
+    }
+
+    /** @return journeys completed (passed or failed) */
+    public long getCompletedJourneys() {
+        long total = 0;
+        for (Counts counts : journeys.values()) {
+            total += counts.getOk() + counts.getKo();
+        }
+        return total;
+    }
+
+    /**
+     * Human-readable summary of the run
+     *
+     * @return the formatted report
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        double seconds = (endNanos - startNanos) / 1e9;
+        sb.append("==========================================\n");
+        sb.append("SCENARIO RUN\n");
+        sb.append("==========================================\n");
+        sb.append(String.format("  Duration: %.1fs, journeys: %d (%.1f/s)%n", seconds, getCompletedJourneys(),
+                seconds <= 0 ? 0.0 : getCompletedJourneys() / seconds));
+        sb.append(String.format("  %-40s %8s %8s %10s %10s%n", "Journey", "OK", "KO", "p50 (ms)", "p99 (ms)"));
+        journeys.forEach((scenario, counts) -> {
+            Histogram h = journeyTimes.get(scenario);
+            sb.append(String.format("  %-40s %8d %8d %10d %10d%n", scenario, counts.getOk(), counts.getKo(),
+                    h.getValueAtPercentile(50), h.getValueAtPercentile(99)));
+        });
+        sb.append(String.format("  %-40s %8s %8s  %s%n", "Step", "OK", "KO", "Failures"));
+        steps.forEach((step, counts) -> sb.append(String.format("  %-40s %8d %8d  %s%n", step, counts.getOk(),
+                counts.getKo(), counts.getKo() == 0 ? "" : counts.getFailures())));
+        sb.append("==========================================\n");
+        return sb.toString();
+    }
+
+    private Counts journeyCounts(String scenario) {
+        return journeys.get(scenario);
+    }
+
+    private Counts stepCounts(String scenario, String step) {
+        return steps.get(stepKey(scenario, step));
+    }
+
+    private static String stepKey(String scenario, String step) {
+        return scenario + " / " + step;
+    }
+}
@@ -0,0 +1,228 @@
+package com.dissertation.integrationtestautomation.scenario;
+
+import com.dissertation.integrationtestautomation.utils.VirtualThreads;
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a population of virtual users through a weighted mix of scenarios
+ * Each virtual user repeatedly picks a scenario by weight and runs it until the run duration ends.
+ * Steps are chained asynchronously and think times are scheduled rather than slept, so thousands of
+ * virtual users only need a handful of threads: one platform thread keeps time, and every due piece of work
+ * runs as its own task on virtual threads (platform threads before Java 21).
+ */
+public class ScenarioRunner {
+
+    private final List<Scenario> scenarios;
+    private final int[] cumulativeWeights;
+    private final int users;
+    private final long rampUpNanos;
+    private final long durationNanos;
+    private long failureBackoffMillis = 1000;
+    private long drainTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+    private ScenarioReport report;
+    private CountDownLatch finished;
+    private long deadline;
+
+    /**
+     * @param scenarios the traffic mix; a scenario's share is its weight over the total weight
+     * @param users number of concurrent virtual users
+     * @param rampUp time over which virtual users are started (evenly spaced)
+     * @param duration how long virtual users keep starting new journeys
+     * @param unit unit of rampUp and duration
+     */
+    public ScenarioRunner(List<Scenario> scenarios, int users, long rampUp, long duration, TimeUnit unit) {
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("At least one scenario is required");
+        }
+        this.scenarios = new ArrayList<>(scenarios);
+        this.cumulativeWeights = new int[scenarios.size()];
+        int total = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            total += scenarios.get(i).getWeight();
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one scenario must have a positive weight");
+        }
+        this.users = users;
+        this.rampUpNanos = unit.toNanos(rampUp);
+        this.durationNanos = unit.toNanos(duration);
+    }
+
+    /**
+     * Delay before a virtual user starts its next journey after a failed one (default 1s),
+     * so an unavailable service is not hammered in a tight loop
+     *
+     * @param backoff the delay
+     * @param unit unit of backoff
+     * @return this runner
+     */
+    public ScenarioRunner setFailureBackoff(long backoff, TimeUnit unit) {
+        this.failureBackoffMillis = unit.toMillis(backoff);
+        return this;
+    }
+
+    /**
+     * How long to wait for in-progress journeys after the duration ends (default 30s)
+     *
+     * @param timeout the drain timeout
+     * @param unit unit of timeout
+     * @return this runner
+     */
+    public ScenarioRunner setDrainTimeout(long timeout, TimeUnit unit) {
+        this.drainTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * Run the mix and wait for every virtual user to finish its last journey
+     *
+     * @return the report for the run
+     */
+    public ScenarioReport run() {
+        report = new ScenarioReport();
+        for (Scenario scenario : scenarios) {
+            report.register(scenario);
+        }
+        finished = new CountDownLatch(users);
+        // The timer thread only hands due tasks to the workers, so one long-lived platform thread is enough
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "scenario-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers = VirtualThreads.newExecutor("scenario");
+
+        long start = System.nanoTime();
+        deadline = start + durationNanos;
+        report.started(start);
+        long spacing = users > 1 ? rampUpNanos / (users - 1) : 0;
+        for (int user = 0; user < users; user++) {
+            long userId = user;
+            scheduler.schedule(() -> dispatch(() -> startJourney(userId, 0)), user * spacing, TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            long waitMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos) + drainTimeoutMillis;
+            if (!finished.await(waitMillis, TimeUnit.MILLISECONDS)) {
+                System.err.println("ScenarioRunner - " + finished.getCount()
+                        + " virtual users still running after drain timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            scheduler.shutdownNow();
+            workers.shutdownNow();
+            report.finished(System.nanoTime());
+        }
+        return report;
+    }
+
+    private void startJourney(long userId, int iteration) {
+        if (System.nanoTime() - deadline >= 0) {
+            finished.countDown();
+            return;
+        }
+        Scenario scenario = pick();
+        Session session = new Session(userId, iteration);
+        try {
+            for (Feeder feeder : scenario.feeders()) {
+                session.setAll(feeder.next());
+            }
+        } catch (RuntimeException e) {
+            report.journeyFailed(scenario.getName(), "feeder: " + e.getClass().getSimpleName());
+            next(userId, iteration, failureBackoffMillis);
+            return;
+        }
+        runAction(scenario, session, 0, System.nanoTime());
+    }
+
+    private void runAction(Scenario scenario, Session session, int index, long journeyStart) {
+        List<Object> actions = scenario.actions();
+        if (index == actions.size()) {
+            report.journeyOk(scenario.getName(), System.nanoTime() - journeyStart);
+            next(session.getUserId(), session.getIteration(), 0);
+            return;
+        }
+
+        Object action = actions.get(index);
+        if (action instanceof Scenario.Pause) {
+            long pauseMillis = ((Scenario.Pause) action).nextMillis();
+            schedule(() -> runAction(scenario, session, index + 1, journeyStart), pauseMillis);
+            return;
+        }
+
+        Scenario.Step step = (Scenario.Step) action;
+        CompletableFuture<Response> future;
+        try {
+            future = step.execute(session);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((response, error) -> {
+            String failure = error != null ? "error " + unwrap(error).getClass().getSimpleName()
+                    : step.verify(response, session);
+            if (failure == null) {
+                report.stepOk(scenario.getName(), step.getName());
+                schedule(() -> runAction(scenario, session, index + 1, journeyStart), 0);
+            } else {
+                report.stepFailed(scenario.getName(), step.getName(), failure);
+                report.journeyFailed(scenario.getName(), step.getName() + ": " + failure);
+                next(session.getUserId(), session.getIteration(), failureBackoffMillis);
+            }
+        });
+    }
+
+    private void next(long userId, int iteration, long delayMillis) {
+        schedule(() -> startJourney(userId, iteration + 1), delayMillis);
+    }
+
+    private void schedule(Runnable task, long delayMillis) {
+        if (delayMillis <= 0) {
+            dispatch(task);
+            return;
+        }
+        try {
+            scheduler.schedule(() -> dispatch(task), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Run ended (drain timeout reached); the virtual user is abandoned
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Run ended (drain timeout reached); the virtual user is abandoned
+        }
+    }
+
+    private Scenario pick() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return scenarios.get(i);
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
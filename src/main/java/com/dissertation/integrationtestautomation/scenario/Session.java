@@ -0,0 +1,91 @@
+package com.dissertation.integrationtestautomation.scenario;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State carried by one virtual user through one journey
+ * Holds fed data (e.g. username, email) and values extracted from responses (e.g. token, orderNumber).
+ */
+public class Session {
+
+    private final long userId;
+    private final int iteration;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    Session(long userId, int iteration) {
+        this.userId = userId;
+        this.iteration = iteration;
+    }
+
+    /**
+     * @return id of the virtual user running this session
+     */
+    public long getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return 0-based count of journeys this virtual user has started before this one
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**
+     * @param name attribute name
+     * @return the attribute value, or null if not set
+     */
+    public Object get(String name) {
+        return attributes.get(name);
+    }
+
+    /**
+     * @param name attribute name
+     * @return the attribute as a string, or null if not set
+     */
+    public String getString(String name) {
+        Object value = attributes.get(name);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * @param name attribute name
+     * @return true if the attribute is set
+     */
+    public boolean contains(String name) {
+        return attributes.containsKey(name);
+    }
+
+    /**
+     * Set an attribute; null values remove it
+     *
+     * @param name attribute name
+     * @param value attribute value
+     * @return this session
+     */
+    public Session set(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+        return this;
+    }
+
+    /**
+     * Copy every entry into the session
+     *
+     * @param values attributes to set
+     * @return this session
+     */
+    public Session setAll(Map<String, ?> values) {
+        values.forEach(this::set);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "Session{user=" + userId + ", iteration=" + iteration + ", attributes=" + attributes + "}";
+    }
+}
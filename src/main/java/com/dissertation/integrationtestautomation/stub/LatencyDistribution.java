@@ -0,0 +1,77 @@
+package com.dissertation.integrationtestautomation.stub;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random latency source for the stub server, in milliseconds
+ * Parsed from a compact spec:
+ * - none or 0: no delay
+ * - fixed:5 (or just 5): always 5ms
+ * - uniform:2,10: uniformly between 2 and 10ms
+ * - exponential:5: exponential with a 5ms mean
+ * - lognormal:5,0.5: log-normal with a 5ms median and sigma 0.5 (long right tail, like real services)
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    LatencyDistribution NONE = () -> 0.0;
+
+    /**
+     * @return the next sample in milliseconds (never negative)
+     */
+    double sampleMillis();
+
+    /**
+     * Parse a distribution spec
+     *
+     * @param spec the spec, e.g. "uniform:2,10"
+     * @return the distribution
+     * @throws IllegalArgumentException if the spec is not recognised
+     */
+    static LatencyDistribution parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return NONE;
+        }
+        String value = spec.trim().toLowerCase(Locale.ROOT);
+        int colon = value.indexOf(':');
+        String kind = colon < 0 ? value : value.substring(0, colon);
+        String[] args = colon < 0 ? new String[0] : value.substring(colon + 1).split(",");
+        try {
+            switch (kind) {
+                case "none":
+                    return NONE;
+                case "fixed":
+                    return fixed(Double.parseDouble(args[0]));
+                case "uniform":
+                    return uniform(Double.parseDouble(args[0]), Double.parseDouble(args[1]));
+                case "exponential":
+                    return exponential(Double.parseDouble(args[0]));
+                case "lognormal":
+                    return logNormal(Double.parseDouble(args[0]), Double.parseDouble(args[1]));
+                default:
+                    return fixed(Double.parseDouble(kind));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid latency spec '" + spec
+                    + "' (expected none, fixed:N, uniform:MIN,MAX, exponential:MEAN or lognormal:MEDIAN,SIGMA)", e);
+        }
+    }
+
+    static LatencyDistribution fixed(double millis) {
+        return millis <= 0 ? NONE : () -> millis;
+    }
+
+    static LatencyDistribution uniform(double minMillis, double maxMillis) {
+        return () -> minMillis + ThreadLocalRandom.current().nextDouble() * (maxMillis - minMillis);
+    }
+
+    static LatencyDistribution exponential(double meanMillis) {
+        return () -> -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanMillis;
+    }
+
+    static LatencyDistribution logNormal(double medianMillis, double sigma) {
+        double mu = Math.log(medianMillis);
+        return () -> Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+    }
+}
@@ -0,0 +1,593 @@
+package com.dissertation.integrationtestautomation.stub;
+
+import com.dissertation.integrationtestautomation.utils.VirtualThreads;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for the gateway and the user, order, payment and notification services
+ * Serves every endpoint ApiClient calls on the gateway port and on each service port (for bypass.gateway),
+ * backed by in-memory state. Responses are delayed by configurable latency distributions without blocking
+ * a thread, failures can be injected at a configurable rate, and notifications (and optionally payments)
+ * appear asynchronously after an order is created, as they do behind the real message broker.
+ * POSTs carrying an Idempotency-Key are applied once; repeats get the stored reply with "Idempotent-Replayed: true".
+ *
+ * Supported system properties:
+ * - stub.server: start the stub before the suite runs (default false)
+ * - stub.ports: comma-separated ports to listen on (default 8080,8081,8082,8083,8084)
+ * - stub.latency: response latency for every endpoint, see LatencyDistribution (default none)
+ * - stub.latency.auth / .orders / .payments / .notifications: per-service override
+ * - stub.errorRate: fraction of API requests answered with 503 (default 0)
+ * - stub.errorRate.auth / .orders / .payments / .notifications: per-service override
+ * - stub.errorAfterApply: fraction of injected failures raised after the request was applied, as when the
+ *   gateway times out on a slow service; retrying those without an Idempotency-Key creates duplicates (default 0)
+ * - stub.paymentDelay: time until a created order's payment is visible (default none: the order service
+ *   charges the payment before answering)
+ * - stub.notificationDelay: time until a created order's notification is visible (default uniform:200,800)
+ * - stub.tokenTtlMs: lifetime of issued JWTs (default 3600000)
+ */
+public final class StubServer {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String[] SERVICES = {"auth", "orders", "payments", "notifications"};
+    private static final byte[] SIGNING_KEY = "stub-server-signing-key".getBytes(StandardCharsets.UTF_8);
+
+    private static volatile StubServer shared;
+
+    static {
+        // Headers and body are written separately; without TCP_NODELAY keep-alive clients hit delayed-ACK stalls
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final List<Integer> ports;
+    private final Map<String, LatencyDistribution> latency = new ConcurrentHashMap<>();
+    private final Map<String, Double> errorRates = new ConcurrentHashMap<>();
+    private final double errorAfterApply;
+    private final LatencyDistribution paymentDelay;
+    private final LatencyDistribution notificationDelay;
+    private final long tokenTtlMs;
+
+    private final Map<String, Map<String, Object>> users = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Object>> orders = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Map<String, Object>>> ordersByUser = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Object>> payments = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Map<String, Object>>> notificationsByUser = new ConcurrentHashMap<>();
+    private final Map<String, Reply> idempotentReplies = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private ExecutorService handlerExecutor;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Create a stub configured from system properties
+     */
+    public StubServer() {
+        this.ports = parsePorts(System.getProperty("stub.ports", "8080,8081,8082,8083,8084"));
+        LatencyDistribution defaultLatency = LatencyDistribution.parse(System.getProperty("stub.latency", "none"));
+        double defaultErrorRate = Double.parseDouble(System.getProperty("stub.errorRate", "0"));
+        for (String service : SERVICES) {
+            String latencySpec = System.getProperty("stub.latency." + service);
+            latency.put(service, latencySpec != null ? LatencyDistribution.parse(latencySpec) : defaultLatency);
+            String errorRate = System.getProperty("stub.errorRate." + service);
+            errorRates.put(service, errorRate != null ? Double.parseDouble(errorRate) : defaultErrorRate);
+        }
+        latency.put("gateway", LatencyDistribution.NONE);
+        errorRates.put("gateway", 0.0);
+        this.errorAfterApply = Double.parseDouble(System.getProperty("stub.errorAfterApply", "0"));
+        this.paymentDelay = LatencyDistribution.parse(System.getProperty("stub.paymentDelay", "none"));
+        this.notificationDelay = LatencyDistribution.parse(System.getProperty("stub.notificationDelay", "uniform:200,800"));
+        this.tokenTtlMs = Long.getLong("stub.tokenTtlMs", TimeUnit.HOURS.toMillis(1));
+    }
+
+    /**
+     * @return true if -Dstub.server=true, i.e. the suite should run against the stub
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("stub.server", "false"));
+    }
+
+    /**
+     * Start the stub shared by the test suite (no-op if already running)
+     *
+     * @return the running stub
+     */
+    public static synchronized StubServer startShared() {
+        if (shared == null) {
+            StubServer server = new StubServer();
+            server.start();
+            shared = server;
+        }
+        return shared;
+    }
+
+    /**
+     * Stop the shared stub if it is running
+     */
+    public static synchronized void stopShared() {
+        if (shared != null) {
+            shared.stop();
+            shared = null;
+        }
+    }
+
+    /**
+     * Override the latency of one service at runtime
+     *
+     * @param service auth, orders, payments or notifications
+     * @param distribution the latency distribution
+     */
+    public void setLatency(String service, LatencyDistribution distribution) {
+        latency.put(service, distribution);
+    }
+
+    /**
+     * Override the injected error rate of one service at runtime
+     *
+     * @param service auth, orders, payments or notifications
+     * @param rate fraction of requests answered with 503
+     */
+    public void setErrorRate(String service, double rate) {
+        errorRates.put(service, rate);
+    }
+
+    /**
+     * Bind every configured port and start serving
+     */
+    public void start() {
+        handlerExecutor = VirtualThreads.newExecutor("stub-http-");
+        scheduler = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), r -> {
+            Thread thread = new Thread(r, "stub-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int port : ports) {
+                HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+                server.createContext("/", this::handle);
+                server.setExecutor(handlerExecutor);
+                server.start();
+                servers.add(server);
+            }
+        } catch (IOException e) {
+            stop();
+            throw new IllegalStateException("StubServer - Could not bind ports " + ports + ": " + e.getMessage(), e);
+        }
+        System.out.println("StubServer - Listening on ports " + ports);
+    }
+
+    /**
+     * Stop serving and release the ports
+     */
+    public void stop() {
+        for (HttpServer server : servers) {
+            server.stop(0);
+        }
+        servers.clear();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (handlerExecutor != null) {
+            handlerExecutor.shutdownNow();
+        }
+        System.out.println("StubServer - Stopped (" + stats() + ")");
+    }
+
+    /**
+     * Discard all users, orders, payments and notifications
+     */
+    public void reset() {
+        users.clear();
+        orders.clear();
+        idempotentReplies.clear();
+        ordersByUser.clear();
+        payments.clear();
+        notificationsByUser.clear();
+    }
+
+    /**
+     * @return one-line summary of traffic served
+     */
+    public String stats() {
+        return "requests=" + requests.sum() + ", injectedErrors=" + injectedErrors.sum() + ", replays=" + replays.sum() + ", users=" + users.size()
+                + ", orders=" + orders.size() + ", payments=" + payments.size();
+    }
+
+    private void handle(HttpExchange exchange) {
+        requests.increment();
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String service = serviceOf(path);
+
+        Reply reply;
+        Double errorRate = errorRates.get(service);
+        boolean inject = errorRate != null && errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+        boolean afterApply = inject && errorAfterApply > 0 && ThreadLocalRandom.current().nextDouble() < errorAfterApply;
+        if (inject && !afterApply) {
+            injectedErrors.increment();
+            reply = error(503, "Service Unavailable", "Injected failure");
+        } else {
+            try {
+                reply = apply(method, path, exchange.getRequestHeaders().getFirst("Idempotency-Key"), readBody(exchange));
+            } catch (RuntimeException e) {
+                reply = error(500, "Internal Server Error", e.getClass().getSimpleName());
+            }
+            if (afterApply) {
+                injectedErrors.increment();
+                reply = error(503, "Service Unavailable", "Injected failure after apply");
+            }
+        }
+
+        LatencyDistribution distribution = latency.getOrDefault(service, LatencyDistribution.NONE);
+        long delayMicros = (long) (Math.max(0.0, distribution.sampleMillis()) * 1000.0);
+        Reply response = reply;
+        if (delayMicros <= 0) {
+            send(exchange, response);
+        } else {
+            scheduler.schedule(() -> send(exchange, response), delayMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    /**
+     * Route a request, applying a POST with an Idempotency-Key at most once
+     */
+    private Reply apply(String method, String path, String idempotencyKey, JsonNode body) {
+        if (idempotencyKey == null || !"POST".equals(method)) {
+            return route(method, path, body);
+        }
+        String key = path + " " + idempotencyKey;
+        Reply previous = idempotentReplies.get(key);
+        if (previous != null) {
+            replays.increment();
+            return new Reply(previous.status, previous.body, true);
+        }
+        Reply reply = route(method, path, body);
+        if (reply.status >= 200 && reply.status < 300) {
+            idempotentReplies.putIfAbsent(key, reply);
+        }
+        return reply;
+    }
+
+    private Reply route(String method, String path, JsonNode body) {
+        if (path.equals("/actuator/health")) {
+            return requireGet(method, () -> ok(Map.of("status", "UP")));
+        }
+        if (path.equals("/api/auth/health")) {
+            return requireGet(method, () -> ok("User Service is running"));
+        }
+        if (path.equals("/actuator/gateway/routes")) {
+            return requireGet(method, () -> ok(gatewayRoutes()));
+        }
+        if (path.equals("/api/auth/register")) {
+            return requirePost(method, () -> register(body));
+        }
+        if (path.equals("/api/auth/login")) {
+            return requirePost(method, () -> login(body));
+        }
+        if (path.startsWith("/api/auth/user/")) {
+            return requireGet(method, () -> userDetails(lastSegment(path)));
+        }
+        if (path.equals("/api/orders") || path.equals("/api/orders/")) {
+            return requirePost(method, () -> createOrder(body));
+        }
+        if (path.startsWith("/api/orders/user/")) {
+            return requireGet(method, () -> ok(listOf(ordersByUser.get(lastSegment(path)))));
+        }
+        if (path.startsWith("/api/orders/")) {
+            return requireGet(method, () -> found(orders.get(lastSegment(path)), "Order not found"));
+        }
+        if (path.startsWith("/api/payments/order/")) {
+            return requireGet(method, () -> found(payments.get(lastSegment(path)), "Payment not found"));
+        }
+        if (path.startsWith("/api/notifications/user/")) {
+            return requireGet(method, () -> ok(listOf(notificationsByUser.get(lastSegment(path)))));
+        }
+        return error(404, "Not Found", "No route for " + path);
+    }
+
+    private Reply register(JsonNode body) {
+        String username = text(body, "username");
+        String email = text(body, "email");
+        String password = text(body, "password");
+        if (username.length() < 3 || username.length() > 20) {
+            return error(400, "Bad Request", "Username must be between 3 and 20 characters");
+        }
+        if (email.isEmpty() || !email.contains("@")) {
+            return error(400, "Bad Request", "Email must be valid");
+        }
+        if (password.length() < 6) {
+            return error(400, "Bad Request", "Password must be at least 6 characters");
+        }
+        String role = text(body, "role").isEmpty() ? "USER" : text(body, "role");
+
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", ids.incrementAndGet());
+        user.put("username", username);
+        user.put("email", email);
+        user.put("role", role);
+        user.put("password", password);
+        if (users.putIfAbsent(username, user) != null) {
+            return error(400, "Bad Request", "Username already exists");
+        }
+        return ok(authResponse(user));
+    }
+
+    private Reply login(JsonNode body) {
+        String username = text(body, "username");
+        String password = text(body, "password");
+        if (username.isEmpty() || password.isEmpty()) {
+            return error(400, "Bad Request", "Username and password are required");
+        }
+        Map<String, Object> user = users.get(username);
+        if (user == null || !password.equals(user.get("password"))) {
+            return error(401, "Unauthorized", "Invalid username or password");
+        }
+        return ok(authResponse(user));
+    }
+
+    private Reply userDetails(String username) {
+        Map<String, Object> user = users.get(username);
+        if (user == null) {
+            return error(404, "Not Found", "User not found");
+        }
+        Map<String, Object> details = new LinkedHashMap<>(user);
+        details.remove("password");
+        return ok(details);
+    }
+
+    private Reply createOrder(JsonNode body) {
+        String username = text(body, "username");
+        String productName = text(body, "productName");
+        int quantity = body != null && body.hasNonNull("quantity") ? body.get("quantity").asInt() : 0;
+        double unitPrice = body != null && body.hasNonNull("unitPrice") ? body.get("unitPrice").asDouble() : 0.0;
+        if (username.isEmpty() || productName.isEmpty()) {
+            return error(400, "Bad Request", "Username and product name are required");
+        }
+        if (quantity < 1) {
+            return error(400, "Bad Request", "Quantity must be at least 1");
+        }
+        if (unitPrice <= 0) {
+            return error(400, "Bad Request", "Unit price must be positive");
+        }
+
+        long id = ids.incrementAndGet();
+        String orderNumber = "ORD-" + Long.toString(System.currentTimeMillis(), 36).toUpperCase() + "-" + id;
+        double totalAmount = Math.round(unitPrice * quantity * 100.0) / 100.0;
+        Map<String, Object> order = new ConcurrentHashMap<>();
+        order.put("id", id);
+        order.put("orderNumber", orderNumber);
+        order.put("username", username);
+        order.put("productName", productName);
+        order.put("quantity", quantity);
+        order.put("unitPrice", unitPrice);
+        order.put("totalAmount", totalAmount);
+        order.put("status", "PENDING");
+        order.put("createdAt", Instant.now().toString());
+        orders.put(orderNumber, order);
+        ordersByUser.computeIfAbsent(username, key -> new ConcurrentLinkedQueue<>()).add(order);
+
+        // The notification (and, with stub.paymentDelay, the payment) is produced after the response,
+        // as by the real order-created event consumers
+        later(paymentDelay, () -> {
+            Map<String, Object> payment = new LinkedHashMap<>();
+            payment.put("paymentId", "PAY-" + ids.incrementAndGet());
+            payment.put("orderNumber", orderNumber);
+            payment.put("amount", totalAmount);
+            payment.put("status", "COMPLETED");
+            payment.put("createdAt", Instant.now().toString());
+            payments.put(orderNumber, payment);
+            order.put("status", "PAID");
+        });
+        later(notificationDelay, () -> {
+            Map<String, Object> notification = new LinkedHashMap<>();
+            notification.put("id", ids.incrementAndGet());
+            notification.put("username", username);
+            notification.put("orderNumber", orderNumber);
+            notification.put("type", "ORDER_CREATED");
+            notification.put("message", "Your order " + orderNumber + " for " + productName + " has been placed");
+            notification.put("createdAt", Instant.now().toString());
+            notificationsByUser.computeIfAbsent(username, key -> new ConcurrentLinkedQueue<>()).add(notification);
+        });
+        return new Reply(201, order);
+    }
+
+    private Map<String, Object> authResponse(Map<String, Object> user) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("token", issueToken((String) user.get("username"), (String) user.get("role")));
+        response.put("type", "Bearer");
+        response.put("username", user.get("username"));
+        response.put("email", user.get("email"));
+        response.put("role", user.get("role"));
+        return response;
+    }
+
+    /**
+     * HS256 JWT with sub, role, iat and exp claims
+     */
+    private String issueToken(String username, String role) {
+        long now = System.currentTimeMillis() / 1000L;
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", username);
+        claims.put("role", role);
+        claims.put("iat", now);
+        claims.put("exp", now + tokenTtlMs / 1000L);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        try {
+            String header = encoder.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+            String payload = encoder.encodeToString(OBJECT_MAPPER.writeValueAsBytes(claims));
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SIGNING_KEY, "HmacSHA256"));
+            byte[] signature = mac.doFinal((header + "." + payload).getBytes(StandardCharsets.UTF_8));
+            return header + "." + payload + "." + encoder.encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not sign token", e);
+        }
+    }
+
+    private List<Map<String, Object>> gatewayRoutes() {
+        List<Map<String, Object>> routes = new ArrayList<>();
+        routes.add(gatewayRoute("user-service", "Paths: [/api/auth/**], match trailing slash: true", 8081));
+        routes.add(gatewayRoute("order-service-post",
+                "(Paths: [/api/orders], match trailing slash: true && Methods: [POST])", 8082));
+        routes.add(gatewayRoute("order-service", "Paths: [/api/orders/**], match trailing slash: true", 8082));
+        routes.add(gatewayRoute("payment-service", "Paths: [/api/payments/**], match trailing slash: true", 8083));
+        routes.add(gatewayRoute("notification-service",
+                "Paths: [/api/notifications/**], match trailing slash: true", 8084));
+        return routes;
+    }
+
+    private static Map<String, Object> gatewayRoute(String id, String predicate, int port) {
+        Map<String, Object> route = new LinkedHashMap<>();
+        route.put("route_id", id);
+        route.put("predicate", predicate);
+        route.put("uri", "http://localhost:" + port);
+        route.put("order", 0);
+        return route;
+    }
+
+    private void later(LatencyDistribution delay, Runnable task) {
+        long delayMicros = (long) (Math.max(0.0, delay.sampleMillis()) * 1000.0);
+        if (delayMicros <= 0) {
+            task.run();
+        } else {
+            scheduler.schedule(task, delayMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private static void send(HttpExchange exchange, Reply reply) {
+        try {
+            boolean text = reply.body instanceof String;
+            byte[] bytes = text ? ((String) reply.body).getBytes(StandardCharsets.UTF_8)
+                    : OBJECT_MAPPER.writeValueAsBytes(reply.body);
+            exchange.getResponseHeaders().set("Content-Type", text ? "text/plain;charset=UTF-8" : "application/json");
+            if (reply.replayed) {
+                exchange.getResponseHeaders().set("Idempotent-Replayed", "true");
+            }
+            exchange.sendResponseHeaders(reply.status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // Client went away; nothing to do
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static JsonNode readBody(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readAllBytes();
+            return bytes.length == 0 ? null : OBJECT_MAPPER.readTree(bytes);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String serviceOf(String path) {
+        if (path.startsWith("/api/auth")) {
+            return "auth";
+        } else if (path.startsWith("/api/orders")) {
+            return "orders";
+        } else if (path.startsWith("/api/payments")) {
+            return "payments";
+        } else if (path.startsWith("/api/notifications")) {
+            return "notifications";
+        }
+        return "gateway";
+    }
+
+    private static Reply requireGet(String method, Supplier<Reply> handler) {
+        return "GET".equals(method) ? handler.get() : error(405, "Method Not Allowed", method + " not supported");
+    }
+
+    private static Reply requirePost(String method, Supplier<Reply> handler) {
+        return "POST".equals(method) ? handler.get() : error(405, "Method Not Allowed", method + " not supported");
+    }
+
+    private static Reply ok(Object body) {
+        return new Reply(200, body);
+    }
+
+    private static Reply found(Map<String, Object> value, String message) {
+        return value != null ? ok(value) : error(404, "Not Found", message);
+    }
+
+    private static Reply error(int status, String error, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", status);
+        body.put("error", error);
+        body.put("message", message);
+        return new Reply(status, body);
+    }
+
+    private static List<Map<String, Object>> listOf(Queue<Map<String, Object>> items) {
+        return items == null ? new ArrayList<>() : new ArrayList<>(items);
+    }
+
+    private static String lastSegment(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String text(JsonNode body, String field) {
+        return body != null && body.hasNonNull(field) ? body.get(field).asText().trim() : "";
+    }
+
+    private static List<Integer> parsePorts(String value) {
+        List<Integer> result = new ArrayList<>();
+        for (String port : value.split(",")) {
+            if (!port.trim().isEmpty()) {
+                result.add(Integer.parseInt(port.trim()));
+            }
+        }
+        return result;
+    }
+
+    private static final class Reply {
+        private final int status;
+        private final Object body;
+        private final boolean replayed;
+
+        private Reply(int status, Object body) {
+            this(status, body, false);
+        }
+
+        private Reply(int status, Object body, boolean replayed) {
+            this.status = status;
+            this.body = body;
+            this.replayed = replayed;
+        }
+    }
+}
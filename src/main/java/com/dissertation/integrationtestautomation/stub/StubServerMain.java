@@ -0,0 +1,15 @@
+package com.dissertation.integrationtestautomation.stub;
+
+/**
+ * Runs the StubServer standalone until the process is stopped, e.g. for load runs from another JVM
+ * Run with: mvn compile exec:java@stub -Dstub.latency=lognormal:5,0.5 -Dstub.errorRate=0.01
+ */
+public class StubServerMain {
+
+    public static void main(String[] args) throws InterruptedException {
+        StubServer server = new StubServer();
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "stub-shutdown"));
+        Thread.currentThread().join();
+    }
+}
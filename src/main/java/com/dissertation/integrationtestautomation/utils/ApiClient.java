@@ -1,31 +1,37 @@
 package com.dissertation.integrationtestautomation.utils;
 
+import com.dissertation.integrationtestautomation.model.AuthResponse;
+import com.dissertation.integrationtestautomation.model.LoginRequest;
+import com.dissertation.integrationtestautomation.model.Notification;
+import com.dissertation.integrationtestautomation.model.OrderRequest;
+import com.dissertation.integrationtestautomation.model.OrderResponse;
+import com.dissertation.integrationtestautomation.model.PaymentResponse;
+import com.dissertation.integrationtestautomation.model.RegisterRequest;
 import io.restassured.response.Response;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * High-level API client for microservices endpoints
  * Provides business-level methods for common operations
+ * Each blocking method has an *Async counterpart returning a CompletableFuture,
+ * backed by the non-blocking AsyncRestApiUtils transport
+ * Typed variants (registerUser(RegisterRequest), getOrder, getPayment, ...) take and return the records in the
+ * model package, decoded with the shared JsonCodec instead of JsonPath, and throw ApiException on non-2xx
+ * The idempotent lookups (order details, payment details, notifications, health) are hedged with -Dhedge.enabled=true
+ * Base URLs come from the EndpointRegistry; with several gateway (or service) replicas each call picks one
+ * Batch variants (registerUsers, createOrders) run many calls concurrently under a bounded window, see BatchResult
  */
 public class ApiClient {
 
     // Option to bypass gateway for integration tests (call services directly)
     // Set this system property to "true" to bypass gateway: -Dbypass.gateway=true
     private static final boolean BYPASS_GATEWAY = Boolean.parseBoolean(System.getProperty("bypass.gateway", "false"));
-    
-    private static final String GATEWAY_URL = "http://localhost:8080";
-    private static final String USER_SERVICE_URL = "http://localhost:8081";
-    private static final String ORDER_SERVICE_URL = "http://localhost:8082";
-    private static final String PAYMENT_SERVICE_URL = "http://localhost:8083";
-    private static final String NOTIFICATION_SERVICE_URL = "http://localhost:8084";
-    
-    private static final String BASE_URL = BYPASS_GATEWAY ? "" : GATEWAY_URL;
-    private static final String AUTH_BASE = BYPASS_GATEWAY ? USER_SERVICE_URL + "/api/auth" : BASE_URL + "/api/auth";
-    private static final String ORDERS_BASE = BYPASS_GATEWAY ? ORDER_SERVICE_URL + "/api/orders" : BASE_URL + "/api/orders";
-    private static final String PAYMENTS_BASE = BYPASS_GATEWAY ? PAYMENT_SERVICE_URL + "/api/payments" : BASE_URL + "/api/payments";
-    private static final String NOTIFICATIONS_BASE = BYPASS_GATEWAY ? NOTIFICATION_SERVICE_URL + "/api/notifications" : BASE_URL + "/api/notifications";
 
     /**
      * Register a new user
@@ -37,13 +43,20 @@ public class ApiClient {
      * @return Response object
      */
     public static Response registerUser(String username, String email, String password, String role) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("username", username);
-        requestBody.put("email", email);
-        requestBody.put("password", password);
-        requestBody.put("role", role);
+        return RestApiUtils.postRequest(auth("/register"), registrationBody(username, email, password, role));
+    }
 
-        return RestApiUtils.postRequest(AUTH_BASE + "/register", requestBody);
+    /**
+     * Register a new user asynchronously
+     *
+     * @param username the username
+     * @param email the email address
+     * @param password the password
+     * @param role the user role (USER, ADMIN, etc.)
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> registerUserAsync(String username, String email, String password, String role) {
+        return AsyncRestApiUtils.postRequestAsync(auth("/register"), registrationBody(username, email, password, role));
     }
 
     /**
@@ -58,6 +71,18 @@ public class ApiClient {
         return registerUser(username, email, password, "USER");
     }
 
+    /**
+     * Register a user with default role USER asynchronously
+     *
+     * @param username the username
+     * @param email the email address
+     * @param password the password
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> registerUserAsync(String username, String email, String password) {
+        return registerUserAsync(username, email, password, "USER");
+    }
+
     /**
      * Login a user
      *
@@ -66,11 +91,30 @@ public class ApiClient {
      * @return Response object
      */
     public static Response loginUser(String username, String password) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("username", username);
-        requestBody.put("password", password);
+        return RestApiUtils.postRequest(auth("/login"), loginBody(username, password));
+    }
 
-        return RestApiUtils.postRequest(AUTH_BASE + "/login", requestBody);
+    /**
+     * Login a user asynchronously
+     *
+     * @param username the username
+     * @param password the password
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> loginUserAsync(String username, String password) {
+        return AsyncRestApiUtils.postRequestAsync(auth("/login"), loginBody(username, password));
+    }
+
+    /**
+     * Login a user asynchronously without client instrumentation (see
+     * AsyncRestApiUtils.postRequestUninstrumentedAsync), for background token refreshes
+     *
+     * @param username the username
+     * @param password the password
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> refreshLoginAsync(String username, String password) {
+        return AsyncRestApiUtils.postRequestUninstrumentedAsync(auth("/login"), loginBody(username, password));
     }
 
     /**
@@ -81,7 +125,18 @@ public class ApiClient {
      * @return Response object
      */
     public static Response getUserDetails(String username, String token) {
-        return RestApiUtils.getRequestWithAuth(AUTH_BASE + "/user/" + username, token);
+        return RestApiUtils.getRequestWithAuth(auth("/user/" + username), token);
+    }
+
+    /**
+     * Get user details asynchronously
+     *
+     * @param username the username
+     * @param token the JWT token
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> getUserDetailsAsync(String username, String token) {
+        return AsyncRestApiUtils.getRequestWithAuthAsync(auth("/user/" + username), token);
     }
 
     /**
@@ -96,13 +151,22 @@ public class ApiClient {
      */
     public static Response createOrder(String username, String productName, int quantity, 
                                        double unitPrice, String token) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("username", username);
-        requestBody.put("productName", productName);
-        requestBody.put("quantity", quantity);
-        requestBody.put("unitPrice", unitPrice);
+        return RestApiUtils.postRequestWithAuth(orders(""), orderBody(username, productName, quantity, unitPrice), token);
+    }
 
-        return RestApiUtils.postRequestWithAuth(ORDERS_BASE, requestBody, token);
+    /**
+     * Create an order asynchronously
+     *
+     * @param username the username
+     * @param productName the product name
+     * @param quantity the quantity
+     * @param unitPrice the unit price
+     * @param token the JWT token
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> createOrderAsync(String username, String productName, int quantity,
+                                                               double unitPrice, String token) {
+        return AsyncRestApiUtils.postRequestWithAuthAsync(orders(""), orderBody(username, productName, quantity, unitPrice), token);
     }
 
     /**
@@ -113,7 +177,18 @@ public class ApiClient {
      * @return Response object
      */
     public static Response getOrderDetails(String orderNumber, String token) {
-        return RestApiUtils.getRequestWithAuth(ORDERS_BASE + "/" + orderNumber, token);
+        return RestApiUtils.getRequestHedged(orders("/" + orderNumber), token);
+    }
+
+    /**
+     * Get order details by order number asynchronously
+     *
+     * @param orderNumber the order number
+     * @param token the JWT token
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> getOrderDetailsAsync(String orderNumber, String token) {
+        return AsyncRestApiUtils.getRequestHedgedAsync(orders("/" + orderNumber), token);
     }
 
     /**
@@ -125,9 +200,23 @@ public class ApiClient {
      */
     public static Response getUserOrders(String username, String token) {
         if (token == null) {
-            return RestApiUtils.getRequest(ORDERS_BASE + "/user/" + username);
+            return RestApiUtils.getRequest(orders("/user/" + username));
+        }
+        return RestApiUtils.getRequestWithAuth(orders("/user/" + username), token);
+    }
+
+    /**
+     * Get all orders for a user asynchronously
+     *
+     * @param username the username
+     * @param token the JWT token (can be null for testing auth failures)
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> getUserOrdersAsync(String username, String token) {
+        if (token == null) {
+            return AsyncRestApiUtils.getRequestAsync(orders("/user/" + username));
         }
-        return RestApiUtils.getRequestWithAuth(ORDERS_BASE + "/user/" + username, token);
+        return AsyncRestApiUtils.getRequestWithAuthAsync(orders("/user/" + username), token);
     }
 
     /**
@@ -138,7 +227,18 @@ public class ApiClient {
      * @return Response object
      */
     public static Response getPaymentDetails(String orderNumber, String token) {
-        return RestApiUtils.getRequestWithAuth(PAYMENTS_BASE + "/order/" + orderNumber, token);
+        return RestApiUtils.getRequestHedged(payments("/order/" + orderNumber), token);
+    }
+
+    /**
+     * Get payment details for an order asynchronously
+     *
+     * @param orderNumber the order number
+     * @param token the JWT token
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> getPaymentDetailsAsync(String orderNumber, String token) {
+        return AsyncRestApiUtils.getRequestHedgedAsync(payments("/order/" + orderNumber), token);
     }
 
     /**
@@ -149,7 +249,18 @@ public class ApiClient {
      * @return Response object
      */
     public static Response getUserNotifications(String username, String token) {
-        return RestApiUtils.getRequestWithAuth(NOTIFICATIONS_BASE + "/user/" + username, token);
+        return RestApiUtils.getRequestHedged(notifications("/user/" + username), token);
+    }
+
+    /**
+     * Get notifications for a user asynchronously
+     *
+     * @param username the username
+     * @param token the JWT token
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> getUserNotificationsAsync(String username, String token) {
+        return AsyncRestApiUtils.getRequestHedgedAsync(notifications("/user/" + username), token);
     }
 
     /**
@@ -158,7 +269,402 @@ public class ApiClient {
      * @return Response object
      */
     public static Response getUserServiceHealth() {
-        return RestApiUtils.getRequest(AUTH_BASE + "/health");
+        return RestApiUtils.getRequestHedged(auth("/health"));
+    }
+
+    /**
+     * Get user service health status asynchronously
+     *
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> getUserServiceHealthAsync() {
+        return AsyncRestApiUtils.getRequestHedgedAsync(auth("/health"));
     }
-}
 
+    /**
+     * Readiness probe covering every route this client calls
+     * Checks each gateway instance's health, its route list and each route through it (skipped with
+     * -Dbypass.gateway=true), and that each service instance answers on its own port.
+     *
+     * @return the probe; call await() to run it
+     */
+    public static ReadinessProbe readinessProbe() {
+        EndpointRegistry registry = EndpointRegistry.shared();
+        ReadinessProbe probe = new ReadinessProbe();
+        if (!BYPASS_GATEWAY) {
+            for (ReadinessProbe.Target gateway : probeTargets(probe, registry, EndpointRegistry.GATEWAY)) {
+                gateway.expectOk("/actuator/health")
+                        .expectRoutes("/actuator/gateway/routes", "user-service", "order-service-post", "order-service",
+                                "payment-service", "notification-service")
+                        .expectOk("/api/auth/health")
+                        .expectServed("POST", "/api/auth/register")
+                        .expectServed("POST", "/api/auth/login")
+                        .expectServed("POST", "/api/orders")
+                        .expectServed("GET", "/api/orders/user/readiness-probe")
+                        .expectServed("GET", "/api/payments/order/readiness-probe")
+                        .expectServed("GET", "/api/notifications/user/readiness-probe");
+            }
+        }
+        for (ReadinessProbe.Target service : probeTargets(probe, registry, EndpointRegistry.USER_SERVICE)) {
+            service.expectOk("/api/auth/health")
+                    .expectServed("POST", "/api/auth/login");
+        }
+        for (ReadinessProbe.Target service : probeTargets(probe, registry, EndpointRegistry.ORDER_SERVICE)) {
+            service.expectServed("POST", "/api/orders")
+                    .expectServed("GET", "/api/orders/user/readiness-probe");
+        }
+        for (ReadinessProbe.Target service : probeTargets(probe, registry, EndpointRegistry.PAYMENT_SERVICE)) {
+            service.expectServed("GET", "/api/payments/order/readiness-probe");
+        }
+        for (ReadinessProbe.Target service : probeTargets(probe, registry, EndpointRegistry.NOTIFICATION_SERVICE)) {
+            service.expectServed("GET", "/api/notifications/user/readiness-probe");
+        }
+        return probe;
+    }
+
+    /**
+     * One probe target per instance, named "service" or "service[i]" when there are replicas
+     */
+    private static List<ReadinessProbe.Target> probeTargets(ReadinessProbe probe, EndpointRegistry registry, String service) {
+        List<EndpointRegistry.Instance> instances = registry.instances(service);
+        List<ReadinessProbe.Target> targets = new ArrayList<>();
+        for (int i = 0; i < instances.size(); i++) {
+            targets.add(probe.target(instances.size() == 1 ? service : service + "[" + i + "]", instances.get(i).getUrl()));
+        }
+        return targets;
+    }
+
+    /**
+     * Register a new user and decode the response
+     *
+     * @param request the registration
+     * @return the token and user details
+     * @throws ApiException if the service does not answer with 2xx
+     */
+    public static AuthResponse registerUser(RegisterRequest request) {
+        return decode(RestApiUtils.postRequest(auth("/register"), request), "POST /api/auth/register", AuthResponse.class);
+    }
+
+    /**
+     * Register a new user asynchronously and decode the response
+     *
+     * @param request the registration
+     * @return future completing with the token and user details, or failing with ApiException
+     */
+    public static CompletableFuture<AuthResponse> registerUserAsync(RegisterRequest request) {
+        return AsyncRestApiUtils.postRequestAsync(auth("/register"), request)
+                .thenApply(response -> decode(response, "POST /api/auth/register", AuthResponse.class));
+    }
+
+    /**
+     * Login a user and decode the response
+     *
+     * @param request the credentials
+     * @return the token and user details
+     * @throws ApiException if the service does not answer with 2xx
+     */
+    public static AuthResponse loginUser(LoginRequest request) {
+        return decode(RestApiUtils.postRequest(auth("/login"), request), "POST /api/auth/login", AuthResponse.class);
+    }
+
+    /**
+     * Login a user asynchronously and decode the response
+     *
+     * @param request the credentials
+     * @return future completing with the token and user details, or failing with ApiException
+     */
+    public static CompletableFuture<AuthResponse> loginUserAsync(LoginRequest request) {
+        return AsyncRestApiUtils.postRequestAsync(auth("/login"), request)
+                .thenApply(response -> decode(response, "POST /api/auth/login", AuthResponse.class));
+    }
+
+    /**
+     * Create an order and decode the response
+     *
+     * @param request the order
+     * @param token the JWT token
+     * @return the created order
+     * @throws ApiException if the service does not answer with 2xx
+     */
+    public static OrderResponse createOrder(OrderRequest request, String token) {
+        return decode(RestApiUtils.postRequestWithAuth(orders(""), request, token), "POST /api/orders", OrderResponse.class);
+    }
+
+    /**
+     * Create an order asynchronously and decode the response
+     *
+     * @param request the order
+     * @param token the JWT token
+     * @return future completing with the created order, or failing with ApiException
+     */
+    public static CompletableFuture<OrderResponse> createOrderAsync(OrderRequest request, String token) {
+        return AsyncRestApiUtils.postRequestWithAuthAsync(orders(""), request, token)
+                .thenApply(response -> decode(response, "POST /api/orders", OrderResponse.class));
+    }
+
+    /**
+     * Get an order by order number, decoded
+     *
+     * @param orderNumber the order number
+     * @param token the JWT token
+     * @return the order
+     * @throws ApiException if the service does not answer with 2xx
+     */
+    public static OrderResponse getOrder(String orderNumber, String token) {
+        return decode(getOrderDetails(orderNumber, token), "GET /api/orders/" + orderNumber, OrderResponse.class);
+    }
+
+    /**
+     * Get an order by order number asynchronously, decoded
+     *
+     * @param orderNumber the order number
+     * @param token the JWT token
+     * @return future completing with the order, or failing with ApiException
+     */
+    public static CompletableFuture<OrderResponse> getOrderAsync(String orderNumber, String token) {
+        return getOrderDetailsAsync(orderNumber, token)
+                .thenApply(response -> decode(response, "GET /api/orders/" + orderNumber, OrderResponse.class));
+    }
+
+    /**
+     * Get all orders for a user, decoded
+     *
+     * @param username the username
+     * @param token the JWT token
+     * @return the orders
+     * @throws ApiException if the service does not answer with 2xx
+     */
+    public static List<OrderResponse> getOrders(String username, String token) {
+        return decodeList(getUserOrders(username, token), "GET /api/orders/user/" + username, OrderResponse.class);
+    }
+
+    /**
+     * Get all orders for a user asynchronously, decoded
+     *
+     * @param username the username
+     * @param token the JWT token
+     * @return future completing with the orders, or failing with ApiException
+     */
+    public static CompletableFuture<List<OrderResponse>> getOrdersAsync(String username, String token) {
+        return getUserOrdersAsync(username, token)
+                .thenApply(response -> decodeList(response, "GET /api/orders/user/" + username, OrderResponse.class));
+    }
+
+    /**
+     * Get the payment for an order, decoded
+     *
+     * @param orderNumber the order number
+     * @param token the JWT token
+     * @return the payment
+     * @throws ApiException if the service does not answer with 2xx (404 while the payment is still pending)
+     */
+    public static PaymentResponse getPayment(String orderNumber, String token) {
+        return decode(getPaymentDetails(orderNumber, token), "GET /api/payments/order/" + orderNumber, PaymentResponse.class);
+    }
+
+    /**
+     * Get the payment for an order asynchronously, decoded
+     *
+     * @param orderNumber the order number
+     * @param token the JWT token
+     * @return future completing with the payment, or failing with ApiException
+     */
+    public static CompletableFuture<PaymentResponse> getPaymentAsync(String orderNumber, String token) {
+        return getPaymentDetailsAsync(orderNumber, token)
+                .thenApply(response -> decode(response, "GET /api/payments/order/" + orderNumber, PaymentResponse.class));
+    }
+
+    /**
+     * Get notifications for a user, decoded
+     *
+     * @param username the username
+     * @param token the JWT token
+     * @return the notifications
+     * @throws ApiException if the service does not answer with 2xx
+     */
+    public static List<Notification> getNotifications(String username, String token) {
+        return decodeList(getUserNotifications(username, token), "GET /api/notifications/user/" + username, Notification.class);
+    }
+
+    /**
+     * Get notifications for a user asynchronously, decoded
+     *
+     * @param username the username
+     * @param token the JWT token
+     * @return future completing with the notifications, or failing with ApiException
+     */
+    public static CompletableFuture<List<Notification>> getNotificationsAsync(String username, String token) {
+        return getUserNotificationsAsync(username, token)
+                .thenApply(response -> decodeList(response, "GET /api/notifications/user/" + username, Notification.class));
+    }
+
+    /**
+     * Find one of a user's orders by order number, streaming the order list instead of decoding all of it
+     *
+     * @param username the username
+     * @param orderNumber the order number
+     * @param token the JWT token
+     * @return the order, or empty if the user has no such order
+     * @throws ApiException if the service does not answer with 2xx
+     */
+    public static Optional<OrderResponse> findUserOrder(String username, String orderNumber, String token) {
+        Response response = getUserOrders(username, token);
+        requireSuccess(response, "GET /api/orders/user/" + username);
+        return JsonStreams.findOrder(response, orderNumber);
+    }
+
+    /**
+     * Count a user's notifications without decoding them
+     *
+     * @param username the username
+     * @param token the JWT token
+     * @return the number of notifications
+     * @throws ApiException if the service does not answer with 2xx
+     */
+    public static int countUserNotifications(String username, String token) {
+        Response response = getUserNotifications(username, token);
+        requireSuccess(response, "GET /api/notifications/user/" + username);
+        return JsonStreams.countElements(response);
+    }
+
+    /**
+     * Count a user's notifications asynchronously without decoding them
+     *
+     * @param username the username
+     * @param token the JWT token
+     * @return future completing with the number of notifications, or failing with ApiException
+     */
+    public static CompletableFuture<Integer> countUserNotificationsAsync(String username, String token) {
+        return getUserNotificationsAsync(username, token).thenApply(response -> {
+            requireSuccess(response, "GET /api/notifications/user/" + username);
+            return JsonStreams.countElements(response);
+        });
+    }
+
+    /**
+     * Register many users concurrently, batch.maxInFlight at a time
+     *
+     * @param requests the registrations
+     * @return one item per registration in input order (token and user details, or the error), with totals
+     */
+    public static BatchResult<AuthResponse> registerUsers(List<RegisterRequest> requests) {
+        return registerUsersAsync(requests, null).join();
+    }
+
+    /**
+     * Register many users concurrently, batch.maxInFlight at a time, reporting each as it finishes
+     *
+     * @param requests the registrations
+     * @param onItem called with each registration as it completes, or null
+     * @return one item per registration in input order (token and user details, or the error), with totals
+     */
+    public static BatchResult<AuthResponse> registerUsers(List<RegisterRequest> requests,
+                                                          Consumer<BatchResult.Item<AuthResponse>> onItem) {
+        return registerUsersAsync(requests, onItem).join();
+    }
+
+    /**
+     * Register many users concurrently, batch.maxInFlight at a time, without blocking
+     *
+     * @param requests the registrations
+     * @param onItem called with each registration as it completes, or null
+     * @return future completing once every registration has finished
+     */
+    public static CompletableFuture<BatchResult<AuthResponse>> registerUsersAsync(
+            List<RegisterRequest> requests, Consumer<BatchResult.Item<AuthResponse>> onItem) {
+        return BatchResult.runAsync("POST /api/auth/register", requests, BatchResult.defaultMaxInFlight(),
+                ApiClient::registerUserAsync, onItem);
+    }
+
+    /**
+     * Create many orders for one user concurrently, batch.maxInFlight at a time
+     *
+     * @param requests the orders
+     * @param token the JWT token used for every order
+     * @return one item per order in input order (the created order, or the error), with totals
+     */
+    public static BatchResult<OrderResponse> createOrders(List<OrderRequest> requests, String token) {
+        return createOrdersAsync(requests, request -> token, null).join();
+    }
+
+    /**
+     * Create orders for any number of users concurrently, batch.maxInFlight at a time, reporting each as it
+     * finishes
+     *
+     * @param requests the orders
+     * @param tokenFor the JWT token to create each order with, e.g. looked up by request.username()
+     * @param onItem called with each order as it completes, or null
+     * @return one item per order in input order (the created order, or the error), with totals
+     */
+    public static BatchResult<OrderResponse> createOrders(List<OrderRequest> requests, Function<OrderRequest, String> tokenFor,
+                                                          Consumer<BatchResult.Item<OrderResponse>> onItem) {
+        return createOrdersAsync(requests, tokenFor, onItem).join();
+    }
+
+    /**
+     * Create orders concurrently, batch.maxInFlight at a time, without blocking
+     *
+     * @param requests the orders
+     * @param tokenFor the JWT token to create each order with
+     * @param onItem called with each order as it completes, or null
+     * @return future completing once every order has finished
+     */
+    public static CompletableFuture<BatchResult<OrderResponse>> createOrdersAsync(
+            List<OrderRequest> requests, Function<OrderRequest, String> tokenFor,
+            Consumer<BatchResult.Item<OrderResponse>> onItem) {
+        return BatchResult.runAsync("POST /api/orders", requests, BatchResult.defaultMaxInFlight(),
+                request -> createOrderAsync(request, tokenFor.apply(request)), onItem);
+    }
+
+    private static String auth(String path) {
+        return baseUrl(EndpointRegistry.USER_SERVICE) + "/api/auth" + path;
+    }
+
+    private static String orders(String path) {
+        return baseUrl(EndpointRegistry.ORDER_SERVICE) + "/api/orders" + path;
+    }
+
+    private static String payments(String path) {
+        return baseUrl(EndpointRegistry.PAYMENT_SERVICE) + "/api/payments" + path;
+    }
+
+    private static String notifications(String path) {
+        return baseUrl(EndpointRegistry.NOTIFICATION_SERVICE) + "/api/notifications" + path;
+    }
+
+    /**
+     * Instance for the next call: a gateway replica, or a replica of the service itself when bypassing the gateway
+     */
+    private static String baseUrl(String service) {
+        return EndpointRegistry.shared().choose(BYPASS_GATEWAY ? service : EndpointRegistry.GATEWAY).getUrl();
+    }
+
+    private static <T> T decode(Response response, String operation, Class<T> type) {
+        requireSuccess(response, operation);
+        return JsonCodec.read(response, type);
+    }
+
+    private static <T> List<T> decodeList(Response response, String operation, Class<T> type) {
+        requireSuccess(response, operation);
+        return JsonCodec.readList(response, type);
+    }
+
+    private static void requireSuccess(Response response, String operation) {
+        int status = response.getStatusCode();
+        if (status < 200 || status >= 300) {
+            throw new ApiException(operation, status, response.asString());
+        }
+    }
+
+    private static RegisterRequest registrationBody(String username, String email, String password, String role) {
+        return new RegisterRequest(username, email, password, role);
+    }
+
+    private static LoginRequest loginBody(String username, String password) {
+        return new LoginRequest(username, password);
+    }
+
+    private static OrderRequest orderBody(String username, String productName, int quantity, double unitPrice) {
+        return new OrderRequest(username, productName, quantity, unitPrice);
+    }
+}
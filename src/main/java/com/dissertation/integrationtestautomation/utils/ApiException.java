@@ -0,0 +1,31 @@
+package com.dissertation.integrationtestautomation.utils;
+
+/**
+ * Thrown by the typed ApiClient methods when a service answers with an unexpected status
+ */
+public class ApiException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final String body;
+
+    /**
+     * @param operation what was attempted, e.g. "POST /api/orders"
+     * @param statusCode the HTTP status returned
+     * @param body the response body
+     */
+    public ApiException(String operation, int statusCode, String body) {
+        super(operation + " returned " + statusCode + ": " + body);
+        this.statusCode = statusCode;
+        this.body = body;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,213 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.response.Response;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Polls for eventually-consistent results (payments, notifications) instead of sleeping for a fixed time
+ * Polling starts with a short interval and backs off with jitter until the condition holds,
+ * an abort condition is hit or the deadline passes. Every wait is recorded per name so the suite can
+ * report how long eventual consistency actually took.
+ */
+public class AsyncAwaiter {
+
+    /** Default deadline for payment materialisation (covers the old 3s sleep plus 5 backed-off retries). */
+    private static final long PAYMENT_TIMEOUT_MS = Long.getLong("await.payment.timeoutMs", 20000L);
+    /** Default deadline for notification delivery. */
+    private static final long NOTIFICATION_TIMEOUT_MS = Long.getLong("await.notification.timeoutMs", 10000L);
+    /** First poll interval. */
+    private static final long INITIAL_INTERVAL_MS = Long.getLong("await.initialIntervalMs", 50L);
+    /** Upper bound for a single poll interval. */
+    private static final long MAX_INTERVAL_MS = Long.getLong("await.maxIntervalMs", 500L);
+
+    private static final Map<String, WaitStats> STATS = new ConcurrentHashMap<>();
+
+    /**
+     * Outcome of a wait
+     *
+     * @param <T> the polled value type
+     */
+    public static class Result<T> {
+        private final T value;
+        private final boolean satisfied;
+        private final int attempts;
+        private final long elapsedMs;
+
+        Result(T value, boolean satisfied, int attempts, long elapsedMs) {
+            this.value = value;
+            this.satisfied = satisfied;
+            this.attempts = attempts;
+            this.elapsedMs = elapsedMs;
+        }
+
+        /** @return the last polled value (may not satisfy the condition if the wait timed out or aborted) */
+        public T getValue() {
+            return value;
+        }
+
+        /** @return true if the condition was met before the deadline */
+        public boolean isSatisfied() {
+            return satisfied;
+        }
+
+        /** @return number of polls made */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        /** @return wall-clock time spent waiting */
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+    }
+
+    /**
+     * Poll until the condition holds, the abort condition holds or the deadline passes
+     *
+     * @param name name used to group recorded wait times (e.g. "payment")
+     * @param poll supplier performing one poll
+     * @param until condition that ends the wait successfully
+     * @param abortWhen condition that ends the wait early without success (may be null)
+     * @param timeoutMs deadline in milliseconds
+     * @param <T> the polled value type
+     * @return the outcome of the wait
+     */
+    public static <T> Result<T> await(String name, Supplier<T> poll, Predicate<T> until,
+                                      Predicate<T> abortWhen, long timeoutMs) {
+        long start = System.nanoTime();
+        long deadline = start + timeoutMs * 1_000_000L;
+        long interval = INITIAL_INTERVAL_MS;
+        int attempts = 0;
+        T value = null;
+        RuntimeException lastError = null;
+
+        while (true) {
+            attempts++;
+            try {
+                value = poll.get();
+                lastError = null;
+                if (until.test(value)) {
+                    return finish(name, value, true, attempts, start);
+                }
+                if (abortWhen != null && abortWhen.test(value)) {
+                    System.out.println("AsyncAwaiter - " + name + " aborted after " + attempts + " attempts");
+                    return finish(name, value, false, attempts, start);
+                }
+            } catch (RuntimeException e) {
+                lastError = e;
+                System.out.println("AsyncAwaiter - " + name + " poll " + attempts + " failed: " + e.getMessage());
+            }
+
+            long remainingMs = (deadline - System.nanoTime()) / 1_000_000L;
+            if (remainingMs <= 0) {
+                break;
+            }
+            // Grow the interval by 1.5x up to the cap, with +/-20% jitter so parallel waiters don't poll in lockstep
+            long jittered = (long) (interval * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+            interval = Math.min(MAX_INTERVAL_MS, interval * 3 / 2);
+            try {
+                Thread.sleep(Math.max(1, Math.min(jittered, remainingMs)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (value == null && lastError != null) {
+            finish(name, null, false, attempts, start);
+            throw lastError;
+        }
+        System.out.println("AsyncAwaiter - " + name + " not satisfied within " + timeoutMs + "ms (" + attempts + " attempts)");
+        return finish(name, value, false, attempts, start);
+    }
+
+    /**
+     * Wait until payment details for an order are available (HTTP 200).
+     * Keeps polling on 404 (not created yet) and 5xx (payment service/circuit breaker unavailable),
+     * stops early on any other status.
+     *
+     * @param orderNumber the order number
+     * @param token the JWT token
+     * @return the outcome; the value is the last payment response
+     */
+    public static Result<Response> awaitPayment(String orderNumber, String token) {
+        return await("payment",
+                () -> ApiClient.getPaymentDetails(orderNumber, token),
+                response -> response.getStatusCode() == 200,
+                response -> response.getStatusCode() != 404 && response.getStatusCode() < 500,
+                PAYMENT_TIMEOUT_MS);
+    }
+
+    /**
+     * Wait until a user has at least minCount notifications
+     *
+     * @param username the username
+     * @param token the JWT token
+     * @param minCount minimum number of notifications expected
+     * @return the outcome; the value is the last notifications response
+     */
+    public static Result<Response> awaitNotifications(String username, String token, int minCount) {
+        return await("notifications",
+                () -> ApiClient.getUserNotifications(username, token),
+                response -> response.getStatusCode() == 200 && countItems(response) >= minCount,
+                null,
+                NOTIFICATION_TIMEOUT_MS);
+    }
+
+    /**
+     * Summary of recorded waits, one line per wait name
+     *
+     * @return human-readable summary, empty if nothing was recorded
+     */
+    public static String summary() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(STATS).forEach((name, stats) -> sb.append(String.format(
+                "  %-14s waits=%d satisfied=%d avg=%dms max=%dms avgAttempts=%.1f%n",
+                name, stats.count.get(), stats.satisfied.get(),
+                stats.count.get() == 0 ? 0 : stats.totalMs.get() / stats.count.get(), stats.maxMs.get(),
+                stats.count.get() == 0 ? 0.0 : (double) stats.attempts.get() / stats.count.get())));
+        return sb.toString();
+    }
+
+    private static <T> Result<T> finish(String name, T value, boolean satisfied, int attempts, long startNanos) {
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000L;
+        STATS.computeIfAbsent(name, key -> new WaitStats()).record(elapsedMs, attempts, satisfied);
+        if (satisfied) {
+            System.out.println("AsyncAwaiter - " + name + " satisfied after " + elapsedMs + "ms (" + attempts + " attempts)");
+        }
+        return new Result<>(value, satisfied, attempts, elapsedMs);
+    }
+
+    private static int countItems(Response response) {
+        try {
+            return JsonStreams.countElements(response);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static class WaitStats {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong satisfied = new AtomicLong();
+        private final AtomicLong attempts = new AtomicLong();
+        private final AtomicLong totalMs = new AtomicLong();
+        private final AtomicLong maxMs = new AtomicLong();
+
+        void record(long elapsedMs, int pollAttempts, boolean wasSatisfied) {
+            count.incrementAndGet();
+            if (wasSatisfied) {
+                satisfied.incrementAndGet();
+            }
+            attempts.addAndGet(pollAttempts);
+            totalMs.addAndGet(elapsedMs);
+            maxMs.accumulateAndGet(elapsedMs, Math::max);
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import com.dissertation.integrationtestautomation.metrics.LatencyMetrics;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking counterpart of RestApiUtils built on the JDK HttpClient
+ * Requests are multiplexed over the client's own keep-alive pool, so many calls
+ * can be in flight without holding a thread each. Results are adapted to
+ * RestAssured Response objects so callers can keep using jsonPath() and friends.
+ *
+ * Supported system properties:
+ * - rest.async.connectTimeoutMs: connect timeout (default 10000)
+ * - rest.async.requestTimeoutMs: per-request timeout (default 30000)
+ * - rest.post.retryMax / rest.post.retryDelayMs: POST retries, shared with RestApiUtils (default 3 / 500)
+ */
+public class AsyncRestApiUtils {
+
+    private static final long CONNECT_TIMEOUT_MS = Long.getLong("rest.async.connectTimeoutMs", 10000L);
+    private static final long REQUEST_TIMEOUT_MS = Long.getLong("rest.async.requestTimeoutMs", 30000L);
+
+    /** Max attempts for POST when the gateway returns a transient status (405, 503, or 502/504 with idempotency keys). */
+    private static final int POST_RETRY_MAX = Math.max(1, Integer.getInteger("rest.post.retryMax", 3));
+    /** Delay in ms between retries. */
+    private static final int POST_RETRY_DELAY_MS = Integer.getInteger("rest.post.retryDelayMs", 500);
+
+    // Match the blocking client: force HTTP/1.1 and never follow redirects
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
+            .build();
+
+    /**
+     * Perform an asynchronous POST request with JSON body.
+     * Retries on 405 or 503 without blocking a thread between attempts, as long as the shared RetryBudget allows it.
+     * Every attempt carries the same Idempotency-Key.
+     *
+     * @param endpoint the API endpoint
+     * @param requestBody the request body: a DTO record, a Map or a JSON string
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> postRequestAsync(String endpoint, Object requestBody) {
+        return post(endpoint, requestBody, null);
+    }
+
+    /**
+     * Perform an asynchronous POST request with JSON body and Authorization header
+     * Retried like postRequestAsync, with the same Idempotency-Key on every attempt.
+     *
+     * @param endpoint the API endpoint
+     * @param requestBody the request body: a DTO record, a Map or a JSON string
+     * @param token the JWT token for authorization
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> postRequestWithAuthAsync(String endpoint, Object requestBody,
+                                                                       String token) {
+        return post(endpoint, requestBody, token);
+    }
+
+    /**
+     * Perform an asynchronous GET request
+     *
+     * @param endpoint the API endpoint
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> getRequestAsync(String endpoint) {
+        return send(newRequest(endpoint).GET().build(), null);
+    }
+
+    /**
+     * Perform an asynchronous GET request with Authorization header
+     *
+     * @param endpoint the API endpoint
+     * @param token the JWT token for authorization
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> getRequestWithAuthAsync(String endpoint, String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Token cannot be null or empty for authenticated request"));
+        }
+        return send(newRequest(endpoint)
+                .header("Authorization", RequestTemplates.authorization(token).getValue())
+                .GET()
+                .build(), null);
+    }
+
+    /**
+     * Perform an asynchronous GET that is hedged when -Dhedge.enabled=true
+     * Only for idempotent GETs: if no response has arrived after HedgePolicy's delay for the endpoint a
+     * duplicate is sent (to another replica if the EndpointRegistry has one), the first response wins and the
+     * other request is cancelled. Errors are not hedged;
+     * the call fails only once every request sent has failed.
+     *
+     * @param endpoint the API endpoint
+     * @return future completing with the first Response
+     */
+    public static CompletableFuture<Response> getRequestHedgedAsync(String endpoint) {
+        if (!HedgePolicy.isEnabled()) {
+            return getRequestAsync(endpoint);
+        }
+        return new HedgedCall(newRequest(endpoint).GET().build()).start();
+    }
+
+    /**
+     * Perform an asynchronous GET with Authorization header that is hedged when -Dhedge.enabled=true
+     *
+     * @param endpoint the API endpoint
+     * @param token the JWT token for authorization
+     * @return future completing with the first Response; failed with IllegalArgumentException if the token is
+     *         null or empty, whether or not hedging is enabled
+     * @see #getRequestHedgedAsync(String)
+     */
+    public static CompletableFuture<Response> getRequestHedgedAsync(String endpoint, String token) {
+        if (!HedgePolicy.isEnabled() || token == null || token.trim().isEmpty()) {
+            return getRequestWithAuthAsync(endpoint, token);
+        }
+        return new HedgedCall(newRequest(endpoint)
+                .header("Authorization", RequestTemplates.authorization(token).getValue())
+                .GET()
+                .build()).start();
+    }
+
+    /**
+     * One hedged GET: the original request, at most one hedge, and the future the first response completes
+     */
+    private static final class HedgedCall {
+
+        private final HttpRequest request;
+        private final String endpoint;
+        // The hedge is sent from a timer thread, so both requests record into the caller's FlightRecorder ring
+        private final FlightRecorder.Recorder recorder =
+                FlightRecorder.isEnabled() ? FlightRecorder.currentRecorder() : null;
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+        private CompletableFuture<Response> primary;
+        private CompletableFuture<Response> hedge;
+        private int outstanding;
+        private boolean decided;
+        private Throwable firstError;
+
+        private HedgedCall(HttpRequest request) {
+            this.request = request;
+            this.endpoint = RouteTemplate.key(request.method(), request.uri().toString());
+        }
+
+        private CompletableFuture<Response> start() {
+            long delayNanos = HedgePolicy.delayNanos(endpoint);
+            CompletableFuture<Response> sent = send(request, null, recorder);
+            synchronized (this) {
+                outstanding = 1;
+                primary = sent;
+            }
+            sent.whenComplete((response, error) -> onComplete(response, error, false));
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(this::sendHedge);
+            // A caller cancelling the call cancels whatever is still in flight
+            result.whenComplete((response, error) -> {
+                if (error instanceof CancellationException) {
+                    cancel(primary());
+                    cancel(hedge());
+                }
+            });
+            return result;
+        }
+
+        private void sendHedge() {
+            CompletableFuture<Response> sent;
+            synchronized (this) {
+                if (decided || result.isDone()) {
+                    return;
+                }
+                // A hedge is only worth sending straight away, so it never waits for a rate limit permit
+                HttpRequest hedgeRequest = hedgeRequest();
+                if (!RateLimiter.shared().tryAcquire(hedgeRequest.method(), hedgeRequest.uri().toString())
+                        || !HedgePolicy.tryHedge()) {
+                    return;
+                }
+                outstanding++;
+                LatencyMetrics.recordHedge(endpoint);
+                sent = dispatch(hedgeRequest, null, recorder);
+                hedge = sent;
+            }
+            sent.whenComplete((response, error) -> onComplete(response, error, true));
+        }
+
+        private void onComplete(Response response, Throwable error, boolean isHedge) {
+            if (error instanceof CancellationException) {
+                return;
+            }
+            Throwable failure = null;
+            CompletableFuture<Response> loser = null;
+            synchronized (this) {
+                outstanding--;
+                if (decided) {
+                    return;
+                }
+                if (error != null) {
+                    if (firstError == null) {
+                        firstError = rootCause(error);
+                    }
+                    if (outstanding > 0) {
+                        return;
+                    }
+                    failure = firstError;
+                } else {
+                    loser = isHedge ? primary : hedge;
+                }
+                decided = true;
+            }
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            cancel(loser);
+            if (isHedge) {
+                LatencyMetrics.recordHedgeWon(endpoint);
+            }
+            result.complete(response);
+        }
+
+        /**
+         * The request again, sent to another replica when the EndpointRegistry has one
+         */
+        private HttpRequest hedgeRequest() {
+            String url = request.uri().toString();
+            String alternative = EndpointRegistry.shared().alternative(url);
+            return alternative.equals(url) ? request
+                    : HttpRequest.newBuilder(request, (name, value) -> true).uri(URI.create(alternative)).build();
+        }
+
+        private synchronized CompletableFuture<Response> primary() {
+            return primary;
+        }
+
+        private synchronized CompletableFuture<Response> hedge() {
+            return hedge;
+        }
+
+        private static void cancel(CompletableFuture<Response> future) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * One logical POST with its own Idempotency-Key, tracked by IdempotencyKeys once it completes
+     */
+    private static CompletableFuture<Response> post(String endpoint, Object requestBody, String token) {
+        IdempotencyKeys.Operation operation = IdempotencyKeys.begin(endpoint);
+        return postWithRetry(endpoint, JsonCodec.toJson(requestBody), token, operation, 1)
+                .whenComplete((response, error) -> operation.complete(response));
+    }
+
+    private static CompletableFuture<Response> postWithRetry(String endpoint, String json, String token,
+                                                             IdempotencyKeys.Operation operation, int attempt) {
+        HttpRequest.Builder builder = newRequest(endpoint)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", RequestTemplates.authorization(token).getValue());
+        }
+        String idempotencyKey = operation.attempt();
+        if (idempotencyKey != null) {
+            builder.header(IdempotencyKeys.HEADER, idempotencyKey);
+        }
+
+        return send(builder.build(), json)
+                .handle((response, error) -> {
+                    boolean transientStatus = response != null && IdempotencyKeys.isRetryableStatus(response.getStatusCode());
+                    boolean retryable = error != null ? !(rootCause(error) instanceof CircuitOpenException
+                            || rootCause(error) instanceof RateLimitExceededException) : transientStatus;
+                    if (attempt < POST_RETRY_MAX && retryable && RetryBudget.shared().tryRetry()) {
+                        RequestLog.event("postRequestAsync - " + (error != null ? "Error" : "Transient " + response.getStatusCode())
+                                + " for " + endpoint + ", retrying in " + POST_RETRY_DELAY_MS + "ms (attempt "
+                                + (attempt + 1) + "/" + POST_RETRY_MAX + ")");
+                        return CompletableFuture
+                                .supplyAsync(() -> null, CompletableFuture.delayedExecutor(POST_RETRY_DELAY_MS, TimeUnit.MILLISECONDS))
+                                .thenCompose(ignored -> postWithRetry(endpoint, json, token, operation, attempt + 1));
+                    }
+                    if (error != null) {
+                        Throwable cause = rootCause(error);
+                        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                        return CompletableFuture.<Response>failedFuture(new RuntimeException(
+                                "Failed to execute POST request to " + endpoint + ": " + message, cause));
+                    }
+                    return CompletableFuture.completedFuture(response);
+                })
+                .thenCompose(future -> future);
+    }
+
+    /**
+     * Perform an asynchronous POST with JSON body that bypasses the client instrumentation: no rate limit,
+     * circuit breaker, retry, latency metrics, flight recorder, traffic capture or request log.
+     * For housekeeping traffic such as background token refreshes, which is not part of what a run measures.
+     *
+     * @param endpoint the API endpoint
+     * @param requestBody the request body: a DTO record, a Map or a JSON string
+     * @return future completing with the Response
+     */
+    public static CompletableFuture<Response> postRequestUninstrumentedAsync(String endpoint, Object requestBody) {
+        HttpRequest request = newRequest(endpoint)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JsonCodec.toJson(requestBody)))
+                .build();
+        return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(AsyncRestApiUtils::toRestAssuredResponse);
+    }
+
+    private static HttpRequest.Builder newRequest(String endpoint) {
+        return HttpRequest.newBuilder(URI.create(endpoint))
+                .timeout(Duration.ofMillis(REQUEST_TIMEOUT_MS))
+                .header("Accept", RequestTemplates.ACCEPT)
+                .header("User-Agent", RequestTemplates.USER_AGENT);
+    }
+
+    /**
+     * Send a request once its RateLimiter permit is due, through the endpoint's CircuitBreaker (if enabled), timing it into LatencyMetrics, logging
+     * it through RequestLog, recording it in the calling thread's FlightRecorder and tracking it per
+     * EndpointRegistry instance
+     * Cancelling the returned future aborts the request; cancelled requests are neither timed nor logged.
+     *
+     * @param body the request body, kept only for logging failures; may be null
+     */
+    private static CompletableFuture<Response> send(HttpRequest request, String body) {
+        return send(request, body, FlightRecorder.isEnabled() ? FlightRecorder.currentRecorder() : null);
+    }
+
+    /**
+     * Send a request once its RateLimiter permit is due; the wait is a delayed send, not a blocked thread
+     *
+     * @param recorder records the exchange in the sending thread's FlightRecorder ring, or null
+     */
+    private static CompletableFuture<Response> send(HttpRequest request, String body, FlightRecorder.Recorder recorder) {
+        if (!RateLimiter.shared().isEnabled()) {
+            return dispatch(request, body, recorder);
+        }
+        long waitNanos;
+        try {
+            waitNanos = RateLimiter.shared().reserve(request.method(), request.uri().toString());
+        } catch (RateLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (waitNanos == 0) {
+            return dispatch(request, body, recorder);
+        }
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            // Cancelled while waiting: the permit is spent but nothing is sent
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<Response> sent = dispatch(request, body, recorder);
+            sent.whenComplete((response, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(rootCause(error));
+                } else {
+                    result.complete(response);
+                }
+            });
+            result.whenComplete((response, error) -> {
+                if (error instanceof CancellationException) {
+                    sent.cancel(true);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Send a request now, skipping the RateLimiter
+     *
+     * @param recorder records the exchange in the sending thread's FlightRecorder ring, or null
+     */
+    private static CompletableFuture<Response> dispatch(HttpRequest request, String body, FlightRecorder.Recorder recorder) {
+        CircuitBreaker breaker = null;
+        if (CircuitBreaker.isEnabled()) {
+            breaker = CircuitBreaker.forEndpoint(RouteTemplate.key(request.method(), request.uri().toString()));
+            try {
+                breaker.acquire();
+            } catch (CircuitOpenException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        RetryBudget.shared().recordRequest();
+        EndpointRegistry.Instance instance = EndpointRegistry.shared().instanceFor(request.uri().toString());
+        if (instance != null) {
+            instance.onStart();
+        }
+        long startMicros = TrafficCapture.isEnabled() ? TrafficCapture.nowMicros() : 0L;
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> exchange =
+                HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<Response> future = exchange.thenApply(httpResponse -> {
+            LatencyMetrics.record(request.method(), request.uri().toString(), System.nanoTime() - start);
+            return toRestAssuredResponse(httpResponse);
+        });
+        // Cancelling the returned future aborts the exchange; this is how the losing request of a hedge is dropped
+        future.whenComplete((response, error) -> {
+            if (error instanceof CancellationException) {
+                exchange.cancel(true);
+            }
+        });
+        if (breaker != null) {
+            CircuitBreaker endpointBreaker = breaker;
+            future.whenComplete((response, error) -> {
+                if (error instanceof CancellationException) {
+                    endpointBreaker.onCancelled();
+                } else if (error != null) {
+                    endpointBreaker.onFailure();
+                } else {
+                    endpointBreaker.onResult(response.getStatusCode());
+                }
+            });
+        }
+        if (instance != null) {
+            future.whenComplete((response, error) -> {
+                if (error instanceof CancellationException) {
+                    instance.onCancelled();
+                } else if (error != null) {
+                    instance.onFailure();
+                } else {
+                    instance.onResult(response.getStatusCode());
+                }
+            });
+        }
+        if (recorder != null) {
+            future.whenComplete((response, error) -> recorder.record(request.method(), request.uri().toString(),
+                    request.headers().map(), body, response, error != null ? rootCause(error) : null,
+                    System.nanoTime() - start));
+        }
+        if (TrafficCapture.isEnabled()) {
+            future.whenComplete((response, error) -> {
+                if (!(error instanceof CancellationException)) {
+                    TrafficCapture.record(request.method(), request.uri().toString(), request.headers().map(), body,
+                            response, error != null ? rootCause(error) : null, startMicros, System.nanoTime() - start);
+                }
+            });
+        }
+        if (RequestLog.isAsync()) {
+            future.whenComplete((response, error) -> {
+                if (error instanceof CancellationException) {
+                    return;
+                }
+                int status = response != null ? response.getStatusCode() : -1;
+                RequestLog.record(request.method(), request.uri().toString(), status, System.nanoTime() - start,
+                        body, status >= 400 ? response.asString() : null, error != null ? rootCause(error) : null);
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Adapt a JDK HttpResponse to a RestAssured Response
+     */
+    private static Response toRestAssuredResponse(HttpResponse<byte[]> httpResponse) {
+        List<Header> headers = new ArrayList<>();
+        httpResponse.headers().map().forEach((name, values) -> {
+            for (String value : values) {
+                headers.add(new Header(name, value));
+            }
+        });
+
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(httpResponse.statusCode())
+                .setStatusLine("HTTP/1.1 " + httpResponse.statusCode())
+                .setHeaders(new Headers(headers))
+                .setBody(httpResponse.body());
+        httpResponse.headers().firstValue("Content-Type").ifPresent(builder::setContentType);
+        return builder.build();
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,261 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Outcome of a batch of API calls run concurrently, e.g. ApiClient.createOrders
+ * A batch keeps at most maxInFlight calls outstanding: the first ones are started together and every
+ * completion starts the next input, without a thread waiting in between. Each finished call is passed to the
+ * optional callback as it completes (on the thread that completed it, so it should be quick), and the result
+ * lists every item in input order with aggregate throughput and error counts.
+ *
+ * Supported system properties:
+ * - batch.maxInFlight: calls in flight at once for the ApiClient batch methods (default 16)
+ *
+ * @param <R> the result type of one call
+ */
+public final class BatchResult<R> {
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = Math.max(1, Integer.getInteger("batch.maxInFlight", 16));
+
+    /**
+     * The outcome of one input
+     *
+     * @param index the position of the input in the batch
+     * @param value the result, or null if the call failed
+     * @param error why the call failed, or null
+     * @param elapsedNanos time from starting the call until it completed
+     * @param <R> the result type
+     */
+    public record Item<R>(int index, R value, Throwable error, long elapsedNanos) {
+
+        /**
+         * @return true if the call succeeded
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private final String name;
+    private final List<Item<R>> items;
+    private final long elapsedNanos;
+
+    private BatchResult(String name, List<Item<R>> items, long elapsedNanos) {
+        this.name = name;
+        this.items = Collections.unmodifiableList(items);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return the in-flight window the ApiClient batch methods use (batch.maxInFlight)
+     */
+    public static int defaultMaxInFlight() {
+        return DEFAULT_MAX_IN_FLIGHT;
+    }
+
+    /**
+     * Run one call per input with at most maxInFlight outstanding
+     *
+     * @param name what the batch does, for summary(), e.g. "POST /api/orders"
+     * @param inputs the inputs, in order
+     * @param maxInFlight calls outstanding at once
+     * @param call starts the call for one input
+     * @param onItem called with each item as it completes, or null
+     * @param <T> the input type
+     * @param <R> the result type
+     * @return future completing with every item once all calls have finished; it never fails because a call did
+     */
+    public static <T, R> CompletableFuture<BatchResult<R>> runAsync(String name, List<T> inputs, int maxInFlight,
+                                                                    Function<T, CompletableFuture<R>> call,
+                                                                    Consumer<Item<R>> onItem) {
+        return new Run<>(name, new ArrayList<>(inputs), Math.max(1, maxInFlight), call, onItem).start();
+    }
+
+    /**
+     * @return every item, in input order
+     */
+    public List<Item<R>> items() {
+        return items;
+    }
+
+    /**
+     * @return the results of the successful calls, in input order
+     */
+    public List<R> values() {
+        List<R> values = new ArrayList<>(items.size());
+        for (Item<R> item : items) {
+            if (item.isSuccess()) {
+                values.add(item.value());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return number of successful calls
+     */
+    public int succeeded() {
+        int succeeded = 0;
+        for (Item<R> item : items) {
+            if (item.isSuccess()) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    /**
+     * @return number of failed calls
+     */
+    public int failed() {
+        return items.size() - succeeded();
+    }
+
+    /**
+     * Failed calls by cause: "HTTP <status>" for ApiException, otherwise the exception's simple class name
+     *
+     * @return error counts, sorted by cause
+     */
+    public Map<String, Integer> errorCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Item<R> item : items) {
+            if (!item.isSuccess()) {
+                counts.merge(errorKey(item.error()), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return wall-clock time of the whole batch in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return completed calls per second over the whole batch
+     */
+    public double throughputPerSecond() {
+        return elapsedNanos > 0 ? items.size() * 1_000_000_000.0 / elapsedNanos : 0.0;
+    }
+
+    /**
+     * @return one line with counts, elapsed time, throughput and errors
+     */
+    public String summary() {
+        Map<String, Integer> errors = errorCounts();
+        return String.format("Batch %s - %d calls, %d succeeded, %d failed in %d ms (%.1f/s)%s", name, items.size(),
+                succeeded(), failed(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), throughputPerSecond(),
+                errors.isEmpty() ? "" : ", errors " + errors);
+    }
+
+    private static String errorKey(Throwable error) {
+        return error instanceof ApiException ? "HTTP " + ((ApiException) error).getStatusCode() : error.getClass().getSimpleName();
+    }
+
+    /**
+     * One batch in progress
+     * Calls are started from drain(), which only one thread runs at a time: a call that completes while drain()
+     * is starting others (e.g. one failing immediately) just asks the running drain() to go round again, so
+     * long batches of instant failures do not recurse.
+     */
+    private static final class Run<T, R> {
+        private final String name;
+        private final List<T> inputs;
+        private final int maxInFlight;
+        private final Function<T, CompletableFuture<R>> call;
+        private final Consumer<Item<R>> onItem;
+        private final AtomicReferenceArray<Item<R>> items;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private final CompletableFuture<BatchResult<R>> result = new CompletableFuture<>();
+        private int next;
+        private long startNanos;
+
+        private Run(String name, List<T> inputs, int maxInFlight, Function<T, CompletableFuture<R>> call,
+                    Consumer<Item<R>> onItem) {
+            this.name = name;
+            this.inputs = inputs;
+            this.maxInFlight = maxInFlight;
+            this.call = call;
+            this.onItem = onItem;
+            this.items = new AtomicReferenceArray<>(inputs.size());
+            this.remaining = new AtomicInteger(inputs.size());
+        }
+
+        private CompletableFuture<BatchResult<R>> start() {
+            startNanos = System.nanoTime();
+            if (inputs.isEmpty()) {
+                finish();
+            } else {
+                drain();
+            }
+            return result;
+        }
+
+        private void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (next < inputs.size() && inFlight.get() < maxInFlight) {
+                    inFlight.incrementAndGet();
+                    launch(next++);
+                }
+            } while (drainRequests.decrementAndGet() != 0);
+        }
+
+        private void launch(int index) {
+            long callStart = System.nanoTime();
+            CompletableFuture<R> future;
+            try {
+                future = call.apply(inputs.get(index));
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((value, error) -> {
+                Throwable cause = error;
+                while (cause instanceof CompletionException && cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                Item<R> item = new Item<>(index, cause == null ? value : null, cause, System.nanoTime() - callStart);
+                items.set(index, item);
+                if (onItem != null) {
+                    try {
+                        onItem.accept(item);
+                    } catch (RuntimeException e) {
+                        System.err.println("BatchResult - Callback failed for item " + index + " of " + name + ": " + e);
+                    }
+                }
+                inFlight.decrementAndGet();
+                if (remaining.decrementAndGet() == 0) {
+                    finish();
+                } else {
+                    drain();
+                }
+            });
+        }
+
+        private void finish() {
+            List<Item<R>> ordered = new ArrayList<>(inputs.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                ordered.add(items.get(i));
+            }
+            result.complete(new BatchResult<>(name, ordered, System.nanoTime() - startNanos));
+        }
+    }
+}
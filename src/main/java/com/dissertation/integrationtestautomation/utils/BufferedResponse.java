@@ -0,0 +1,188 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-once view of a RestAssured Response
+ * The body bytes are taken from the response once (RestAssured has already buffered them, so this is the
+ * same array, not a copy) and everything else is derived lazily and cached: the decoded String on the first
+ * asString(), the top-level JSON fields on the first field() call, typed objects straight from the bytes.
+ * Use it where a response is logged, checked and parsed several times, instead of calling
+ * response.getBody().asString() and response.jsonPath() repeatedly.
+ */
+public final class BufferedResponse {
+
+    private final Response response;
+    private final int statusCode;
+    private final byte[] body;
+    private String text;
+    private Map<String, String> fields;
+
+    private BufferedResponse(Response response) {
+        this.response = response;
+        this.statusCode = response.getStatusCode();
+        byte[] bytes = response.asByteArray();
+        this.body = bytes != null ? bytes : new byte[0];
+    }
+
+    /**
+     * @param response the response to wrap
+     * @return the wrapper, or null if response is null
+     */
+    public static BufferedResponse of(Response response) {
+        return response != null ? new BufferedResponse(response) : null;
+    }
+
+    /**
+     * @return the wrapped response
+     */
+    public Response getResponse() {
+        return response;
+    }
+
+    /**
+     * @return the HTTP status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return true for 2xx statuses
+     */
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * @param name header name (case-insensitive)
+     * @return the first value of the header, or null
+     */
+    public String getHeader(String name) {
+        return response.getHeader(name);
+    }
+
+    /**
+     * @return all response headers
+     */
+    public Headers getHeaders() {
+        return response.getHeaders();
+    }
+
+    /**
+     * @return the raw body; do not modify the array
+     */
+    public byte[] bytes() {
+        return body;
+    }
+
+    /**
+     * @return true if the body is empty or only whitespace
+     */
+    public boolean isEmpty() {
+        for (byte b : body) {
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the body decoded with the response charset (UTF-8 if none); decoded once and cached
+     */
+    public String asString() {
+        if (text == null) {
+            text = new String(body, charset());
+        }
+        return text;
+    }
+
+    /**
+     * Top-level scalar field of a JSON object body, e.g. "token" or "orderNumber"
+     * All top-level fields are read in one streaming pass on the first call and cached.
+     *
+     * @param name the field name
+     * @return the value as text, or null if the body has no such scalar field or is not a JSON object
+     */
+    public String field(String name) {
+        if (fields == null) {
+            fields = readFields();
+        }
+        return fields.get(name);
+    }
+
+    /**
+     * Bind the body to a type with the shared JsonCodec reader
+     *
+     * @param type the DTO type
+     * @param <T> the DTO type
+     * @return the decoded body, or null if the body is empty
+     */
+    public <T> T as(Class<T> type) {
+        if (isEmpty()) {
+            return null;
+        }
+        try {
+            return JsonCodec.reader(type).readValue(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse " + type.getSimpleName() + " from response: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return statusCode + " " + asString();
+    }
+
+    private Map<String, String> readFields() {
+        if (isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> values = new HashMap<>();
+        try (JsonParser parser = JsonCodec.mapper().getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Collections.emptyMap();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                    values.put(name, parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            // Not JSON (e.g. a plain-text health response); fields stay empty
+            return Collections.emptyMap();
+        }
+        return values;
+    }
+
+    private Charset charset() {
+        String contentType = response.getContentType();
+        if (contentType != null) {
+            int index = contentType.toLowerCase().indexOf("charset=");
+            if (index >= 0) {
+                try {
+                    return Charset.forName(contentType.substring(index + 8).split(";")[0].trim().replace("\"", ""));
+                } catch (RuntimeException e) {
+                    return StandardCharsets.UTF_8;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
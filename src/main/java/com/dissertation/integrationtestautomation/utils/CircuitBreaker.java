@@ -0,0 +1,269 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.filter.Filter;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-endpoint circuit breaker for RestApiUtils and AsyncRestApiUtils
+ * Each endpoint (keyed by RouteTemplate, e.g. "GET /api/orders/{n}") keeps a sliding window of its last
+ * outcomes. A failure is an exception or a 5xx status. Once the window holds enough calls and the failure
+ * rate reaches the threshold the breaker opens and requests fail immediately with CircuitOpenException.
+ * After the open period a few trial requests are let through (half-open): if they all succeed the breaker
+ * closes, if any fails it opens again.
+ *
+ * Supported system properties:
+ * - circuit.enabled: enable circuit breaking (default false)
+ * - circuit.windowSize: outcomes kept per endpoint (default 20)
+ * - circuit.minimumCalls: calls in the window before the failure rate is evaluated (default 10)
+ * - circuit.failureRate: failure fraction that opens the breaker (default 0.5)
+ * - circuit.openMs: how long the breaker stays open before trial requests (default 5000)
+ * - circuit.halfOpenCalls: trial requests allowed while half-open (default 3)
+ */
+public final class CircuitBreaker {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("circuit.enabled", "false"));
+    private static final int WINDOW_SIZE = Math.max(1, Integer.getInteger("circuit.windowSize", 20));
+    private static final int MINIMUM_CALLS = Math.max(1, Integer.getInteger("circuit.minimumCalls", 10));
+    private static final double FAILURE_RATE = Double.parseDouble(System.getProperty("circuit.failureRate", "0.5"));
+    private static final long OPEN_MS = Long.getLong("circuit.openMs", 5000L);
+    private static final int HALF_OPEN_CALLS = Math.max(1, Integer.getInteger("circuit.halfOpenCalls", 3));
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    /**
+     * RestAssured filter that rejects requests to open endpoints and records the outcome of the rest
+     */
+    public static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        CircuitBreaker breaker = forEndpoint(RouteTemplate.key(requestSpec.getMethod(), requestSpec.getURI()));
+        breaker.acquire();
+        return FilterOutcome.proceed(requestSpec, responseSpec, ctx, (response, error) -> {
+            if (response != null) {
+                breaker.onResult(response.getStatusCode());
+            } else {
+                breaker.onFailure();
+            }
+        });
+    };
+
+    /**
+     * Breaker states
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String endpoint;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRate;
+    private final long openMs;
+    private final int halfOpenCalls;
+    private final boolean[] window;
+    private int windowCount;
+    private int windowIndex;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openUntilMillis;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+
+    private CircuitBreaker(String endpoint) {
+        this(endpoint, WINDOW_SIZE, MINIMUM_CALLS, FAILURE_RATE, OPEN_MS, HALF_OPEN_CALLS);
+    }
+
+    /**
+     * A breaker with its own settings, not registered for any endpoint
+     *
+     * @param endpoint the endpoint key, used in messages
+     * @param windowSize outcomes kept
+     * @param minimumCalls calls in the window before the failure rate is evaluated
+     * @param failureRate failure fraction that opens the breaker
+     * @param openMs how long the breaker stays open before trial requests
+     * @param halfOpenCalls trial requests allowed while half-open
+     */
+    CircuitBreaker(String endpoint, int windowSize, int minimumCalls, double failureRate, long openMs,
+                   int halfOpenCalls) {
+        this.endpoint = endpoint;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRate = failureRate;
+        this.openMs = openMs;
+        this.halfOpenCalls = halfOpenCalls;
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * @return true if -Dcircuit.enabled=true
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * The breaker for an endpoint, created on first use
+     *
+     * @param endpoint the endpoint key from RouteTemplate.key(method, url)
+     * @return the breaker
+     */
+    public static CircuitBreaker forEndpoint(String endpoint) {
+        return BREAKERS.computeIfAbsent(endpoint, CircuitBreaker::new);
+    }
+
+    /**
+     * Permit a request or fail fast
+     *
+     * @throws CircuitOpenException if the breaker is open, or half-open with no trial permits left
+     */
+    public void acquire() {
+        long retryAfter = tryAcquire();
+        if (retryAfter >= 0) {
+            rejected.incrementAndGet();
+            throw new CircuitOpenException(endpoint, retryAfter);
+        }
+    }
+
+    /**
+     * Record the outcome of a permitted request from its status; 5xx counts as a failure
+     *
+     * @param statusCode the response status
+     */
+    public void onResult(int statusCode) {
+        if (statusCode >= 500) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+    }
+
+    /**
+     * Record a permitted request that succeeded
+     */
+    public synchronized void onSuccess() {
+        calls.incrementAndGet();
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        addToWindow(false);
+    }
+
+    /**
+     * Record a permitted request that failed (exception or 5xx)
+     */
+    public synchronized void onFailure() {
+        calls.incrementAndGet();
+        failures.incrementAndGet();
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        addToWindow(true);
+        if (state == State.CLOSED && windowCount >= minimumCalls
+                && (double) windowFailures / windowCount >= failureRate) {
+            open();
+        }
+    }
+
+    /**
+     * Release a permitted request that was cancelled before it completed (e.g. a losing hedge); it is not counted
+     */
+    public synchronized void onCancelled() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    /**
+     * @return the current state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntilMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * One line per endpoint that has seen traffic: state, calls, failures, rejected requests and times opened
+     *
+     * @return the report, or an empty string if no breaker was used
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(BREAKERS).forEach((endpoint, breaker) -> sb.append(String.format(
+                "%-45s %-9s calls=%d failures=%d rejected=%d opened=%d%n", endpoint, breaker.getState(),
+                breaker.calls.get(), breaker.failures.get(), breaker.rejected.get(), breaker.opened.get())));
+        return sb.toString();
+    }
+
+    /**
+     * Forget all breakers (between runs)
+     */
+    public static void reset() {
+        BREAKERS.clear();
+    }
+
+    /**
+     * @return -1 if the request may proceed, otherwise milliseconds until the next trial request
+     */
+    private synchronized long tryAcquire() {
+        if (state == State.CLOSED) {
+            return -1;
+        }
+        long now = System.currentTimeMillis();
+        if (state == State.OPEN) {
+            if (now < openUntilMillis) {
+                return openUntilMillis - now;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (halfOpenPermits > 0) {
+            halfOpenPermits--;
+            return -1;
+        }
+        return 0;
+    }
+
+    private void addToWindow(boolean failure) {
+        if (windowCount == windowSize) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntilMillis = System.currentTimeMillis() + openMs;
+        opened.incrementAndGet();
+        RequestLog.event("CircuitBreaker - Opened " + endpoint + " for " + openMs + "ms");
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowCount = 0;
+        windowIndex = 0;
+        windowFailures = 0;
+        RequestLog.event("CircuitBreaker - Closed " + endpoint);
+    }
+}
@@ -0,0 +1,24 @@
+package com.dissertation.integrationtestautomation.utils;
+
+/**
+ * Thrown instead of sending a request while the endpoint's circuit breaker is open
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String endpoint;
+
+    /**
+     * @param endpoint the endpoint key, e.g. "POST /api/orders"
+     * @param retryAfterMillis time until the breaker lets a trial request through
+     */
+    public CircuitOpenException(String endpoint, long retryAfterMillis) {
+        super("Circuit open for " + endpoint + ", retry in " + retryAfterMillis + "ms");
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,387 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.filter.Filter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base URLs of the gateway and each service, with client-side load balancing across replicas
+ * Each service has one or more instances; ApiClient asks for an instance per call. Requests to every
+ * instance are tracked (in flight, failures) by FILTER for RestApiUtils and by AsyncRestApiUtils.send,
+ * and an instance that fails endpoints.ejectAfterFailures times in a row (exception or 5xx) is skipped for
+ * endpoints.ejectMs. If every instance of a service is ejected they are all used again rather than failing.
+ * Tracking is only switched on when some service has more than one instance.
+ *
+ * Supported system properties (the same keys can be put in the file named by endpoints.file; system
+ * properties win):
+ * - endpoints.file: properties file with the settings below
+ * - endpoints.gateway: comma-separated gateway URLs (default http://localhost:8080)
+ * - endpoints.user-service / .order-service / .payment-service / .notification-service: direct service URLs
+ *   (defaults http://localhost:8081 to http://localhost:8084)
+ * - endpoints.balancer: round-robin, least-outstanding or p2c (power of two choices) (default round-robin)
+ * - endpoints.ejectAfterFailures: consecutive failures that eject an instance (default 3)
+ * - endpoints.ejectMs: how long an ejected instance is skipped (default 10000)
+ */
+public final class EndpointRegistry {
+
+    public static final String GATEWAY = "gateway";
+    public static final String USER_SERVICE = "user-service";
+    public static final String ORDER_SERVICE = "order-service";
+    public static final String PAYMENT_SERVICE = "payment-service";
+    public static final String NOTIFICATION_SERVICE = "notification-service";
+
+    private static final Map<String, String> DEFAULT_URLS = Map.of(
+            GATEWAY, "http://localhost:8080",
+            USER_SERVICE, "http://localhost:8081",
+            ORDER_SERVICE, "http://localhost:8082",
+            PAYMENT_SERVICE, "http://localhost:8083",
+            NOTIFICATION_SERVICE, "http://localhost:8084");
+
+    private static final EndpointRegistry SHARED = new EndpointRegistry(loadSettings());
+
+    /**
+     * RestAssured filter that tracks requests per instance; a no-op for URLs of no registered instance
+     */
+    public static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        Instance instance = SHARED.instanceFor(requestSpec.getURI());
+        if (instance == null) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        instance.onStart();
+        return FilterOutcome.proceed(requestSpec, responseSpec, ctx, (response, error) -> {
+            if (response != null) {
+                instance.onResult(response.getStatusCode());
+            } else {
+                instance.onFailure();
+            }
+        });
+    };
+
+    /**
+     * How an instance is picked among the available ones
+     */
+    public enum Balancer {
+        ROUND_ROBIN, LEAST_OUTSTANDING, POWER_OF_TWO_CHOICES;
+
+        static Balancer parse(String value) {
+            switch (value.trim().toLowerCase()) {
+                case "least-outstanding":
+                    return LEAST_OUTSTANDING;
+                case "p2c":
+                case "power-of-two-choices":
+                    return POWER_OF_TWO_CHOICES;
+                case "round-robin":
+                    return ROUND_ROBIN;
+                default:
+                    System.err.println("EndpointRegistry - Unknown endpoints.balancer '" + value + "', using round-robin");
+                    return ROUND_ROBIN;
+            }
+        }
+    }
+
+    /**
+     * One replica of a service
+     */
+    public static final class Instance {
+        private final String service;
+        private final String url;
+        private final int ejectAfterFailures;
+        private final long ejectMillis;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long ejectedUntilMillis;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong ejections = new AtomicLong();
+
+        private Instance(String service, String url, int ejectAfterFailures, long ejectMillis) {
+            this.service = service;
+            this.url = url;
+            this.ejectAfterFailures = ejectAfterFailures;
+            this.ejectMillis = ejectMillis;
+        }
+
+        public String getService() {
+            return service;
+        }
+
+        /**
+         * @return the base URL, without a trailing slash
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return requests sent to this instance that have not completed
+         */
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        /**
+         * @return false while the instance is ejected
+         */
+        public boolean isAvailable() {
+            return ejectedUntilMillis == 0 || System.currentTimeMillis() >= ejectedUntilMillis;
+        }
+
+        void onStart() {
+            requests.incrementAndGet();
+            outstanding.incrementAndGet();
+        }
+
+        void onResult(int statusCode) {
+            if (statusCode >= 500) {
+                onFailure();
+            } else {
+                outstanding.decrementAndGet();
+                consecutiveFailures.set(0);
+            }
+        }
+
+        void onFailure() {
+            outstanding.decrementAndGet();
+            failures.incrementAndGet();
+            if (consecutiveFailures.incrementAndGet() >= ejectAfterFailures && isAvailable()) {
+                consecutiveFailures.set(0);
+                ejectedUntilMillis = System.currentTimeMillis() + ejectMillis;
+                ejections.incrementAndGet();
+                RequestLog.event("EndpointRegistry - Ejected " + service + " instance " + url + " for " + ejectMillis + "ms");
+            }
+        }
+
+        /**
+         * A request that was cancelled before completing (e.g. a losing hedge); not counted as an outcome
+         */
+        void onCancelled() {
+            outstanding.decrementAndGet();
+        }
+    }
+
+    private final Balancer balancer;
+    private final Map<String, List<Instance>> services = new LinkedHashMap<>();
+    private final Map<String, Instance> byOrigin = new LinkedHashMap<>();
+    private final Map<String, AtomicInteger> cursors = new LinkedHashMap<>();
+    private final boolean tracking;
+
+    private EndpointRegistry(Properties settings) {
+        this.balancer = Balancer.parse(settings.getProperty("endpoints.balancer", "round-robin"));
+        int ejectAfterFailures = Math.max(1, Integer.parseInt(settings.getProperty("endpoints.ejectAfterFailures", "3").trim()));
+        long ejectMillis = Long.parseLong(settings.getProperty("endpoints.ejectMs", "10000").trim());
+        boolean replicated = false;
+        for (String service : List.of(GATEWAY, USER_SERVICE, ORDER_SERVICE, PAYMENT_SERVICE, NOTIFICATION_SERVICE)) {
+            List<Instance> instances = new ArrayList<>();
+            for (String url : settings.getProperty("endpoints." + service, DEFAULT_URLS.get(service)).split(",")) {
+                String trimmed = url.trim();
+                while (trimmed.endsWith("/")) {
+                    trimmed = trimmed.substring(0, trimmed.length() - 1);
+                }
+                if (!trimmed.isEmpty()) {
+                    Instance instance = new Instance(service, trimmed, ejectAfterFailures, ejectMillis);
+                    instances.add(instance);
+                    byOrigin.putIfAbsent(origin(trimmed), instance);
+                }
+            }
+            if (instances.isEmpty()) {
+                throw new IllegalArgumentException("No URLs configured for endpoints." + service);
+            }
+            replicated |= instances.size() > 1;
+            services.put(service, Collections.unmodifiableList(instances));
+            cursors.put(service, new AtomicInteger());
+        }
+        this.tracking = replicated;
+    }
+
+    /**
+     * The registry configured from endpoints.file and system properties
+     *
+     * @return the shared registry
+     */
+    public static EndpointRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return true if some service has several instances, i.e. requests are tracked per instance
+     */
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public Balancer getBalancer() {
+        return balancer;
+    }
+
+    /**
+     * @param service the service name, e.g. EndpointRegistry.ORDER_SERVICE
+     * @return every instance of the service, in configuration order
+     */
+    public List<Instance> instances(String service) {
+        List<Instance> instances = services.get(service);
+        if (instances == null) {
+            throw new IllegalArgumentException("Unknown service: " + service);
+        }
+        return instances;
+    }
+
+    /**
+     * Pick an instance of a service with the configured balancer, skipping ejected instances
+     *
+     * @param service the service name, e.g. EndpointRegistry.GATEWAY
+     * @return the instance to send the next request to
+     */
+    public Instance choose(String service) {
+        List<Instance> instances = instances(service);
+        int size = instances.size();
+        if (size == 1) {
+            return instances.get(0);
+        }
+        int next = cursors.get(service).getAndIncrement();
+        switch (balancer) {
+            case LEAST_OUTSTANDING:
+                return leastOutstanding(instances, Math.floorMod(next, size));
+            case POWER_OF_TWO_CHOICES:
+                return powerOfTwoChoices(instances, Math.floorMod(next, size));
+            default:
+                return roundRobin(instances, next);
+        }
+    }
+
+    /**
+     * The instance a request URL goes to, if requests are being tracked
+     *
+     * @param url the request URL
+     * @return the instance, or null if tracking is off or the URL matches no instance
+     */
+    Instance instanceFor(String url) {
+        return tracking ? byOrigin.get(origin(url)) : null;
+    }
+
+    /**
+     * The same request on another available instance of its service, e.g. for a hedge after a slow replica
+     *
+     * @param url the request URL
+     * @return the URL on another instance, or the URL unchanged if it matches no instance or there is no other
+     */
+    public String alternative(String url) {
+        Instance current = instanceFor(url);
+        if (current == null) {
+            return url;
+        }
+        List<Instance> instances = services.get(current.service);
+        int size = instances.size();
+        int start = Math.floorMod(cursors.get(current.service).getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Instance candidate = instances.get((start + i) % size);
+            if (candidate != current && candidate.isAvailable()) {
+                return candidate.url + url.substring(origin(url).length());
+            }
+        }
+        return url;
+    }
+
+    /**
+     * One line per instance: requests, failures, in flight, ejections and whether it is ejected now
+     *
+     * @return the report, or an empty string unless some service has several instances
+     */
+    public String report() {
+        if (!tracking) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        services.forEach((service, instances) -> {
+            for (Instance instance : instances) {
+                sb.append(String.format("%-22s %-32s requests=%d failures=%d outstanding=%d ejections=%d%s%n",
+                        service, instance.url, instance.requests.get(), instance.failures.get(),
+                        instance.outstanding.get(), instance.ejections.get(), instance.isAvailable() ? "" : " EJECTED"));
+            }
+        });
+        return sb.toString();
+    }
+
+    private static Instance roundRobin(List<Instance> instances, int next) {
+        // Rotate over the available instances only, so an ejected instance's share is spread evenly
+        List<Instance> available = new ArrayList<>(instances.size());
+        for (Instance instance : instances) {
+            if (instance.isAvailable()) {
+                available.add(instance);
+            }
+        }
+        // Everything is ejected: keep spreading load rather than failing every request
+        List<Instance> candidates = available.isEmpty() ? instances : available;
+        return candidates.get(Math.floorMod(next, candidates.size()));
+    }
+
+    private static Instance leastOutstanding(List<Instance> instances, int start) {
+        int size = instances.size();
+        Instance best = null;
+        // Scan from a rotating start so ties are spread instead of always going to the first instance
+        for (int i = 0; i < size; i++) {
+            Instance instance = instances.get((start + i) % size);
+            if (instance.isAvailable() && (best == null || instance.getOutstanding() < best.getOutstanding())) {
+                best = instance;
+            }
+        }
+        return best != null ? best : instances.get(start);
+    }
+
+    private static Instance powerOfTwoChoices(List<Instance> instances, int start) {
+        int size = instances.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = instances.get(first);
+        Instance b = instances.get(second);
+        if (a.isAvailable() && b.isAvailable()) {
+            return a.getOutstanding() <= b.getOutstanding() ? a : b;
+        }
+        if (a.isAvailable() || b.isAvailable()) {
+            return a.isAvailable() ? a : b;
+        }
+        return roundRobin(instances, start);
+    }
+
+    /**
+     * "scheme://host:port" of a URL, which identifies the instance it goes to
+     */
+    private static String origin(String url) {
+        int schemeEnd = url.indexOf("://");
+        int pathStart = schemeEnd < 0 ? -1 : url.indexOf('/', schemeEnd + 3);
+        return (pathStart < 0 ? url : url.substring(0, pathStart)).toLowerCase();
+    }
+
+    private static Properties loadSettings() {
+        Properties settings = new Properties();
+        String file = System.getProperty("endpoints.file");
+        if (file != null && !file.trim().isEmpty()) {
+            try (InputStream in = Files.newInputStream(Paths.get(file.trim()))) {
+                settings.load(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read endpoints.file " + file + ": " + e.getMessage(), e);
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("endpoints.")) {
+                settings.setProperty(name, System.getProperty(name));
+            }
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,47 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Runs the rest of a RestAssured filter chain and reports how the exchange ended, for filters that track outcomes
+ * RestAssured rethrows checked exceptions such as ConnectException without declaring them, so a filter that
+ * catches RuntimeException never sees a refused connection. This catches every Throwable, reports it and
+ * rethrows it unchanged.
+ */
+final class FilterOutcome {
+
+    /**
+     * Told how one exchange ended
+     */
+    interface Listener {
+        /**
+         * @param response the response, or null if the exchange failed
+         * @param error the failure, or null if a response arrived
+         */
+        void onOutcome(Response response, Throwable error);
+    }
+
+    private FilterOutcome() {
+    }
+
+    /**
+     * Call ctx.next and report the response or failure to the listener before returning or rethrowing
+     *
+     * @return the response from the rest of the chain
+     */
+    static Response proceed(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                            FilterContext ctx, Listener listener) {
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } catch (Throwable e) {
+            listener.onOutcome(null, e);
+            throw e;
+        }
+        listener.onOutcome(response, null);
+        return response;
+    }
+}
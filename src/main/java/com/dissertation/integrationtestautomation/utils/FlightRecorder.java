@@ -0,0 +1,263 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.filter.Filter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-thread record of the last N HTTP exchanges, dumped by TestNGListener when a test fails or is skipped
+ * Each thread owns a fixed ring of the exchanges it made. Recording happens on every exchange but a dump only on a
+ * failure, so an exchange keeps references to the request body and the response's already buffered bytes, never
+ * the Response itself, and nothing is copied or decoded until dump() cuts each body to maxBodyChars. A ring keeps
+ * the bodies of at most SIZE exchanges reachable. Async exchanges complete on HttpClient threads and are
+ * recorded into the ring of the thread that sent them, but only while that thread is still on the same test: a
+ * completion that arrives after clear() is dropped instead of showing up in the next test's dump.
+ *
+ * Supported system properties:
+ * - flight.recorder.enabled: record exchanges (default true; LoadGeneratorMain and ScenarioMain default to false)
+ * - flight.recorder.size: exchanges kept per thread (default 20)
+ * - flight.recorder.maxBodyChars: truncate dumped bodies to this length (default 10000)
+ */
+public final class FlightRecorder {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("flight.recorder.enabled", "true"));
+    private static final int SIZE = Math.max(1, Integer.getInteger("flight.recorder.size", 20));
+    private static final int MAX_BODY_CHARS = Integer.getInteger("flight.recorder.maxBodyChars", 10000);
+
+    private static final ThreadLocal<Ring> RINGS = ThreadLocal.withInitial(Ring::new);
+
+    /**
+     * RestAssured filter that records each exchange on the calling thread
+     */
+    public static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        Ring ring = RINGS.get();
+        long start = System.nanoTime();
+        return FilterOutcome.proceed(requestSpec, responseSpec, ctx, (response, error) ->
+                ring.record(requestSpec.getMethod(), requestSpec.getURI(), requestSpec.getHeaders(),
+                        requestSpec.getBody(), response, error, System.nanoTime() - start));
+    };
+
+    /**
+     * One recorded exchange: references to what the request and response already hold, formatted only by dump()
+     */
+    private static final class Exchange {
+        private final long timestampMillis = System.currentTimeMillis();
+        private final String method;
+        private final String uri;
+        private final Object requestHeaders;
+        private final Object requestBody;
+        private final String statusLine;
+        // The response's own buffer, not a copy
+        private final byte[] responseBody;
+        private final Throwable error;
+        private final long elapsedNanos;
+
+        private Exchange(String method, String uri, Object requestHeaders, Object requestBody, Response response,
+                         Throwable error, long elapsedNanos) {
+            this.method = method;
+            this.uri = uri;
+            this.requestHeaders = requestHeaders;
+            this.requestBody = requestBody;
+            this.statusLine = response != null ? response.getStatusLine() : null;
+            this.responseBody = response != null ? response.asByteArray() : null;
+            this.error = error;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    /**
+     * Fixed-size ring owned by one thread; synchronized only because async completions may write to it
+     */
+    static final class Ring {
+        // Exchanges are immutable, so a slot is replaced rather than overwritten field by field
+        private final Exchange[] exchanges = new Exchange[SIZE];
+        private long count;
+        // Bumped by clear(), so completions of requests sent before it can be told apart
+        private long generation;
+
+        /**
+         * Record one exchange
+         *
+         * @param method the HTTP method
+         * @param uri the request URI
+         * @param requestHeaders RestAssured Headers or a header map
+         * @param requestBody the request body, may be null
+         * @param response the response, or null if the request failed
+         * @param error the failure, or null
+         * @param elapsedNanos time taken by the exchange
+         */
+        void record(String method, String uri, Object requestHeaders, Object requestBody,
+                    Response response, Throwable error, long elapsedNanos) {
+            Exchange exchange = new Exchange(method, uri, requestHeaders, requestBody, response, error, elapsedNanos);
+            synchronized (this) {
+                exchanges[(int) (count++ % SIZE)] = exchange;
+            }
+        }
+
+        /**
+         * A handle that records into this ring until the owning thread next calls clear()
+         *
+         * @return the handle, for an exchange that will complete on another thread
+         */
+        synchronized Recorder recorder() {
+            return new Recorder(this, generation);
+        }
+
+        private synchronized boolean isCurrent(long expectedGeneration) {
+            return generation == expectedGeneration;
+        }
+
+        private synchronized void record(long expectedGeneration, Exchange exchange) {
+            if (generation == expectedGeneration) {
+                exchanges[(int) (count++ % SIZE)] = exchange;
+            }
+        }
+
+        private synchronized void clear() {
+            Arrays.fill(exchanges, null);
+            count = 0;
+            generation++;
+        }
+
+        private synchronized String dump() {
+            if (count == 0) {
+                return "";
+            }
+            StringBuilder out = new StringBuilder();
+            long first = Math.max(0, count - SIZE);
+            if (first > 0) {
+                out.append("(").append(first).append(" earlier exchanges not kept)\n");
+            }
+            for (long i = first; i < count; i++) {
+                Exchange exchange = exchanges[(int) (i % SIZE)];
+                out.append("#").append(i + 1).append(' ').append(Instant.ofEpochMilli(exchange.timestampMillis))
+                        .append(' ').append(exchange.method).append(' ').append(exchange.uri)
+                        .append(String.format(" (%.2f ms)", exchange.elapsedNanos / 1_000_000.0)).append('\n');
+                appendHeaders(out, exchange.requestHeaders);
+                if (exchange.requestBody != null) {
+                    out.append("  Request body: ").append(truncate(exchange.requestBody)).append('\n');
+                }
+                if (exchange.statusLine != null) {
+                    out.append("  Response: ").append(exchange.statusLine).append('\n');
+                    out.append("  Response body: ").append(truncate(exchange.responseBody)).append('\n');
+                }
+                if (exchange.error != null) {
+                    out.append("  Error: ").append(exchange.error).append('\n');
+                }
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * Records an exchange sent by one thread and completed on another into the sender's ring
+     */
+    static final class Recorder {
+        private final Ring ring;
+        private final long generation;
+
+        private Recorder(Ring ring, long generation) {
+            this.ring = ring;
+            this.generation = generation;
+        }
+
+        /**
+         * Record one exchange, unless the sending thread has cleared its ring since the request was sent
+         *
+         * @see Ring#record(String, String, Object, Object, Response, Throwable, long)
+         */
+        void record(String method, String uri, Object requestHeaders, Object requestBody,
+                    Response response, Throwable error, long elapsedNanos) {
+            // No need to allocate an Exchange that would be dropped anyway
+            if (ring.isCurrent(generation)) {
+                ring.record(generation, new Exchange(method, uri, requestHeaders, requestBody, response, error,
+                        elapsedNanos));
+            }
+        }
+    }
+
+    private FlightRecorder() {
+    }
+
+    /**
+     * @return true unless -Dflight.recorder.enabled=false
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * A recorder for the calling thread's ring, for clients that complete on another thread
+     *
+     * @return the recorder
+     */
+    static Recorder currentRecorder() {
+        return RINGS.get().recorder();
+    }
+
+    /**
+     * Forget the calling thread's exchanges, e.g. when a new test starts on it
+     */
+    public static void clear() {
+        RINGS.get().clear();
+    }
+
+    /**
+     * Format the calling thread's exchanges, oldest first
+     *
+     * @return the formatted exchanges, or an empty string if none were recorded
+     */
+    public static String dump() {
+        return RINGS.get().dump();
+    }
+
+    private static void appendHeaders(StringBuilder out, Object headers) {
+        if (headers instanceof Headers) {
+            for (Header header : (Headers) headers) {
+                appendHeader(out, header.getName(), header.getValue());
+            }
+        } else if (headers instanceof Map) {
+            for (Map.Entry<?, ?> header : ((Map<?, ?>) headers).entrySet()) {
+                Object values = header.getValue();
+                for (Object value : values instanceof List ? (List<?>) values : List.of(String.valueOf(values))) {
+                    appendHeader(out, String.valueOf(header.getKey()), String.valueOf(value));
+                }
+            }
+        }
+    }
+
+    private static void appendHeader(StringBuilder out, String name, String value) {
+        if ("Authorization".equalsIgnoreCase(name) && value.length() > 27) {
+            value = value.substring(0, 27) + "...";
+        }
+        out.append("  > ").append(name).append(": ").append(value).append('\n');
+    }
+
+    private static String truncate(Object body) {
+        if (body instanceof byte[]) {
+            return truncate((byte[]) body);
+        }
+        String text = String.valueOf(body);
+        return text.length() <= MAX_BODY_CHARS ? text
+                : text.substring(0, MAX_BODY_CHARS) + "... (" + text.length() + " chars)";
+    }
+
+    /**
+     * Decode at most the first maxBodyChars bytes as UTF-8; a multi-byte character cut at the end decodes as U+FFFD
+     */
+    private static String truncate(byte[] body) {
+        if (body == null) {
+            return null;
+        }
+        int length = Math.min(body.length, MAX_BODY_CHARS);
+        String text = new String(body, 0, length, StandardCharsets.UTF_8);
+        return length == body.length ? text : text + "... (" + body.length + " bytes)";
+    }
+}
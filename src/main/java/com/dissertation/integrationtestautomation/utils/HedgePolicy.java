@@ -0,0 +1,76 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import com.dissertation.integrationtestautomation.metrics.LatencyMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When to send a hedge (a duplicate of an idempotent GET that has not answered yet)
+ * The delay is the endpoint's recorded latency at hedge.percentile, so only the slowest few percent of
+ * requests are duplicated. Until an endpoint has hedge.minSamples recorded calls hedge.initialDelayMs is
+ * used instead. Each hedge withdraws a token from the shared RetryBudget, so hedging stops adding load
+ * when a service is slow across the board rather than on one instance.
+ *
+ * Supported system properties:
+ * - hedge.enabled: hedge the idempotent GETs of ApiClient (default false)
+ * - hedge.percentile: latency percentile used as the hedge delay (default 95)
+ * - hedge.minSamples: calls recorded for an endpoint before its percentile is used (default 20)
+ * - hedge.initialDelayMs: delay while an endpoint has too few samples (default 100)
+ * - hedge.minDelayMs / hedge.maxDelayMs: bounds on the delay (default 5 / 2000)
+ */
+public final class HedgePolicy {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("hedge.enabled", "false"));
+    private static final double PERCENTILE = Double.parseDouble(System.getProperty("hedge.percentile", "95"));
+    private static final long MIN_SAMPLES = Long.getLong("hedge.minSamples", 20L);
+    private static final long INITIAL_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("hedge.initialDelayMs", 100L));
+    private static final long MIN_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("hedge.minDelayMs", 5L));
+    private static final long MAX_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("hedge.maxDelayMs", 2000L));
+
+    /** Percentiles are read from the histograms at most this often per endpoint */
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final Map<String, Delay> DELAYS = new ConcurrentHashMap<>();
+
+    private record Delay(long nanos, long computedAtNanos) {
+    }
+
+    private HedgePolicy() {
+    }
+
+    /**
+     * @return true if -Dhedge.enabled=true
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * How long to wait for a response before hedging
+     *
+     * @param endpoint the endpoint key from RouteTemplate.key(method, url)
+     * @return the delay in nanoseconds
+     */
+    public static long delayNanos(String endpoint) {
+        long now = System.nanoTime();
+        Delay delay = DELAYS.get(endpoint);
+        if (delay == null || now - delay.computedAtNanos() > REFRESH_NANOS) {
+            long percentile = LatencyMetrics.valueAtPercentileNanos(endpoint, PERCENTILE, MIN_SAMPLES);
+            long nanos = percentile < 0 ? INITIAL_DELAY_NANOS : percentile;
+            delay = new Delay(Math.max(MIN_DELAY_NANOS, Math.min(MAX_DELAY_NANOS, nanos)), now);
+            DELAYS.put(endpoint, delay);
+        }
+        return delay.nanos();
+    }
+
+    /**
+     * Take a RetryBudget token for a hedge
+     *
+     * @return false if the budget is spent and the hedge should not be sent
+     */
+    static boolean tryHedge() {
+        return RetryBudget.shared().tryRetry();
+    }
+}
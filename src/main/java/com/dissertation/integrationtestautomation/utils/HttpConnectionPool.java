@@ -0,0 +1,181 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.RestAssured;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared, bounded keep-alive connection pool for RestApiUtils
+ * Opt-in transport mode: enable with -Drest.transport=pooled
+ *
+ * Supported system properties:
+ * - rest.pool.maxTotal: max connections across all routes (default 200)
+ * - rest.pool.maxPerRoute: default max connections per host:port (default 50)
+ * - rest.pool.routeLimits: per-route overrides, e.g. "localhost:8080=100,localhost:8083=20"
+ * - rest.pool.idleTimeoutMs: idle connections older than this are closed (default 30000)
+ * - rest.pool.evictionIntervalMs: how often the idle evictor runs (default 5000)
+ * - rest.pool.keepAliveMs: keep-alive used when the server sends no Keep-Alive header (default 60000)
+ *
+ * RestAssured 5 casts the client from HttpClientConfig.httpClientFactory to AbstractHttpClient, so a client from
+ * HttpClientBuilder (with PoolingHttpClientConnectionManager) fails at the first request. The pool therefore
+ * has to use DefaultHttpClient and PoolingClientConnectionManager, which HttpClient 4.3 deprecated; their use
+ * is confined to the members below that suppress the warning.
+ */
+public final class HttpConnectionPool {
+
+    private static final boolean ENABLED = "pooled".equalsIgnoreCase(System.getProperty("rest.transport", "close"));
+
+    private static final int MAX_TOTAL = Integer.getInteger("rest.pool.maxTotal", 200);
+    private static final int MAX_PER_ROUTE = Integer.getInteger("rest.pool.maxPerRoute", 50);
+    private static final String ROUTE_LIMITS = System.getProperty("rest.pool.routeLimits", "");
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("rest.pool.idleTimeoutMs", 30000L);
+    private static final long EVICTION_INTERVAL_MS = Long.getLong("rest.pool.evictionIntervalMs", 5000L);
+    private static final long KEEP_ALIVE_MS = Long.getLong("rest.pool.keepAliveMs", 60000L);
+
+    private static volatile HttpConnectionPool instance;
+
+    @SuppressWarnings("deprecation")
+    private final PoolingClientConnectionManager connectionManager;
+    @SuppressWarnings("deprecation")
+    private final DefaultHttpClient httpClient;
+    private final HttpClientConfig httpClientConfig;
+    private final ScheduledExecutorService evictor;
+
+    @SuppressWarnings("deprecation")
+    private HttpConnectionPool() {
+        connectionManager = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault());
+        connectionManager.setMaxTotal(MAX_TOTAL);
+        connectionManager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+        applyRouteLimits(connectionManager, ROUTE_LIMITS);
+
+        httpClient = new DefaultHttpClient(connectionManager);
+        // Honour the server's Keep-Alive header, otherwise fall back to the configured keep-alive
+        httpClient.setKeepAliveStrategy((response, context) -> {
+            HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (it.hasNext()) {
+                HeaderElement element = it.nextElement();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Long.parseLong(element.getValue()) * 1000L;
+                    } catch (NumberFormatException ignored) {
+                        // fall through to default
+                    }
+                }
+            }
+            return KEEP_ALIVE_MS;
+        });
+
+        httpClientConfig = HttpClientConfig.httpClientConfig()
+                .reuseHttpClientInstance()
+                .httpClientFactory(() -> httpClient);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "http-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections,
+                EVICTION_INTERVAL_MS, EVICTION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "http-pool-shutdown"));
+
+        System.out.println("HttpConnectionPool - Pooled keep-alive transport enabled (maxTotal=" + MAX_TOTAL +
+                ", maxPerRoute=" + MAX_PER_ROUTE + ", idleTimeoutMs=" + IDLE_TIMEOUT_MS + ")");
+    }
+
+    /**
+     * @return true if the pooled keep-alive transport mode is enabled
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Get the shared pool, creating it on first use
+     *
+     * @return the shared connection pool
+     */
+    public static HttpConnectionPool getInstance() {
+        HttpConnectionPool pool = instance;
+        if (pool == null) {
+            synchronized (HttpConnectionPool.class) {
+                pool = instance;
+                if (pool == null) {
+                    pool = new HttpConnectionPool();
+                    instance = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Build a RestAssured config that routes requests through the shared pool.
+     * Derived from the current global config so settings made by tests are preserved.
+     *
+     * @return RestAssuredConfig using the pooled HTTP client
+     */
+    public RestAssuredConfig restAssuredConfig() {
+        return RestAssured.config().httpClient(httpClientConfig);
+    }
+
+    /**
+     * @return a short description of pool usage (leased/available/pending/max)
+     */
+    public String stats() {
+        return connectionManager.getTotalStats().toString();
+    }
+
+    /**
+     * Close expired connections and connections idle for longer than the idle timeout
+     */
+    public void evictIdleConnections() {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the evictor and close all pooled connections
+     */
+    public void close() {
+        evictor.shutdownNow();
+        connectionManager.shutdown();
+    }
+
+    /**
+     * Parse "host:port=limit" pairs and apply them as per-route maximums
+     */
+    @SuppressWarnings("deprecation")
+    private static void applyRouteLimits(PoolingClientConnectionManager manager, String routeLimits) {
+        if (routeLimits == null || routeLimits.trim().isEmpty()) {
+            return;
+        }
+        for (String entry : routeLimits.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                System.err.println("HttpConnectionPool - Ignoring malformed route limit: " + entry);
+                continue;
+            }
+            String[] hostPort = parts[0].trim().split(":");
+            try {
+                int port = hostPort.length > 1 ? Integer.parseInt(hostPort[1]) : 80;
+                manager.setMaxPerRoute(new HttpRoute(new HttpHost(hostPort[0], port)), Integer.parseInt(parts[1].trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("HttpConnectionPool - Ignoring malformed route limit: " + entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.response.Response;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Idempotency-Key generation and duplicate tracking for retried POSTs
+ * Every logical POST (one postRequest / postRequestWithAuth call, sync or async) gets one key that is sent
+ * on each of its attempts, so a service that honours the header applies the operation at most once and
+ * answers later attempts with the stored result and "Idempotent-Replayed: true". Outcomes of retried
+ * operations are tracked client-side:
+ * - replayed: the service recognised the key, so an earlier attempt had been applied and was not repeated
+ * - unconfirmed: a key was sent and the retry succeeded without a replay; either no earlier attempt was
+ *   applied or the service ignores the header
+ * - possible duplicates: no key was sent and the retry succeeded, so an earlier attempt may also have
+ *   been applied (e.g. a 503 from the gateway after the order was created); each one is logged
+ *
+ * Supported system properties:
+ * - idempotency.enabled: send Idempotency-Key on POSTs and also retry them on 502/504 (default true);
+ *   duplicates are tracked either way
+ */
+public final class IdempotencyKeys {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("idempotency.enabled", "true"));
+
+    // Keys are a per-run random prefix plus a counter: unique across runs and cheaper than UUID.randomUUID()
+    private static final String PREFIX = Long.toString(System.currentTimeMillis(), 36) + "-"
+            + Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36) + "-";
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final LongAdder OPERATIONS = new LongAdder();
+    private static final LongAdder RETRIED = new LongAdder();
+    private static final LongAdder REPLAYED = new LongAdder();
+    private static final LongAdder UNCONFIRMED = new LongAdder();
+    private static final LongAdder POSSIBLE_DUPLICATES = new LongAdder();
+
+    /**
+     * One logical POST and its attempts
+     */
+    public static final class Operation {
+        private final String endpoint;
+        private final String key;
+        private volatile int attempts;
+
+        private Operation(String endpoint, String key) {
+            this.endpoint = endpoint;
+            this.key = key;
+        }
+
+        /**
+         * Count an attempt
+         *
+         * @return the key to send, or null if keys are disabled
+         */
+        public String attempt() {
+            attempts++;
+            return key;
+        }
+
+        /**
+         * @return the key, or null if keys are disabled
+         */
+        public String key() {
+            return key;
+        }
+
+        /**
+         * Record the response the operation finally returned
+         *
+         * @param response the last response
+         */
+        public void complete(Response response) {
+            if (attempts <= 1 || response == null) {
+                return;
+            }
+            RETRIED.increment();
+            if (Boolean.parseBoolean(response.getHeader(REPLAYED_HEADER))) {
+                REPLAYED.increment();
+            } else if (response.getStatusCode() < 200 || response.getStatusCode() >= 300) {
+                return;
+            } else if (key != null) {
+                UNCONFIRMED.increment();
+            } else {
+                POSSIBLE_DUPLICATES.increment();
+                RequestLog.event("Idempotency - Possible duplicate: " + endpoint + " succeeded after " + attempts
+                        + " attempts without an Idempotency-Key");
+            }
+        }
+    }
+
+    private IdempotencyKeys() {
+    }
+
+    /**
+     * @return true unless -Didempotency.enabled=false
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Start a logical POST
+     *
+     * @param endpoint the endpoint, for reporting
+     * @return the operation, with a fresh key if keys are enabled
+     */
+    public static Operation begin(String endpoint) {
+        OPERATIONS.increment();
+        return new Operation(endpoint, ENABLED ? PREFIX + SEQUENCE.incrementAndGet() : null);
+    }
+
+    /**
+     * Statuses a POST is retried on: 405 and 503 are rejections by the gateway before the service saw the
+     * request; 502 and 504 may come after the service applied it, so they are only retried when a key is sent
+     *
+     * @param status the response status
+     * @return true if the POST should be retried
+     */
+    public static boolean isRetryableStatus(int status) {
+        return status == 405 || status == 503 || (ENABLED && (status == 502 || status == 504));
+    }
+
+    /**
+     * @return true once any operation has been retried, i.e. when the keys could have made a difference
+     */
+    public static boolean wasUsed() {
+        return RETRIED.sum() > 0;
+    }
+
+    /**
+     * @return one line with operations, retried operations and their outcomes
+     */
+    public static String stats() {
+        return "operations=" + OPERATIONS.sum() + ", retried=" + RETRIED.sum() + ", replayed=" + REPLAYED.sum()
+                + ", unconfirmed=" + UNCONFIRMED.sum() + ", possibleDuplicates=" + POSSIBLE_DUPLICATES.sum();
+    }
+}
@@ -0,0 +1,138 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import com.dissertation.integrationtestautomation.model.AuthResponse;
+import com.dissertation.integrationtestautomation.model.LoginRequest;
+import com.dissertation.integrationtestautomation.model.Notification;
+import com.dissertation.integrationtestautomation.model.OrderRequest;
+import com.dissertation.integrationtestautomation.model.OrderResponse;
+import com.dissertation.integrationtestautomation.model.PaymentResponse;
+import com.dissertation.integrationtestautomation.model.RegisterRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Shared Jackson codecs for request and response bodies
+ * One ObjectMapper is configured for the whole project, and a reader and writer per type are built once
+ * and cached, so serialisers and deserialisers are not looked up again on every request. The DTO types
+ * in the model package are warmed up when the class loads, keeping that cost out of the first measured
+ * requests.
+ */
+public final class JsonCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final ClassValue<ObjectReader> READERS = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return MAPPER.readerFor(type);
+        }
+    };
+
+    private static final ClassValue<ObjectReader> LIST_READERS = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return MAPPER.readerFor(MAPPER.getTypeFactory().constructCollectionType(List.class, type));
+        }
+    };
+
+    private static final ClassValue<ObjectWriter> WRITERS = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return MAPPER.writerFor(type);
+        }
+    };
+
+    static {
+        for (Class<?> type : List.of(RegisterRequest.class, LoginRequest.class, OrderRequest.class)) {
+            WRITERS.get(type);
+        }
+        for (Class<?> type : List.of(AuthResponse.class, OrderResponse.class, PaymentResponse.class, Notification.class)) {
+            READERS.get(type);
+            LIST_READERS.get(type);
+        }
+    }
+
+    private JsonCodec() {
+    }
+
+    /**
+     * @return the shared ObjectMapper; do not reconfigure it
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * @return the cached reader for a type
+     */
+    static ObjectReader reader(Class<?> type) {
+        return READERS.get(type);
+    }
+
+    /**
+     * Serialise a request body; strings are assumed to be JSON already and returned unchanged
+     *
+     * @param body a DTO record, a Map or a JSON string
+     * @return the JSON text
+     */
+    public static String toJson(Object body) {
+        if (body == null || body instanceof String) {
+            return (String) body;
+        }
+        try {
+            return WRITERS.get(body.getClass()).writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialise request body: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read a response body as one object
+     *
+     * @param response the response
+     * @param type the DTO type
+     * @param <T> the DTO type
+     * @return the decoded body, or null if the body is empty
+     */
+    public static <T> T read(Response response, Class<T> type) {
+        byte[] body = response.asByteArray();
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            return READERS.get(type).readValue(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse " + type.getSimpleName() + " from response: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read a response body that is a JSON array
+     *
+     * @param response the response
+     * @param type the element type
+     * @param <T> the element type
+     * @return the decoded elements, empty if the body is empty
+     */
+    public static <T> List<T> readList(Response response, Class<T> type) {
+        byte[] body = response.asByteArray();
+        if (body.length == 0) {
+            return List.of();
+        }
+        try {
+            return LIST_READERS.get(type).readValue(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse list of " + type.getSimpleName() + " from response: "
+                    + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import com.dissertation.integrationtestautomation.model.OrderResponse;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Streaming queries over JSON array responses (user orders, notifications)
+ * The body is walked token by token with the Jackson streaming parser: nothing is decoded into a String,
+ * no JsonPath/DOM tree is built for the whole list, and elements are only bound to objects when they match.
+ * Useful for soak-test users with thousands of orders, where asString() and GPath copy multi-MB bodies.
+ */
+public final class JsonStreams {
+
+    /**
+     * Called for each element of the top-level array with the parser positioned on its first token
+     */
+    private interface ElementVisitor {
+        /**
+         * @return false to stop iterating
+         */
+        boolean visit(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Opens a parser over a response body
+     */
+    private interface BodySource {
+        JsonParser open() throws IOException;
+    }
+
+    private JsonStreams() {
+    }
+
+    /**
+     * Number of elements in a JSON array body
+     *
+     * @param response the response
+     * @return the element count, or 0 if the body is empty or not an array
+     */
+    public static int countElements(Response response) {
+        int[] count = {0};
+        forEachElement(response, parser -> {
+            parser.skipChildren();
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * Number of elements in a JSON array body that has already been read, streamed from its bytes
+     *
+     * @param response the buffered response
+     * @return the element count, or 0 if the body is empty or not an array
+     */
+    public static int countElements(BufferedResponse response) {
+        int[] count = {0};
+        forEachElement(() -> JsonCodec.mapper().getFactory().createParser(response.bytes()), parser -> {
+            parser.skipChildren();
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * Number of array elements whose top-level field has the given value, e.g. notifications of one order
+     *
+     * @param response the response
+     * @param field the field name, e.g. "orderNumber"
+     * @param value the expected value, compared as text
+     * @return the number of matching elements
+     */
+    public static int countMatching(Response response, String field, String value) {
+        int[] count = {0};
+        forEachElement(response, parser -> {
+            if (fieldMatches(parser, field, value)) {
+                count[0]++;
+            }
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * First array element whose top-level field has the given value, bound to the given type
+     *
+     * @param response the response
+     * @param type the element type
+     * @param field the field name, e.g. "orderNumber"
+     * @param value the expected value, compared as text
+     * @param <T> the element type
+     * @return the matching element, or empty if none matches
+     */
+    public static <T> Optional<T> findFirst(Response response, Class<T> type, String field, String value) {
+        Object[] found = {null};
+        forEachElement(response, parser -> {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return true;
+            }
+            // Buffer the element's tokens so it can be checked and then bound without re-reading the body
+            TokenBuffer element = new TokenBuffer(parser);
+            element.copyCurrentStructure(parser);
+            try (JsonParser check = element.asParser()) {
+                check.nextToken();
+                if (!fieldMatches(check, field, value)) {
+                    return true;
+                }
+            }
+            try (JsonParser bind = element.asParser()) {
+                found[0] = JsonCodec.reader(type).readValue(bind);
+            }
+            return false;
+        });
+        return Optional.ofNullable(type.cast(found[0]));
+    }
+
+    /**
+     * Find an order in a user-orders response by order number
+     *
+     * @param response the GET /api/orders/user/{username} response
+     * @param orderNumber the order number
+     * @return the order, or empty if it is not in the list
+     */
+    public static Optional<OrderResponse> findOrder(Response response, String orderNumber) {
+        return findFirst(response, OrderResponse.class, "orderNumber", orderNumber);
+    }
+
+    /**
+     * Value of a top-level field in the last array element, e.g. the most recent order number
+     *
+     * @param response the response
+     * @param field the field name
+     * @return the value as text, or empty if the array is empty or its last element lacks the field
+     */
+    public static Optional<String> lastValue(Response response, String field) {
+        String[] last = {null};
+        forEachElement(response, parser -> {
+            last[0] = fieldValue(parser, field);
+            return true;
+        });
+        return Optional.ofNullable(last[0]);
+    }
+
+    private static void forEachElement(Response response, ElementVisitor visitor) {
+        forEachElement(() -> JsonCodec.mapper().getFactory().createParser(response.asInputStream()), visitor);
+    }
+
+    private static void forEachElement(BodySource source, ElementVisitor visitor) {
+        // Closing the parser also closes the body stream it reads from
+        try (JsonParser parser = source.open()) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (!visitor.visit(parser)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to stream JSON response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Consume the current element and report whether its top-level field equals the value
+     */
+    private static boolean fieldMatches(JsonParser parser, String field, String value) throws IOException {
+        return value.equals(fieldValue(parser, field));
+    }
+
+    /**
+     * Consume the current element and return the text of one top-level scalar field, or null
+     */
+    private static String fieldValue(JsonParser parser, String field) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String found = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token.isScalarValue() && token != JsonToken.VALUE_NULL && field.equals(name)) {
+                found = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dissertation.integrationtestautomation.utils;
+
+/**
+ * Thrown instead of sending a request when the RateLimiter has no permit within the allowed wait
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String endpoint;
+
+    /**
+     * @param endpoint the endpoint key, e.g. "POST /api/orders"
+     * @param limit the bucket that refused the request, e.g. "global" or "/api/orders"
+     * @param waitMillis how long the request would have had to wait for a permit
+     */
+    public RateLimitExceededException(String endpoint, String limit, long waitMillis) {
+        super("Rate limit " + limit + " exceeded for " + endpoint + ", next permit in " + waitMillis + "ms");
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,314 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import com.dissertation.integrationtestautomation.metrics.LatencyMetrics;
+import io.restassured.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side token-bucket rate limits, per route and across all requests
+ * Each bucket is a lock-free GCRA (generic cell rate algorithm) bucket: a single AtomicLong holds the time the
+ * next permit is due, and a request reserves its permit with one compare-and-set. A request takes a permit
+ * from the global bucket and from its route's bucket, and goes out once both are due. How long it may wait
+ * depends on ratelimit.mode:
+ * - block: wait as long as it takes (default)
+ * - queue: wait up to ratelimit.maxQueueMs, otherwise fail with RateLimitExceededException
+ * - reject: fail with RateLimitExceededException unless a permit is available now
+ * RestApiUtils waits on the calling thread; AsyncRestApiUtils delays the send without holding a thread.
+ * Waits and rejections are recorded in LatencyMetrics, apart from the request latencies.
+ *
+ * Routes are templated paths (see RouteTemplate), optionally prefixed with a method, and match themselves and
+ * every path below them: "/api/orders" covers "GET /api/orders/user/{n}", "POST /api/orders" only the POST.
+ * The longest matching route applies.
+ *
+ * Supported system properties:
+ * - ratelimit.global: requests per second across all endpoints (default 0, unlimited)
+ * - ratelimit.routes: comma-separated route=rate[:burst] entries,
+ *   e.g. "/api/auth/register=2,POST /api/orders=10:5" (default none)
+ * - ratelimit.burst: requests a bucket lets through back to back, unless a route sets its own (default 1)
+ * - ratelimit.mode: block, queue or reject (default block)
+ * - ratelimit.maxQueueMs: longest wait in queue mode (default 1000)
+ */
+public final class RateLimiter {
+
+    /**
+     * What a request does when no permit is available
+     */
+    public enum Mode {
+        BLOCK, QUEUE, REJECT;
+
+        static Mode parse(String value) {
+            switch (value.trim().toLowerCase()) {
+                case "queue":
+                    return QUEUE;
+                case "reject":
+                    return REJECT;
+                case "block":
+                    return BLOCK;
+                default:
+                    System.err.println("RateLimiter - Unknown ratelimit.mode '" + value + "', using block");
+                    return BLOCK;
+            }
+        }
+    }
+
+    private static final RateLimiter SHARED = new RateLimiter(
+            System.getProperty("ratelimit.global", "0"),
+            System.getProperty("ratelimit.routes", ""),
+            Math.max(1, Integer.getInteger("ratelimit.burst", 1)),
+            Mode.parse(System.getProperty("ratelimit.mode", "block")),
+            Long.getLong("ratelimit.maxQueueMs", 1000L));
+
+    /**
+     * RestAssured filter that waits for (or is refused) a permit before the request is sent
+     */
+    public static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        SHARED.acquire(requestSpec.getMethod(), requestSpec.getURI());
+        return ctx.next(requestSpec, responseSpec);
+    };
+
+    /**
+     * One GCRA bucket: a permit is due every intervalNanos, and up to burst permits may be taken early
+     */
+    private static final class Bucket {
+        private final String name;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        // Theoretical arrival time: when the bucket would be empty again if no more permits were taken
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+        private Bucket(String name, double perSecond, int burst) {
+            this.name = name;
+            this.intervalNanos = Math.max(1L, Math.round(1_000_000_000.0 / perSecond));
+            this.toleranceNanos = (burst - 1) * intervalNanos;
+        }
+
+        /**
+         * @return nanoseconds until the reserved permit is due, or -1 if it would be due after maxWaitNanos
+         *         (nothing is reserved then)
+         */
+        private long reserve(long now, long maxWaitNanos) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long wait = Math.max(0L, arrival - toleranceNanos - now);
+                if (wait > maxWaitNanos) {
+                    return -1L;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, Math.max(arrival, now) + intervalNanos)) {
+                    return wait;
+                }
+            }
+        }
+
+        /**
+         * Give back a reserved permit that will not be used
+         */
+        private void release() {
+            theoreticalArrival.addAndGet(-intervalNanos);
+        }
+
+        private long waitNanos(long now) {
+            return Math.max(0L, theoreticalArrival.get() - toleranceNanos - now);
+        }
+    }
+
+    private record Route(String method, String path, Bucket bucket) {
+
+        boolean matches(String method, String path) {
+            return (this.method == null || this.method.equals(method))
+                    && (path.equals(this.path) || path.startsWith(this.path.endsWith("/") ? this.path : this.path + "/"));
+        }
+    }
+
+    private final Bucket global;
+    private final List<Route> routes = new ArrayList<>();
+    private final Mode mode;
+    private final long maxQueueNanos;
+    private final Map<String, Optional<Bucket>> routeBuckets = new ConcurrentHashMap<>();
+
+    /**
+     * A limiter with its own settings; the values have the format of the matching system properties
+     *
+     * @param global requests per second across all endpoints, "0" for unlimited
+     * @param routes comma-separated route=rate[:burst] entries
+     * @param burst requests a bucket lets through back to back, unless a route sets its own
+     * @param mode what a request does when no permit is available
+     * @param maxQueueMs longest wait in queue mode
+     */
+    RateLimiter(String global, String routes, int burst, Mode mode, long maxQueueMs) {
+        double globalRate = parseRate(global, "ratelimit.global");
+        this.global = globalRate > 0 ? new Bucket("global", globalRate, burst) : null;
+        for (String entry : routes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int equals = entry.lastIndexOf('=');
+            if (equals < 0) {
+                System.err.println("RateLimiter - Ignoring ratelimit.routes entry without a rate: " + entry.trim());
+                continue;
+            }
+            String route = entry.substring(0, equals).trim();
+            String[] limit = entry.substring(equals + 1).trim().split(":");
+            double rate = parseRate(limit[0], route);
+            if (rate <= 0) {
+                continue;
+            }
+            int routeBurst = burst;
+            if (limit.length > 1) {
+                try {
+                    routeBurst = Math.max(1, Integer.parseInt(limit[1].trim()));
+                } catch (NumberFormatException e) {
+                    System.err.println("RateLimiter - Ignoring invalid burst for " + route + ": " + limit[1]);
+                }
+            }
+            int space = route.indexOf(' ');
+            String method = space > 0 ? route.substring(0, space).toUpperCase() : null;
+            String path = RouteTemplate.path(space > 0 ? route.substring(space + 1).trim() : route);
+            this.routes.add(new Route(method, path, new Bucket(route, rate, routeBurst)));
+        }
+        this.mode = mode;
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, maxQueueMs));
+    }
+
+    /**
+     * The limiter configured from system properties
+     *
+     * @return the shared limiter
+     */
+    public static RateLimiter shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return true if a global or route limit is configured
+     */
+    public boolean isEnabled() {
+        return global != null || !routes.isEmpty();
+    }
+
+    /**
+     * @return the mode requests without a permit are handled by
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Reserve the permits for a request without waiting for them
+     *
+     * @param method the HTTP method
+     * @param url the request URL
+     * @return nanoseconds until the request may be sent (0 to send now)
+     * @throws RateLimitExceededException if the permit is further away than the mode allows
+     */
+    public long reserve(String method, String url) {
+        String endpoint = RouteTemplate.key(method, url);
+        Bucket route = routeBucket(method, endpoint);
+        long maxWaitNanos = mode == Mode.BLOCK ? Long.MAX_VALUE : mode == Mode.QUEUE ? maxQueueNanos : 0L;
+        long now = System.nanoTime();
+        long wait = 0L;
+        if (global != null) {
+            wait = global.reserve(now, maxWaitNanos);
+            if (wait < 0) {
+                throw reject(endpoint, global, now);
+            }
+        }
+        if (route != null) {
+            long routeWait = route.reserve(now, maxWaitNanos);
+            if (routeWait < 0) {
+                if (global != null) {
+                    global.release();
+                }
+                throw reject(endpoint, route, now);
+            }
+            wait = Math.max(wait, routeWait);
+        }
+        LatencyMetrics.recordThrottleWait(endpoint, wait);
+        return wait;
+    }
+
+    /**
+     * Reserve the permits for a request and wait until they are due, on the calling thread
+     *
+     * @param method the HTTP method
+     * @param url the request URL
+     * @throws RateLimitExceededException if the permit is further away than the mode allows
+     */
+    public void acquire(String method, String url) {
+        long wait = reserve(method, url);
+        if (wait == 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a rate limit permit for " + method + " " + url, e);
+        }
+    }
+
+    /**
+     * Take the permits for a request only if they are available now, whatever the mode; for optional requests
+     * such as hedges, which are not worth waiting for
+     *
+     * @param method the HTTP method
+     * @param url the request URL
+     * @return true if the request may be sent now
+     */
+    public boolean tryAcquire(String method, String url) {
+        if (!isEnabled()) {
+            return true;
+        }
+        String endpoint = RouteTemplate.key(method, url);
+        Bucket route = routeBucket(method, endpoint);
+        long now = System.nanoTime();
+        if (global != null && global.reserve(now, 0L) < 0) {
+            return false;
+        }
+        if (route != null && route.reserve(now, 0L) < 0) {
+            if (global != null) {
+                global.release();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private Bucket routeBucket(String method, String endpoint) {
+        if (routes.isEmpty()) {
+            return null;
+        }
+        return routeBuckets.computeIfAbsent(endpoint, key -> {
+            String path = key.substring(key.indexOf(' ') + 1);
+            Route best = null;
+            for (Route route : routes) {
+                if (route.matches(method.toUpperCase(), path) && (best == null
+                        || route.path().length() > best.path().length()
+                        || (route.path().length() == best.path().length() && route.method() != null))) {
+                    best = route;
+                }
+            }
+            return Optional.ofNullable(best != null ? best.bucket() : null);
+        }).orElse(null);
+    }
+
+    private RateLimitExceededException reject(String endpoint, Bucket bucket, long now) {
+        LatencyMetrics.recordThrottleRejected(endpoint);
+        return new RateLimitExceededException(endpoint, bucket.name, TimeUnit.NANOSECONDS.toMillis(bucket.waitNanos(now)));
+    }
+
+    private static double parseRate(String value, String name) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("RateLimiter - Ignoring invalid rate for " + name + ": " + value);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import javax.net.ssl.SSLException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent readiness check for the gateway and the services behind it
+ * Every target is polled at the same time on the JDK HttpClient, each with its own schedule: the first
+ * round goes out immediately and later rounds back off from readiness.initialIntervalMs to
+ * readiness.maxIntervalMs, so a stack that is already up is confirmed in one round trip. A target is ready
+ * once all of its checks pass in the same round. Refused connections, timeouts and 5xx are expected while
+ * the stack starts and are polled through; errors that will not fix themselves (unknown host, TLS failure,
+ * a health endpoint answering 401/403/404) fail the whole probe at once.
+ *
+ * Supported system properties:
+ * - readiness.timeoutMs: give up on targets that are not ready after this long (default 60000)
+ * - readiness.initialIntervalMs: delay before the second round (default 50)
+ * - readiness.maxIntervalMs: longest delay between rounds (default 500)
+ * - readiness.requestTimeoutMs: timeout of a single probe request (default 2000)
+ */
+public final class ReadinessProbe {
+
+    private static final long TIMEOUT_MS = Long.getLong("readiness.timeoutMs", 60000L);
+    private static final long INITIAL_INTERVAL_MS = Long.getLong("readiness.initialIntervalMs", 50L);
+    private static final long MAX_INTERVAL_MS = Long.getLong("readiness.maxIntervalMs", 500L);
+    private static final long REQUEST_TIMEOUT_MS = Long.getLong("readiness.requestTimeoutMs", 2000L);
+
+    // Separate from AsyncRestApiUtils so probes stay out of latency metrics, circuit breakers and logs
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofMillis(REQUEST_TIMEOUT_MS))
+            .build();
+
+    private enum Outcome {
+        READY, NOT_YET, HARD_FAILURE
+    }
+
+    private record Verdict(Outcome outcome, String message) {
+    }
+
+    private interface Evaluator {
+        Verdict evaluate(HttpResponse<String> response);
+    }
+
+    private record Check(String method, String path, Evaluator evaluator) {
+    }
+
+    /**
+     * One service (or the gateway) and the checks it must pass
+     */
+    public static final class Target {
+        private final String name;
+        private final String baseUrl;
+        private final List<Check> checks = new ArrayList<>();
+
+        private Target(String name, String baseUrl) {
+            this.name = name;
+            this.baseUrl = baseUrl;
+        }
+
+        /**
+         * Require a GET to answer 200; 401, 403 and 404 are hard failures (wrong service or endpoint not exposed)
+         *
+         * @param path the path, e.g. "/actuator/health"
+         * @return this target
+         */
+        public Target expectOk(String path) {
+            checks.add(new Check("GET", path, response -> {
+                int status = response.statusCode();
+                if (status == 200) {
+                    return new Verdict(Outcome.READY, null);
+                }
+                Outcome outcome = status == 401 || status == 403 || status == 404 ? Outcome.HARD_FAILURE : Outcome.NOT_YET;
+                return new Verdict(outcome, "GET " + path + " returned " + status);
+            }));
+            return this;
+        }
+
+        /**
+         * Require the gateway's route list to contain every route id; missing routes are polled through,
+         * since the gateway loads them after it reports healthy
+         *
+         * @param path the route list path, e.g. "/actuator/gateway/routes"
+         * @param routeIds the route ids that must be present
+         * @return this target
+         */
+        public Target expectRoutes(String path, String... routeIds) {
+            checks.add(new Check("GET", path, response -> {
+                int status = response.statusCode();
+                if (status != 200) {
+                    Outcome outcome = status == 401 || status == 403 || status == 404 ? Outcome.HARD_FAILURE : Outcome.NOT_YET;
+                    return new Verdict(outcome, "GET " + path + " returned " + status);
+                }
+                List<String> missing = new ArrayList<>();
+                for (String routeId : routeIds) {
+                    if (!response.body().contains("\"" + routeId + "\"")) {
+                        missing.add(routeId);
+                    }
+                }
+                return missing.isEmpty() ? new Verdict(Outcome.READY, null)
+                        : new Verdict(Outcome.NOT_YET, "routes not loaded: " + missing);
+            }));
+            return this;
+        }
+
+        /**
+         * Require a request to reach the service: any answer except 405 (route not loaded) and 502/503/504
+         * (nothing behind the route yet). POSTs send an empty JSON object, which fails validation without
+         * creating anything; GETs should use a path that does not exist, e.g. "/api/orders/readiness-probe".
+         *
+         * @param method GET or POST
+         * @param path the path
+         * @return this target
+         */
+        public Target expectServed(String method, String path) {
+            checks.add(new Check(method, path, response -> {
+                int status = response.statusCode();
+                if (status == 405 || status == 502 || status == 503 || status == 504) {
+                    return new Verdict(Outcome.NOT_YET, method + " " + path + " returned " + status);
+                }
+                return new Verdict(Outcome.READY, null);
+            }));
+            return this;
+        }
+    }
+
+    /**
+     * Time-to-ready of one target
+     *
+     * @param name the target name
+     * @param ready true if every check passed before the timeout
+     * @param elapsedMillis time from the start of the probe until ready (or until giving up)
+     * @param rounds rounds of checks sent
+     * @param problem what was still failing when giving up, or null
+     */
+    public record TargetResult(String name, boolean ready, long elapsedMillis, int rounds, String problem) {
+    }
+
+    /**
+     * Outcome of await()
+     *
+     * @param elapsedMillis time until every target was ready or timed out
+     * @param targets per-target results, in the order the targets were added
+     */
+    public record Report(long elapsedMillis, List<TargetResult> targets) {
+
+        /**
+         * @return true if every target is ready
+         */
+        public boolean isReady() {
+            return targets.stream().allMatch(TargetResult::ready);
+        }
+
+        /**
+         * @return one header line plus one line per target
+         */
+        public String summary() {
+            StringBuilder sb = new StringBuilder(String.format("Readiness - %s after %d ms%n",
+                    isReady() ? "ready" : "NOT ready", elapsedMillis));
+            for (TargetResult target : targets) {
+                sb.append(String.format("  %-22s %-9s %6d ms (%d %s)%s%n", target.name(),
+                        target.ready() ? "ready" : "not ready", target.elapsedMillis(), target.rounds(),
+                        target.rounds() == 1 ? "round" : "rounds", target.problem() != null ? " " + target.problem() : ""));
+            }
+            return sb.toString();
+        }
+    }
+
+    private final List<Target> targets = new ArrayList<>();
+
+    /**
+     * Add a target to probe
+     *
+     * @param name the name used in the report, e.g. "order-service"
+     * @param baseUrl the base URL, e.g. "http://localhost:8082"
+     * @return the target, to add checks to
+     */
+    public Target target(String name, String baseUrl) {
+        Target target = new Target(name, baseUrl);
+        targets.add(target);
+        return target;
+    }
+
+    /**
+     * Probe every target concurrently until all are ready or readiness.timeoutMs has passed
+     *
+     * @return the per-target time-to-ready
+     * @throws IllegalStateException on the first hard failure
+     */
+    public Report await() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        List<CompletableFuture<TargetResult>> results = new ArrayList<>();
+        for (Target target : targets) {
+            CompletableFuture<TargetResult> result = new CompletableFuture<>();
+            // The first hard failure stops every other target's polling
+            result.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    failed.completeExceptionally(error);
+                }
+            });
+            round(target, 1, INITIAL_INTERVAL_MS, start, deadline, result, failed);
+            results.add(result);
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])), failed).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IllegalStateException ? (IllegalStateException) e.getCause()
+                    : new IllegalStateException("Readiness probe failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        List<TargetResult> report = new ArrayList<>();
+        for (CompletableFuture<TargetResult> result : results) {
+            report.add(result.join());
+        }
+        return new Report(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), report);
+    }
+
+    private static void round(Target target, int round, long intervalMs, long start, long deadline,
+                              CompletableFuture<TargetResult> result, CompletableFuture<Void> failed) {
+        if (failed.isDone()) {
+            return;
+        }
+        List<CompletableFuture<Verdict>> verdicts = new ArrayList<>();
+        for (Check check : target.checks) {
+            verdicts.add(run(target, check));
+        }
+        CompletableFuture.allOf(verdicts.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            String problem = null;
+            for (CompletableFuture<Verdict> future : verdicts) {
+                Verdict verdict = future.join();
+                if (verdict.outcome() == Outcome.HARD_FAILURE) {
+                    result.completeExceptionally(new IllegalStateException(
+                            "Readiness probe failed for " + target.name + ": " + verdict.message()));
+                    return;
+                }
+                if (verdict.outcome() == Outcome.NOT_YET && problem == null) {
+                    problem = verdict.message();
+                }
+            }
+            long now = System.nanoTime();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(now - start);
+            if (problem == null) {
+                result.complete(new TargetResult(target.name, true, elapsedMillis, round, null));
+            } else if (now + TimeUnit.MILLISECONDS.toNanos(intervalMs) >= deadline) {
+                result.complete(new TargetResult(target.name, false, elapsedMillis, round, problem));
+            } else {
+                CompletableFuture.delayedExecutor(intervalMs, TimeUnit.MILLISECONDS).execute(() -> round(target,
+                        round + 1, Math.min(MAX_INTERVAL_MS, intervalMs * 3 / 2), start, deadline, result, failed));
+            }
+        });
+    }
+
+    /**
+     * Send one check; never completes exceptionally, transport errors are mapped to a verdict
+     */
+    private static CompletableFuture<Verdict> run(Target target, Check check) {
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(URI.create(target.baseUrl + check.path()))
+                    .timeout(Duration.ofMillis(REQUEST_TIMEOUT_MS))
+                    .header("Accept", "*/*")
+                    .header("User-Agent", "curl/8.4.0");
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new Verdict(Outcome.HARD_FAILURE, "invalid URL: " + e.getMessage()));
+        }
+        if ("POST".equals(check.method())) {
+            builder.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString("{}"));
+        } else {
+            builder.GET();
+        }
+        return HTTP_CLIENT.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(check.evaluator()::evaluate)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    boolean hard = cause instanceof UnknownHostException || cause instanceof SSLException
+                            || cause.getCause() instanceof UnknownHostException;
+                    String message = check.method() + " " + check.path() + ": " + cause.getClass().getSimpleName()
+                            + (cause.getMessage() != null ? " " + cause.getMessage() : "");
+                    return new Verdict(hard ? Outcome.HARD_FAILURE : Outcome.NOT_YET, message);
+                });
+    }
+}
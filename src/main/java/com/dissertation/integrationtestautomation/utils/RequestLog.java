@@ -0,0 +1,340 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.filter.Filter;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Request/response logging for RestApiUtils and AsyncRestApiUtils
+ * In console mode (the default) requests are logged in full to stdout as before. In async mode request
+ * threads only capture a small summary and hand it to a bounded lock-free ring buffer; a background
+ * writer thread formats and writes the entries in batches, and sleeps while the buffer is empty until a
+ * request thread wakes it with the next entry. When the buffer is full entries are dropped
+ * and counted rather than blocking the request thread. Full request and response bodies are only kept
+ * for failures (status >= 400 or an exception), which are always logged regardless of sampling.
+ *
+ * Supported system properties:
+ * - rest.logging: console or async (default console)
+ * - rest.logging.sample: successful exchanges to log in async mode: all, errors, or N for 1-in-N (default all)
+ * - rest.logging.bufferSize: ring buffer capacity, rounded up to a power of two (default 8192)
+ * - rest.logging.file: write async log entries to this file instead of stdout
+ * - rest.logging.maxBodyChars: truncate logged bodies to this length (default 4000)
+ */
+public final class RequestLog {
+
+    private static final boolean ASYNC = "async".equalsIgnoreCase(System.getProperty("rest.logging", "console"));
+    private static final int SAMPLE_EVERY = parseSample(System.getProperty("rest.logging.sample", "all"));
+    private static final int BUFFER_SIZE = Integer.getInteger("rest.logging.bufferSize", 8192);
+    private static final String FILE = System.getProperty("rest.logging.file");
+    private static final int MAX_BODY_CHARS = Integer.getInteger("rest.logging.maxBodyChars", 4000);
+    // An idle writer is woken by the next enqueue; the timeout only bounds the cost of a missed wake-up
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long FLUSH_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final Sink SINK = ASYNC ? new Sink(BUFFER_SIZE, openOutput()) : null;
+    private static final LongAdder SAMPLED_OUT = new LongAdder();
+
+    /**
+     * RestAssured filter that logs each exchange through the ring buffer (async mode only)
+     */
+    public static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        long start = System.nanoTime();
+        return FilterOutcome.proceed(requestSpec, responseSpec, ctx, (response, error) -> {
+            int status = response != null ? response.getStatusCode() : -1;
+            record(requestSpec.getMethod(), requestSpec.getURI(), status, System.nanoTime() - start,
+                    requestSpec.getBody(), status >= 400 ? response.asString() : null, error);
+        });
+    };
+
+    /**
+     * One captured exchange or free-form message; formatted on the writer thread
+     */
+    static final class Entry {
+        private final long timestampMillis = System.currentTimeMillis();
+        private final String thread = Thread.currentThread().getName();
+        private final String method;
+        private final String uri;
+        private final int status;
+        private final long elapsedNanos;
+        private final Object requestBody;
+        private final String responseBody;
+        private final Throwable error;
+        private final String message;
+
+        private Entry(String method, String uri, int status, long elapsedNanos, Object requestBody,
+                      String responseBody, Throwable error, String message) {
+            this.method = method;
+            this.uri = uri;
+            this.status = status;
+            this.elapsedNanos = elapsedNanos;
+            this.requestBody = requestBody;
+            this.responseBody = responseBody;
+            this.error = error;
+            this.message = message;
+        }
+
+        /**
+         * @return an entry holding a free-form message
+         */
+        static Entry message(String message) {
+            return new Entry(null, null, 0, 0, null, null, null, message);
+        }
+
+        private void appendTo(StringBuilder out) {
+            out.append(Instant.ofEpochMilli(timestampMillis)).append(" [").append(thread).append("] ");
+            if (message != null) {
+                out.append(message).append('\n');
+                return;
+            }
+            out.append(method).append(' ').append(uri).append(" -> ")
+                    .append(status >= 0 ? Integer.toString(status) : "ERROR")
+                    .append(String.format(" (%.2f ms)", elapsedNanos / 1_000_000.0)).append('\n');
+            if (error != null) {
+                out.append("  error: ").append(error).append('\n');
+            }
+            if (requestBody != null) {
+                out.append("  request: ").append(truncate(String.valueOf(requestBody))).append('\n');
+            }
+            if (responseBody != null) {
+                out.append("  response: ").append(truncate(responseBody)).append('\n');
+            }
+        }
+    }
+
+    /**
+     * The ring buffer and the writer thread that drains it; the writer is started by the first entry
+     * Before parking, the writer announces that it is idle and checks the buffer once more, so an enqueue
+     * either lands before that check or sees the flag and unparks it: the writer only sleeps while the
+     * buffer is empty, and a request thread pays for a wake-up only on the empty to non-empty transition.
+     */
+    static final class Sink {
+        private final MpscRingBuffer<Entry> buffer;
+        private final Writer out;
+        private final LongAdder enqueued = new LongAdder();
+        private final LongAdder written = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final AtomicBoolean writerIdle = new AtomicBoolean();
+        private volatile Thread writer;
+
+        /**
+         * @param capacity ring buffer capacity, rounded up to a power of two
+         * @param out where the writer thread writes formatted entries
+         */
+        Sink(int capacity, Writer out) {
+            this.buffer = new MpscRingBuffer<>(capacity);
+            this.out = out;
+        }
+
+        void enqueue(Entry entry) {
+            startWriter();
+            enqueued.increment();
+            if (!buffer.offer(entry)) {
+                dropped.increment();
+                return;
+            }
+            if (writerIdle.get() && writerIdle.compareAndSet(true, false)) {
+                LockSupport.unpark(writer);
+            }
+        }
+
+        /**
+         * Wait up to the given time until every entry enqueued so far is written or dropped
+         */
+        void flush(long timeout, TimeUnit unit) {
+            Thread thread = writer;
+            if (thread == null) {
+                return;
+            }
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            long target = enqueued.sum();
+            while (written.sum() + dropped.sum() < target && System.nanoTime() - deadline < 0) {
+                LockSupport.unpark(thread);
+                LockSupport.parkNanos(FLUSH_POLL_NANOS);
+            }
+        }
+
+        long written() {
+            return written.sum();
+        }
+
+        long dropped() {
+            return dropped.sum();
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        private void startWriter() {
+            if (writer != null) {
+                return;
+            }
+            synchronized (this) {
+                if (writer == null) {
+                    Thread thread = new Thread(this::drainLoop, "request-log-writer");
+                    thread.setDaemon(true);
+                    writer = thread;
+                    thread.start();
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(2, TimeUnit.SECONDS),
+                            "request-log-shutdown"));
+                }
+            }
+        }
+
+        private void drainLoop() {
+            StringBuilder batch = new StringBuilder(8192);
+            while (true) {
+                int count = 0;
+                Entry entry;
+                while (count < 1024 && (entry = buffer.poll()) != null) {
+                    entry.appendTo(batch);
+                    count++;
+                }
+                if (count == 0) {
+                    writerIdle.set(true);
+                    if (buffer.isEmpty()) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    writerIdle.set(false);
+                    continue;
+                }
+                try {
+                    out.write(batch.toString());
+                    out.flush();
+                } catch (IOException e) {
+                    System.err.println("RequestLog - Failed to write log entries: " + e.getMessage());
+                }
+                batch.setLength(0);
+                written.add(count);
+            }
+        }
+    }
+
+    private RequestLog() {
+    }
+
+    /**
+     * @return true if rest.logging=async, i.e. requests go through the ring buffer instead of the console
+     */
+    public static boolean isAsync() {
+        return ASYNC;
+    }
+
+    /**
+     * @return true if requests and responses are logged in full to the console (the default)
+     */
+    public static boolean isConsole() {
+        return !ASYNC;
+    }
+
+    /**
+     * Log one exchange in async mode; a no-op in console mode
+     * Failures (status >= 400 or an error) are always logged with their bodies, successes are sampled
+     * and logged as a one-line summary.
+     *
+     * @param method the HTTP method
+     * @param uri the request URI
+     * @param status the response status, or -1 if the request failed without a response
+     * @param elapsedNanos time from sending the request to receiving the response
+     * @param requestBody the request body, only kept for failures; may be null
+     * @param responseBody the response body, only kept for failures; may be null
+     * @param error the exception that failed the request, or null
+     */
+    public static void record(String method, String uri, int status, long elapsedNanos, Object requestBody,
+                              String responseBody, Throwable error) {
+        if (!ASYNC) {
+            return;
+        }
+        boolean failure = error != null || status >= 400 || status < 0;
+        if (!failure && !sampled()) {
+            SAMPLED_OUT.increment();
+            return;
+        }
+        SINK.enqueue(new Entry(method, uri, status, elapsedNanos, failure ? requestBody : null,
+                failure ? responseBody : null, error, null));
+    }
+
+    /**
+     * Log a message that should always be visible, e.g. a retry; queued in async mode, printed otherwise
+     *
+     * @param message the message
+     */
+    public static void event(String message) {
+        if (ASYNC) {
+            SINK.enqueue(Entry.message(message));
+        } else {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Wait up to the given time for queued entries to be written
+     *
+     * @param timeout maximum wait
+     * @param unit unit of timeout
+     */
+    public static void flush(long timeout, TimeUnit unit) {
+        if (ASYNC) {
+            SINK.flush(timeout, unit);
+        }
+    }
+
+    /**
+     * @return one-line summary of async logging, or a note that console logging is active
+     */
+    public static String stats() {
+        if (!ASYNC) {
+            return "mode=console";
+        }
+        return "mode=async, written=" + SINK.written() + ", dropped=" + SINK.dropped()
+                + ", sampledOut=" + SAMPLED_OUT.sum() + ", capacity=" + SINK.capacity();
+    }
+
+    private static boolean sampled() {
+        if (SAMPLE_EVERY == 1) {
+            return true;
+        }
+        return SAMPLE_EVERY > 1 && ThreadLocalRandom.current().nextInt(SAMPLE_EVERY) == 0;
+    }
+
+    private static Writer openOutput() {
+        if (FILE != null && !FILE.isEmpty()) {
+            try {
+                return new OutputStreamWriter(new FileOutputStream(FILE, true), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("RequestLog - Cannot open " + FILE + ", logging to stdout: " + e.getMessage());
+            }
+        }
+        return new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+    }
+
+    private static String truncate(String body) {
+        return body.length() <= MAX_BODY_CHARS ? body
+                : body.substring(0, MAX_BODY_CHARS) + "... (" + body.length() + " chars)";
+    }
+
+    private static int parseSample(String value) {
+        String sample = value.trim().toLowerCase();
+        if (sample.equals("all")) {
+            return 1;
+        }
+        if (sample.equals("errors")) {
+            return 0;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(sample));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("rest.logging.sample must be all, errors or a number: " + value);
+        }
+    }
+}
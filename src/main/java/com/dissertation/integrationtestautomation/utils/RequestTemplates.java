@@ -0,0 +1,136 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import com.dissertation.integrationtestautomation.metrics.LatencyMetrics;
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.RedirectConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.log.RequestLoggingFilter;
+import io.restassured.filter.log.ResponseLoggingFilter;
+import io.restassured.http.ContentType;
+import io.restassured.http.Header;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request specifications for RestApiUtils, built once per verb
+ * This is where the client's header policy lives: every request looks like curl's (any content type accepted,
+ * curl's User-Agent, no cookies, redirects not followed) with a Connection header matching the transport. Each
+ * template also carries the transport config and the filters switched on by system properties, so a call only
+ * merges its template with given(template) and adds what varies: the Authorization header (see
+ * authorization), the body and optional wire logging. The templates are built on first use, after tests have
+ * configured RestAssured, and are shared between threads, so they must never be modified.
+ */
+public final class RequestTemplates {
+
+    public static final String ACCEPT = "*/*";
+    public static final String USER_AGENT = "curl/8.4.0";
+
+    private static final Map<String, Header> AUTHORIZATION = new ConcurrentHashMap<>();
+    private static final int AUTHORIZATION_CACHE_LIMIT = 10_000;
+
+    private static final List<Filter> WIRE_LOGGING = List.of(new RequestLoggingFilter(), new ResponseLoggingFilter());
+
+    private static final RequestSpecification GET = builder().build();
+    private static final RequestSpecification POST = builder().setContentType(ContentType.JSON).build();
+    private static final RequestSpecification PUT = builder().setContentType(ContentType.JSON).build();
+    private static final RequestSpecification DELETE = builder().build();
+
+    private RequestTemplates() {
+    }
+
+    /**
+     * @return the GET template
+     */
+    public static RequestSpecification get() {
+        return GET;
+    }
+
+    /**
+     * @return the POST template (JSON body)
+     */
+    public static RequestSpecification post() {
+        return POST;
+    }
+
+    /**
+     * @return the PUT template (JSON body)
+     */
+    public static RequestSpecification put() {
+        return PUT;
+    }
+
+    /**
+     * @return the DELETE template
+     */
+    public static RequestSpecification delete() {
+        return DELETE;
+    }
+
+    /**
+     * The Authorization header for a token, cached so a token used on many requests is only formatted once
+     *
+     * @param token the JWT token
+     * @return the "Authorization: Bearer token" header
+     */
+    public static Header authorization(String token) {
+        Header cached = AUTHORIZATION.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Header header = new Header("Authorization", "Bearer " + token);
+        if (AUTHORIZATION.size() < AUTHORIZATION_CACHE_LIMIT) {
+            AUTHORIZATION.put(token, header);
+        }
+        return header;
+    }
+
+    /**
+     * Filters that print the full request and response to stdout; stateless, so one pair is shared
+     *
+     * @return the request and response logging filters
+     */
+    public static List<Filter> wireLogging() {
+        return WIRE_LOGGING;
+    }
+
+    /**
+     * Common part of every template: transport config, filters and the curl-like headers
+     */
+    private static RequestSpecBuilder builder() {
+        RestAssuredConfig config = HttpConnectionPool.isEnabled()
+                ? HttpConnectionPool.getInstance().restAssuredConfig() : RestAssured.config();
+        RequestSpecBuilder builder = new RequestSpecBuilder()
+                .setConfig(config.redirect(RedirectConfig.redirectConfig().followRedirects(false)))
+                .setAccept(ACCEPT)
+                .addHeader("User-Agent", USER_AGENT)
+                .addHeader("Connection", HttpConnectionPool.isEnabled() ? "keep-alive" : "close");
+        // First, so that time spent waiting for a permit is not timed, logged or counted against a half-open breaker
+        if (RateLimiter.shared().isEnabled()) {
+            builder.addFilter(RateLimiter.FILTER);
+        }
+        if (CircuitBreaker.isEnabled()) {
+            builder.addFilter(CircuitBreaker.FILTER);
+        }
+        if (EndpointRegistry.shared().isTracking()) {
+            builder.addFilter(EndpointRegistry.FILTER);
+        }
+        if (LatencyMetrics.isEnabled()) {
+            builder.addFilter(LatencyMetrics.FILTER);
+        }
+        if (FlightRecorder.isEnabled()) {
+            builder.addFilter(FlightRecorder.FILTER);
+        }
+        if (TrafficCapture.isEnabled()) {
+            builder.addFilter(TrafficCapture.FILTER);
+        }
+        if (RequestLog.isAsync()) {
+            builder.addFilter(RequestLog.FILTER);
+        }
+        return builder;
+    }
+}
@@ -1,15 +1,20 @@
 package com.dissertation.integrationtestautomation.utils;
 
-import io.restassured.http.ContentType;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
 
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static io.restassured.RestAssured.given;
 
 /**
  * Utility class for REST API calls using RestAssured
  * Provides reusable methods for common HTTP operations
+ *
+ * Supported system properties:
+ * - rest.post.retryMax: attempts per POST on transient failures (default 3)
+ * - rest.post.retryDelayMs: delay between POST attempts (default 500)
  */
 public class RestApiUtils {
 
@@ -23,42 +28,105 @@ public class RestApiUtils {
         System.setProperty("httpclient.protocol.version", "HTTP/1.1");
     }
 
-    /** Max retries for POST when gateway returns 405 (Method Not Allowed) or 503 (Service Unavailable). */
-    private static final int POST_RETRY_MAX = 3;
+    /** Max attempts for POST when the gateway returns a transient status (405, 503, or 502/504 with idempotency keys). */
+    private static final int POST_RETRY_MAX = Math.max(1, Integer.getInteger("rest.post.retryMax", 3));
     /** Delay in ms between retries. */
-    private static final int POST_RETRY_DELAY_MS = 500;
+    private static final int POST_RETRY_DELAY_MS = Integer.getInteger("rest.post.retryDelayMs", 500);
+
+    /**
+     * Start a request specification from a RequestTemplates template, which carries the curl-like headers,
+     * the active transport and the filters: every request is timed into the per-endpoint latency histograms
+     * and kept in the FlightRecorder; with -Dcircuit.enabled=true requests to an endpoint whose breaker is open
+     * fail fast with CircuitOpenException; with replicated endpoints requests are tracked per EndpointRegistry
+     * instance; with a RateLimiter limit configured requests wait for their permit on the calling thread.
+     *
+     * @param template the verb's template
+     */
+    private static RequestSpecification newRequest(RequestSpecification template) {
+        return newRequest(template, false);
+    }
+
+    /**
+     * Start a request specification, optionally logging the full request and response.
+     * With console logging (the default) wire logging prints everything to stdout on the calling thread;
+     * with -Drest.logging=async every request is summarised through RequestLog instead.
+     *
+     * @param template the verb's template
+     * @param wireLog log headers and bodies in console mode
+     */
+    private static RequestSpecification newRequest(RequestSpecification template, boolean wireLog) {
+        RetryBudget.shared().recordRequest();
+        RequestSpecification spec = given(template);
+        if (wireLog && RequestLog.isConsole()) {
+            spec.filters(RequestTemplates.wireLogging());
+        }
+        return spec;
+    }
 
     /**
      * Perform a POST request with JSON body.
-     * Retries on 405 (Method Not Allowed) or 503 (Service Unavailable) to avoid transient gateway failures.
+     * Retries on 405 (Method Not Allowed) or 503 (Service Unavailable) to avoid transient gateway failures,
+     * as long as the shared RetryBudget allows it. Every attempt carries the same Idempotency-Key.
      *
      * @param endpoint the API endpoint
-     * @param requestBody the request body as Map
+     * @param requestBody the request body: a DTO record, a Map or a JSON string
      * @return Response object
      */
-    public static Response postRequest(String endpoint, Map<String, Object> requestBody) {
+    public static Response postRequest(String endpoint, Object requestBody) {
         // Match curl's exact request format
         // curl sends minimal headers: Host, User-Agent, Accept: */*, Content-Type: application/json
         // Key: curl doesn't send Origin, Referer, or other CORS-triggering headers
         // CRITICAL: Disable cookies to avoid CSRF token issues - curl doesn't send cookies
         // Cookies can trigger Spring Security CSRF checks even when CSRF is disabled
+        if (RequestLog.isConsole()) {
+            System.out.println("===========================================");
+            System.out.println("RestAssured POST Request Details:");
+            System.out.println("Endpoint: " + endpoint);
+            System.out.println("Request Body: " + requestBody);
+            System.out.println("===========================================");
+        }
+        return postWithRetry(endpoint, requestBody, null);
+    }
+
+    /**
+     * Perform a POST request with JSON body and Authorization header.
+     * Retried like postRequest, with the same Idempotency-Key on every attempt.
+     *
+     * @param endpoint the API endpoint
+     * @param requestBody the request body: a DTO record, a Map or a JSON string
+     * @param token the JWT token for authorization
+     * @return Response object
+     */
+    public static Response postRequestWithAuth(String endpoint, Object requestBody, String token) {
+        if (RequestLog.isConsole()) {
+            System.out.println("===========================================");
+            System.out.println("RestAssured POST Request with Auth Details:");
+            System.out.println("Endpoint: " + endpoint);
+            System.out.println("Request Body: " + requestBody);
+            System.out.println("Token: " + (token != null ? token.substring(0, Math.min(20, token.length())) + "..." : "null"));
+            System.out.println("===========================================");
+        }
+        return postWithRetry(endpoint, requestBody, token);
+    }
 
+    /**
+     * One logical POST: retried on transient statuses (see IdempotencyKeys.isRetryableStatus) and exceptions,
+     * up to rest.post.retryMax attempts and while the RetryBudget allows it
+     */
+    private static Response postWithRetry(String endpoint, Object requestBody, String token) {
+        IdempotencyKeys.Operation operation = IdempotencyKeys.begin(endpoint);
+        String json = JsonCodec.toJson(requestBody);
         Response lastResponse = null;
         int attempt = 0;
 
         while (attempt < POST_RETRY_MAX) {
             attempt++;
             if (attempt > 1) {
-                System.out.println("postRequest - Retry attempt " + attempt + "/" + POST_RETRY_MAX + " for " + endpoint);
+                RequestLog.event("postRequest - Retry attempt " + attempt + "/" + POST_RETRY_MAX + " for " + endpoint);
             }
-            System.out.println("===========================================");
-            System.out.println("RestAssured POST Request Details:");
-            System.out.println("Endpoint: " + endpoint);
-            System.out.println("Request Body: " + requestBody);
-            System.out.println("===========================================");
 
             try {
-                Response response = doPostRequest(endpoint, requestBody);
+                Response response = doPostRequest(endpoint, json, token, operation.attempt());
 
                 if (response == null) {
                     System.err.println("ERROR: Response is null from postRequest for endpoint: " + endpoint);
@@ -66,25 +134,37 @@ public class RestApiUtils {
                 }
 
                 int status = response.getStatusCode();
-                System.out.println("postRequest - Response Status: " + status +
-                        ", Body: " + (response.getBody() != null ? response.getBody().asString() : "null"));
+                if (RequestLog.isConsole()) {
+                    System.out.println("postRequest - Response Status: " + status +
+                            ", Body: " + BufferedResponse.of(response).asString());
+                }
 
-                // Retry on transient 405 or 503 (gateway route/circuit breaker issues under load)
-                if ((status == 405 || status == 503) && attempt < POST_RETRY_MAX) {
-                    System.out.println("postRequest - Transient " + status + ", retrying in " + POST_RETRY_DELAY_MS + "ms...");
+                // Retry on transient statuses (gateway route/circuit breaker issues under load),
+                // unless the shared retry budget is used up (e.g. every caller is retrying during an outage)
+                if (IdempotencyKeys.isRetryableStatus(status) && attempt < POST_RETRY_MAX) {
+                    if (!RetryBudget.shared().tryRetry()) {
+                        RequestLog.event("postRequest - Retry budget exhausted, returning " + status + " for " + endpoint);
+                        operation.complete(response);
+                        return response;
+                    }
+                    RequestLog.event("postRequest - Transient " + status + ", retrying in " + POST_RETRY_DELAY_MS + "ms...");
                     try {
                         Thread.sleep(POST_RETRY_DELAY_MS);
                     } catch (InterruptedException ie) {
                         Thread.currentThread().interrupt();
+                        operation.complete(response);
                         return response;
                     }
                     lastResponse = response;
                     continue;
                 }
 
+                operation.complete(response);
                 return response;
+            } catch (CircuitOpenException | RateLimitExceededException e) {
+                throw e;
             } catch (Exception e) {
-                if (attempt >= POST_RETRY_MAX) {
+                if (attempt >= POST_RETRY_MAX || !RetryBudget.shared().tryRetry()) {
                     System.err.println("ERROR: Exception in postRequest for endpoint: " + endpoint);
                     System.err.println("Exception type: " + e.getClass().getName());
                     System.err.println("Exception message: " + e.getMessage());
@@ -100,60 +180,30 @@ public class RestApiUtils {
             }
         }
 
-        return lastResponse != null ? lastResponse : doPostRequest(endpoint, requestBody);
-    }
-
-    /**
-     * Single POST attempt (no retry). Used by postRequest and postRequestWithAuth.
-     */
-    private static Response doPostRequest(String endpoint, Map<String, Object> requestBody) {
-        return given()
-                .log().all()
-                .cookies(new java.util.HashMap<>())
-                .contentType(ContentType.JSON)
-                .accept("*/*")
-                .header("User-Agent", "curl/8.4.0")
-                .header("Connection", "close")
-                .redirects().follow(false)
-                .body(requestBody)
-                .when()
-                .post(endpoint)
-                .then()
-                .log().all()
-                .extract()
-                .response();
+        Response response = lastResponse != null ? lastResponse : doPostRequest(endpoint, json, token, operation.attempt());
+        operation.complete(response);
+        return response;
     }
 
     /**
-     * Perform a POST request with JSON body and Authorization header
+     * Single POST attempt (no retry). Used by postWithRetry.
      *
-     * @param endpoint the API endpoint
-     * @param requestBody the request body as Map
-     * @param token the JWT token for authorization
-     * @return Response object
+     * @param token the JWT token, or null for no Authorization header
+     * @param idempotencyKey the operation's key, or null to send none
      */
-    public static Response postRequestWithAuth(String endpoint, Map<String, Object> requestBody, String token) {
-        System.out.println("===========================================");
-        System.out.println("RestAssured POST Request with Auth Details:");
-        System.out.println("Endpoint: " + endpoint);
-        System.out.println("Request Body: " + requestBody);
-        System.out.println("Token: " + (token != null ? token.substring(0, Math.min(20, token.length())) + "..." : "null"));
-        System.out.println("===========================================");
-        
-        return given()
-                .log().all()  // Log all request details including headers
-                .cookies(new java.util.HashMap<>())  // Clear any cookies
-                .contentType(ContentType.JSON)
-                .accept("*/*")  // Match curl's Accept: */*
-                .header("User-Agent", "curl/8.4.0")  // Match curl's User-Agent
-                .header("Connection", "close")  // Match curl's default connection behavior
-                .header("Authorization", "Bearer " + token)
-                .redirects().follow(false)  // curl doesn't follow redirects by default
-                .body(requestBody)
+    private static Response doPostRequest(String endpoint, String json, String token, String idempotencyKey) {
+        RequestSpecification spec = newRequest(RequestTemplates.post(), true);  // Log all request and response details including headers
+        if (token != null) {
+            spec.header(RequestTemplates.authorization(token));
+        }
+        if (idempotencyKey != null) {
+            spec.header(IdempotencyKeys.HEADER, idempotencyKey);
+        }
+        return spec
+                .body(json)
                 .when()
                 .post(endpoint)
                 .then()
-                .log().all()  // Log all response details including headers
                 .extract()
                 .response();
     }
@@ -165,7 +215,7 @@ public class RestApiUtils {
      * @return Response object
      */
     public static Response getRequest(String endpoint) {
-        return given()
+        return newRequest(RequestTemplates.get())
                 .when()
                 .get(endpoint)
                 .then()
@@ -185,35 +235,74 @@ public class RestApiUtils {
             throw new IllegalArgumentException("Token cannot be null or empty for authenticated request");
         }
         
-        return given()
-                .log().all()  // Log all request details
-                .cookies(new java.util.HashMap<>())  // Clear any cookies
-                .accept("*/*")
-                .header("User-Agent", "curl/8.4.0")
-                .header("Connection", "close")
-                .header("Authorization", "Bearer " + token)
-                .redirects().follow(false)
+        return newRequest(RequestTemplates.get(), true)  // Log all request and response details
+                .header(RequestTemplates.authorization(token))
                 .when()
                 .get(endpoint)
                 .then()
-                .log().all()  // Log all response details
                 .extract()
                 .response();
     }
 
+    /**
+     * Perform an idempotent unauthenticated GET, hedged when -Dhedge.enabled=true
+     * If no response has arrived after HedgePolicy's percentile-based delay a duplicate request is sent, the
+     * first response wins and the other is cancelled. RestAssured cannot abort a request in flight, so hedged
+     * calls go through the AsyncRestApiUtils transport; without hedging this is getRequest.
+     *
+     * @param endpoint the API endpoint
+     * @return Response object
+     */
+    public static Response getRequestHedged(String endpoint) {
+        if (!HedgePolicy.isEnabled()) {
+            return getRequest(endpoint);
+        }
+        return joinHedged(endpoint, AsyncRestApiUtils.getRequestHedgedAsync(endpoint));
+    }
+
+    /**
+     * Perform an idempotent GET with Authorization header, hedged when -Dhedge.enabled=true
+     * Without hedging this is getRequestWithAuth.
+     *
+     * @param endpoint the API endpoint
+     * @param token the JWT token for authorization
+     * @return Response object
+     * @throws IllegalArgumentException if the token is null or empty, whether or not hedging is enabled
+     */
+    public static Response getRequestHedged(String endpoint, String token) {
+        if (token == null || token.trim().isEmpty()) {
+            throw new IllegalArgumentException("Token cannot be null or empty for authenticated request");
+        }
+        if (!HedgePolicy.isEnabled()) {
+            return getRequestWithAuth(endpoint, token);
+        }
+        return joinHedged(endpoint, AsyncRestApiUtils.getRequestHedgedAsync(endpoint, token));
+    }
+
+    private static Response joinHedged(String endpoint, CompletableFuture<Response> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Failed to execute GET request to " + endpoint + ": " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+
     /**
      * Perform a PUT request with JSON body and Authorization header
      *
      * @param endpoint the API endpoint
-     * @param requestBody the request body as Map
+     * @param requestBody the request body: a DTO record, a Map or a JSON string
      * @param token the JWT token for authorization
      * @return Response object
      */
-    public static Response putRequestWithAuth(String endpoint, Map<String, Object> requestBody, String token) {
-        return given()
-                .header("Authorization", "Bearer " + token)
-                .contentType(ContentType.JSON)
-                .body(requestBody)
+    public static Response putRequestWithAuth(String endpoint, Object requestBody, String token) {
+        return newRequest(RequestTemplates.put())
+                .header(RequestTemplates.authorization(token))
+                .body(JsonCodec.toJson(requestBody))
                 .when()
                 .put(endpoint)
                 .then()
@@ -229,8 +318,8 @@ public class RestApiUtils {
      * @return Response object
      */
     public static Response deleteRequestWithAuth(String endpoint, String token) {
-        return given()
-                .header("Authorization", "Bearer " + token)
+        return newRequest(RequestTemplates.delete())
+                .header(RequestTemplates.authorization(token))
                 .when()
                 .delete(endpoint)
                 .then()
@@ -0,0 +1,120 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global cap on retries as a fraction of traffic, shared by every retry loop in the client
+ * Each request sent deposits retry.budget.ratio of a token and each retry withdraws a whole one, so
+ * retries can never exceed that fraction of recent traffic however many callers hit a failing service at
+ * once. A small per-second allowance keeps retries possible when there is little traffic. The balance is
+ * capped so a long quiet period cannot save up a burst of retries.
+ *
+ * Supported system properties:
+ * - retry.budget.enabled: enforce the budget (default true)
+ * - retry.budget.ratio: retries allowed per request sent (default 0.2)
+ * - retry.budget.minPerSecond: retries always allowed per second (default 5)
+ * - retry.budget.maxTokens: largest retry balance that can build up (default 100)
+ */
+public final class RetryBudget {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("retry.budget.enabled", "true"));
+    private static final double RATIO = Double.parseDouble(System.getProperty("retry.budget.ratio", "0.2"));
+    private static final double MIN_PER_SECOND = Double.parseDouble(System.getProperty("retry.budget.minPerSecond", "5"));
+    private static final double MAX_TOKENS = Double.parseDouble(System.getProperty("retry.budget.maxTokens", "100"));
+
+    /** Balance is kept in thousandths of a token so it fits in an AtomicLong */
+    private static final long SCALE = 1000;
+
+    private static final RetryBudget SHARED = new RetryBudget(RATIO, MIN_PER_SECOND, MAX_TOKENS);
+
+    private final long depositPerRequest;
+    private final double refillPerNano;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong lastRefillNanos = new AtomicLong(System.nanoTime());
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+
+    /**
+     * @param ratio retries allowed per request sent
+     * @param minPerSecond retries always allowed per second
+     * @param maxTokens largest retry balance that can build up
+     */
+    public RetryBudget(double ratio, double minPerSecond, double maxTokens) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.refillPerNano = minPerSecond * SCALE / 1_000_000_000.0;
+        this.maxBalance = Math.round(maxTokens * SCALE);
+        this.balance = new AtomicLong(Math.min(maxBalance, Math.round(minPerSecond * SCALE)));
+    }
+
+    /**
+     * The budget shared by RestApiUtils and AsyncRestApiUtils
+     *
+     * @return the shared budget
+     */
+    public static RetryBudget shared() {
+        return SHARED;
+    }
+
+    /**
+     * Count a request that was sent (first attempts and retries alike)
+     */
+    public void recordRequest() {
+        requests.increment();
+        deposit(depositPerRequest);
+    }
+
+    /**
+     * Ask to retry a failed request
+     *
+     * @return true if the retry may go ahead (a token was withdrawn); always true when the budget is disabled
+     */
+    public boolean tryRetry() {
+        if (!ENABLED) {
+            retries.increment();
+            return true;
+        }
+        refill();
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                denied.increment();
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                retries.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return true once any retry has been asked for
+     */
+    public boolean wasUsed() {
+        return retries.sum() + denied.sum() > 0;
+    }
+
+    /**
+     * @return one-line summary of requests, retries granted and retries denied
+     */
+    public String stats() {
+        return "requests=" + requests.sum() + ", retries=" + retries.sum() + ", denied=" + denied.sum()
+                + ", balance=" + String.format("%.1f", balance.get() / (double) SCALE);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long last = lastRefillNanos.get();
+        long tokens = (long) ((now - last) * refillPerNano);
+        if (tokens > 0 && lastRefillNanos.compareAndSet(last, now)) {
+            deposit(tokens);
+        }
+    }
+
+    private void deposit(long amount) {
+        balance.accumulateAndGet(amount, (current, add) -> Math.min(maxBalance, current + add));
+    }
+}
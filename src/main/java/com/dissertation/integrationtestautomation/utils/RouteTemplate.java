@@ -0,0 +1,88 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps concrete request URLs to route templates, e.g.
+ * GET http://localhost:8080/api/payments/order/ORD-42 -> "GET /api/payments/order/{n}"
+ * Used to key per-endpoint metrics and policies without one entry per order number or username.
+ */
+public final class RouteTemplate {
+
+    /** Path segments whose following segment is always a variable (username, order number). */
+    private static final Set<String> VARIABLE_PARENTS = Set.of("user", "order");
+
+    private static final String PLACEHOLDER = "{n}";
+
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+    private static final int CACHE_LIMIT = 10_000;
+
+    private RouteTemplate() {
+    }
+
+    /**
+     * Build the endpoint key "METHOD /route/template"
+     *
+     * @param method the HTTP method
+     * @param url the request URL or path
+     * @return the endpoint key
+     */
+    public static String key(String method, String url) {
+        return method.toUpperCase() + " " + path(url);
+    }
+
+    /**
+     * Templated path of a URL; query strings are dropped and variable segments replaced by {n}.
+     * A segment is variable if it follows "user" or "order", or contains a digit.
+     *
+     * @param url the request URL or path
+     * @return the templated path
+     */
+    public static String path(String url) {
+        String cached = CACHE.get(url);
+        if (cached != null) {
+            return cached;
+        }
+        String rawPath;
+        try {
+            rawPath = URI.create(url).getRawPath();
+        } catch (IllegalArgumentException e) {
+            rawPath = url;
+        }
+        if (rawPath == null || rawPath.isEmpty()) {
+            rawPath = "/";
+        }
+
+        StringBuilder template = new StringBuilder();
+        String previous = "";
+        for (String segment : rawPath.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/');
+            if (VARIABLE_PARENTS.contains(previous) || containsDigit(segment)) {
+                template.append(PLACEHOLDER);
+            } else {
+                template.append(segment);
+            }
+            previous = segment;
+        }
+        String result = template.length() == 0 ? "/" : template.toString();
+        if (CACHE.size() < CACHE_LIMIT) {
+            CACHE.put(url, result);
+        }
+        return result;
+    }
+
+    private static boolean containsDigit(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isDigit(segment.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
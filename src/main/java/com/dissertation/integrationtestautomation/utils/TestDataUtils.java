@@ -2,7 +2,9 @@ package com.dissertation.integrationtestautomation.utils;
 
 import io.restassured.response.Response;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -10,17 +12,27 @@ import java.util.Map;
  */
 public class TestDataUtils {
 
+    private static final ThreadLocal<List<UserPool.Lease>> LEASED_USERS = ThreadLocal.withInitial(ArrayList::new);
+
     /**
      * Register a user and return the JWT token
      * If registration fails (e.g., user already exists), attempts to login instead
+     * A still-valid token from the TokenCache is returned without any call (disable with -Dtoken.cache.enabled=false)
      *
      * @param username the username
      * @param email the email address
      * @return JWT token or null if both registration and login fail
      */
     public static String registerAndGetToken(String username, String email) {
+        if (TokenCache.isEnabled()) {
+            String cached = TokenCache.shared().peek(username);
+            if (cached != null) {
+                System.out.println("registerAndGetToken - Reusing cached token for " + username);
+                return cached;
+            }
+        }
         try {
-            Response response = ApiClient.registerUser(username, email, "password123", "USER");
+            BufferedResponse response = BufferedResponse.of(ApiClient.registerUser(username, email, "password123", "USER"));
             
             if (response == null) {
                 System.err.println("ERROR: Registration response is null. Check network connectivity and user service availability.");
@@ -28,16 +40,17 @@ public class TestDataUtils {
             }
             
             int statusCode = response.getStatusCode();
-            String responseBody = response.getBody() != null ? response.getBody().asString() : "null";
+            String responseBody = response.asString();
             
             System.out.println("registerAndGetToken - Registration Status: " + statusCode + ", Body: " + responseBody);
             System.out.println("registerAndGetToken - Response Headers: " + response.getHeaders());
             
             if (statusCode == 200) {
                 try {
-                    String token = response.jsonPath().get("token");
+                    String token = response.field("token");
                     if (token != null && !token.trim().isEmpty()) {
                         System.out.println("registerAndGetToken - Token extracted successfully");
+                        TokenCache.shared().put(username, "password123", token);
                         return token;
                     } else {
                         System.err.println("ERROR: Token is null or empty in registration response. Full response: " + responseBody);
@@ -51,7 +64,7 @@ public class TestDataUtils {
                 System.out.println("Registration failed with status: " + statusCode + ". Attempting login...");
                 // Try to login if registration failed (user might already exist)
                 try {
-                    Response loginResponse = ApiClient.loginUser(username, "password123");
+                    BufferedResponse loginResponse = BufferedResponse.of(ApiClient.loginUser(username, "password123"));
                     
                     if (loginResponse == null) {
                         System.err.println("ERROR: Login response is null. Check network connectivity and user service availability.");
@@ -59,15 +72,16 @@ public class TestDataUtils {
                     }
                     
                     int loginStatusCode = loginResponse.getStatusCode();
-                    String loginResponseBody = loginResponse.getBody() != null ? loginResponse.getBody().asString() : "null";
+                    String loginResponseBody = loginResponse.asString();
                     
                     System.out.println("registerAndGetToken - Login Status: " + loginStatusCode + ", Body: " + loginResponseBody);
                     
                     if (loginStatusCode == 200) {
                         try {
-                            String token = loginResponse.jsonPath().get("token");
+                            String token = loginResponse.field("token");
                             if (token != null && !token.trim().isEmpty()) {
                                 System.out.println("Login successful, token obtained");
+                                TokenCache.shared().put(username, "password123", token);
                                 return token;
                             } else {
                                 System.err.println("ERROR: Token is null or empty in login response. Full response: " + loginResponseBody);
@@ -105,7 +119,7 @@ public class TestDataUtils {
         Response response = ApiClient.registerUser(username, email, password, "USER");
         
         if (response.getStatusCode() == 200) {
-            return response.jsonPath().get("token");
+            return BufferedResponse.of(response).field("token");
         }
         return null;
     }
@@ -127,10 +141,10 @@ public class TestDataUtils {
             return null;
         }
         
-        Response response = ApiClient.createOrder(username, productName, quantity, unitPrice, token);
+        BufferedResponse response = BufferedResponse.of(ApiClient.createOrder(username, productName, quantity, unitPrice, token));
         
         int statusCode = response.getStatusCode();
-        String responseBody = response.getBody().asString();
+        String responseBody = response.asString();
         
         System.out.println("createOrderAndGetOrderNumber - Status: " + statusCode + ", Body: " + responseBody);
         
@@ -141,7 +155,7 @@ public class TestDataUtils {
             }
             
             try {
-                String orderNumber = response.jsonPath().get("orderNumber");
+                String orderNumber = response.field("orderNumber");
                 if (orderNumber == null || orderNumber.trim().isEmpty()) {
                     System.err.println("ERROR: orderNumber is null or empty in response. Full response: " + responseBody);
                     return null;
@@ -258,5 +272,34 @@ public class TestDataUtils {
         
         return username;
     }
-}
 
+    /**
+     * Get a registered user with a token for a test
+     * With -Duserpool.size=N the user is leased from the pre-provisioned UserPool (no register/login round trip);
+     * otherwise a new user is registered as registerAndGetToken does. Leases are returned by releaseLeasedUsers().
+     *
+     * @param prefix the username prefix used when registering a new user
+     * @return the lease; getToken() is null if registration and login failed
+     */
+    public static UserPool.Lease leaseUser(String prefix) {
+        if (UserPool.isEnabled()) {
+            UserPool.Lease lease = UserPool.shared().lease();
+            LEASED_USERS.get().add(lease);
+            return lease;
+        }
+        String username = generateValidUsername(prefix);
+        String email = username + "@example.com";
+        return UserPool.unpooled(username, email, "password123", registerAndGetToken(username, email));
+    }
+
+    /**
+     * Return every user leased by the current thread to the pool
+     */
+    public static void releaseLeasedUsers() {
+        List<UserPool.Lease> leases = LEASED_USERS.get();
+        for (UserPool.Lease lease : leases) {
+            lease.close();
+        }
+        leases.clear();
+    }
+}
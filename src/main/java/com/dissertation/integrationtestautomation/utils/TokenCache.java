@@ -0,0 +1,338 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import com.dissertation.integrationtestautomation.model.AuthResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.restassured.response.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent JWT cache keyed by username
+ * Expiry is read from the token's exp claim locally (no network call). Tokens are refreshed in the
+ * background before they expire, with jitter so a large population does not log in at the same moment,
+ * and concurrent requests for the same user share a single in-flight login. Background refreshes bypass the
+ * client instrumentation (ApiClient.refreshLoginAsync), so they do not show up in the metrics of a run.
+ * Only users asked for a token recently are refreshed: the others are dropped, as are the least recently
+ * used users once the cache holds more than token.cache.maxEntries.
+ *
+ * Supported system properties:
+ * - token.cache.enabled: cache tokens and refresh them in the background (default true)
+ * - token.cache.refreshAheadMs: refresh tokens this long before exp (default 60000); a random extra of up
+ *   to half this window is added per token to spread refreshes out
+ * - token.cache.refreshIntervalMs: how often the background refresher scans the cache (default 5000)
+ * - token.cache.maxConcurrentRefreshes: background logins in flight at once (default 32)
+ * - token.cache.defaultTtlMs: lifetime assumed for tokens without an exp claim (default 900000)
+ * - token.cache.idleExpiryMs: drop users whose token has not been asked for in this long (default 600000)
+ * - token.cache.maxEntries: users kept, checked on each refresher scan (default 10000)
+ */
+public final class TokenCache {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("token.cache.enabled", "true"));
+    private static final long REFRESH_AHEAD_MS = Long.getLong("token.cache.refreshAheadMs", 60000L);
+    private static final long REFRESH_INTERVAL_MS = Long.getLong("token.cache.refreshIntervalMs", 5000L);
+    private static final int MAX_CONCURRENT_REFRESHES = Integer.getInteger("token.cache.maxConcurrentRefreshes", 32);
+    private static final long DEFAULT_TTL_MS = Long.getLong("token.cache.defaultTtlMs", TimeUnit.MINUTES.toMillis(15));
+    private static final long IDLE_EXPIRY_MS = Long.getLong("token.cache.idleExpiryMs", TimeUnit.MINUTES.toMillis(10));
+    private static final int MAX_ENTRIES = Math.max(1, Integer.getInteger("token.cache.maxEntries", 10000));
+
+    private static final TokenCache SHARED = new TokenCache();
+
+    /**
+     * Cached token state for one user
+     */
+    private static final class Entry {
+        private final String password;
+        private volatile String token;
+        private volatile long expiresAtMillis;
+        private volatile long refreshAtMillis;
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+        private final AtomicReference<CompletableFuture<String>> inFlight = new AtomicReference<>();
+
+        private Entry(String password) {
+            this.password = password;
+        }
+
+        private void update(String newToken) {
+            long now = System.currentTimeMillis();
+            long expiry = decodeExpiryMillis(newToken);
+            long expiresAt = expiry > 0 ? expiry : now + DEFAULT_TTL_MS;
+            long jitter = REFRESH_AHEAD_MS > 1 ? ThreadLocalRandom.current().nextLong(REFRESH_AHEAD_MS / 2 + 1) : 0;
+            this.expiresAtMillis = expiresAt;
+            this.refreshAtMillis = Math.max(now, expiresAt - REFRESH_AHEAD_MS - jitter);
+            this.token = newToken;
+        }
+
+        private boolean isValid(long now) {
+            return token != null && now < expiresAtMillis;
+        }
+
+        private boolean needsRefresh(long now) {
+            return token != null && now >= refreshAtMillis;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Semaphore refreshPermits = new Semaphore(MAX_CONCURRENT_REFRESHES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder logins = new LongAdder();
+    private final LongAdder joinedLogins = new LongAdder();
+    private final LongAdder backgroundRefreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile ScheduledExecutorService refresher;
+
+    /**
+     * The cache shared by tests and load tools
+     *
+     * @return the shared cache
+     */
+    public static TokenCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return true if tokens are cached (token.cache.enabled)
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Store a token obtained elsewhere (e.g. from a registration response); a no-op if the cache is disabled
+     *
+     * @param username the username
+     * @param password the password used to refresh the token
+     * @param token the JWT token
+     */
+    public void put(String username, String password, String token) {
+        if (!ENABLED || username == null || token == null) {
+            return;
+        }
+        Entry entry = entries.compute(username, (key, existing) ->
+                existing != null && Objects.equals(password, existing.password) ? existing : new Entry(password));
+        entry.update(token);
+        entry.lastUsedMillis = System.currentTimeMillis();
+        startRefresher();
+    }
+
+    /**
+     * Cached token for a user if it has not expired, without logging in
+     *
+     * @param username the username
+     * @return the token, or null if none is cached or it has expired
+     */
+    public String peek(String username) {
+        Entry entry = entries.get(username);
+        long now = System.currentTimeMillis();
+        if (entry == null || !entry.isValid(now)) {
+            return null;
+        }
+        entry.lastUsedMillis = now;
+        return entry.token;
+    }
+
+    /**
+     * Token for a user: the cached one while valid, otherwise a login shared with any concurrent callers
+     *
+     * @param username the username
+     * @param password the password
+     * @return future completing with the token
+     */
+    public CompletableFuture<String> getTokenAsync(String username, String password) {
+        Entry entry = entries.computeIfAbsent(username, key -> new Entry(password));
+        long now = System.currentTimeMillis();
+        entry.lastUsedMillis = now;
+        if (entry.isValid(now)) {
+            hits.increment();
+            if (entry.needsRefresh(now)) {
+                refreshInBackground(username, entry);
+            }
+            return CompletableFuture.completedFuture(entry.token);
+        }
+        startRefresher();
+        return login(username, entry, false);
+    }
+
+    /**
+     * Blocking variant of getTokenAsync
+     *
+     * @param username the username
+     * @param password the password
+     * @return the token, or null if the login failed
+     */
+    public String getToken(String username, String password) {
+        try {
+            return getTokenAsync(username, password).join();
+        } catch (CompletionException e) {
+            System.err.println("TokenCache - Could not get token for " + username + ": " + e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Drop a user's token, e.g. after the service rejected it with 401
+     *
+     * @param username the username
+     */
+    public void invalidate(String username) {
+        Entry entry = entries.get(username);
+        if (entry != null) {
+            entry.token = null;
+        }
+    }
+
+    /**
+     * @return number of users in the cache
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return one-line summary of cache usage
+     */
+    public String stats() {
+        return "users=" + entries.size() + ", hits=" + hits.sum() + ", logins=" + logins.sum()
+                + ", joinedLogins=" + joinedLogins.sum() + ", backgroundRefreshes=" + backgroundRefreshes.sum()
+                + ", evictions=" + evictions.sum();
+    }
+
+    /**
+     * Single-flight login: the first caller starts it, everyone else joins the same future
+     *
+     * @param background true for a refresh nobody is waiting for, which is sent without instrumentation
+     */
+    private CompletableFuture<String> login(String username, Entry entry, boolean background) {
+        while (true) {
+            CompletableFuture<String> current = entry.inFlight.get();
+            if (current != null) {
+                joinedLogins.increment();
+                return current;
+            }
+            CompletableFuture<String> mine = new CompletableFuture<>();
+            if (entry.inFlight.compareAndSet(null, mine)) {
+                logins.increment();
+                CompletableFuture<Response> response = background
+                        ? ApiClient.refreshLoginAsync(username, entry.password)
+                        : ApiClient.loginUserAsync(username, entry.password);
+                response.whenComplete((result, error) -> {
+                    String token = error == null ? tokenFrom(result) : null;
+                    if (token != null) {
+                        entry.update(token);
+                    }
+                    entry.inFlight.set(null);
+                    if (token != null) {
+                        mine.complete(token);
+                    } else {
+                        mine.completeExceptionally(error != null ? error : new IllegalStateException(
+                                "Login for " + username + " failed with status " + result.getStatusCode()));
+                    }
+                });
+                return mine;
+            }
+        }
+    }
+
+    private void refreshInBackground(String username, Entry entry) {
+        if (!ENABLED || entry.inFlight.get() != null || !refreshPermits.tryAcquire()) {
+            return;
+        }
+        backgroundRefreshes.increment();
+        login(username, entry, true).whenComplete((token, error) -> refreshPermits.release());
+    }
+
+    private void refreshDue() {
+        long now = System.currentTimeMillis();
+        entries.forEach((username, entry) -> {
+            if (now - entry.lastUsedMillis >= IDLE_EXPIRY_MS) {
+                if (entry.inFlight.get() == null && entries.remove(username, entry)) {
+                    evictions.increment();
+                }
+            } else if (entry.needsRefresh(now)) {
+                refreshInBackground(username, entry);
+            }
+        });
+        int excess = entries.size() - MAX_ENTRIES;
+        if (excess > 0) {
+            List<Map.Entry<String, Entry>> byLastUse = new ArrayList<>(entries.entrySet());
+            byLastUse.sort(Comparator.comparingLong(e -> e.getValue().lastUsedMillis));
+            for (int i = 0; i < excess && i < byLastUse.size(); i++) {
+                if (entries.remove(byLastUse.get(i).getKey(), byLastUse.get(i).getValue())) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private void startRefresher() {
+        if (!ENABLED || refresher != null) {
+            return;
+        }
+        synchronized (this) {
+            if (refresher == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "token-cache-refresher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                executor.scheduleWithFixedDelay(this::refreshDue,
+                        REFRESH_INTERVAL_MS, REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                refresher = executor;
+            }
+        }
+    }
+
+    /**
+     * @return the token from a 200 register/login response, or null
+     */
+    static String tokenFrom(Response response) {
+        if (response == null || response.getStatusCode() != 200) {
+            return null;
+        }
+        try {
+            AuthResponse auth = JsonCodec.read(response, AuthResponse.class);
+            String token = auth != null ? auth.token() : null;
+            return token == null || token.trim().isEmpty() ? null : token;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the exp claim of a JWT without verifying it
+     *
+     * @param token the JWT
+     * @return expiry in epoch milliseconds, or -1 if the token has no readable exp claim
+     */
+    public static long decodeExpiryMillis(String token) {
+        if (token == null) {
+            return -1L;
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            return -1L;
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            JsonNode exp = JsonCodec.mapper().readTree(new String(payload, StandardCharsets.UTF_8)).get("exp");
+            return exp != null && exp.canConvertToLong() ? TimeUnit.SECONDS.toMillis(exp.asLong()) : -1L;
+        } catch (Exception e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,686 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.filter.Filter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Records every HTTP exchange of a run to a compact binary log, for inspecting or reproducing it afterwards
+ * Exchanges made through RestApiUtils (FILTER) and AsyncRestApiUtils are appended to memory-mapped segment
+ * files: the request thread encodes its exchange into byte arrays, then holds the lock only to copy them into
+ * the mapping, so recording costs no system call per exchange. Exchanges are numbered in the order they
+ * complete, which is the order they are written in. Each data segment (capture-RUN-NNNNN.bin) has an index
+ * (.idx) of fixed-width entries, so Segment can seek by completion time or sequence number with a binary search
+ * instead of scanning. A segment is closed and the next one started when either file is full; only the newest
+ * capture.maxSegments segments of the run are kept.
+ *
+ * Both files keep their full mapped size: a file cannot be truncated while it is mapped on every platform, and
+ * the JDK only unmaps a buffer once it is garbage collected. Instead each header holds how much of the file is
+ * committed. The writer updates it with a release store after the record (data) or entry (index) it covers, the
+ * data length before the index count, and Segment reads only the committed part. A segment that is still being
+ * written can therefore be opened safely and shows the exchanges committed at that moment.
+ *
+ * Data segment: header (int "TCAP", int version, int segment number, int committed length in bytes, long created
+ * epoch ms), then records: int length, long sequence, long start (epoch us), long duration (ns), int status (-1
+ * for an error), byte flags (1 request body truncated, 2 response body truncated), method, route template, URL,
+ * request headers, request body, response headers, response body, error. Strings and bodies are an int length
+ * plus UTF-8 bytes; headers are an int count plus name/value strings.
+ * Index: header (int "TIDX", version, segment number, int committed entries, created), then per record long
+ * sequence, long completion (epoch us, never decreasing), long offset in the data segment, int record length,
+ * int status. All values are big-endian.
+ *
+ * Supported system properties:
+ * - capture.enabled: record exchanges (default false)
+ * - capture.dir: directory for the segment files (default target/traffic)
+ * - capture.segmentMb: size of one data segment (default 64)
+ * - capture.maxSegments: segments kept per run; older ones are deleted (default 10)
+ * - capture.maxBodyBytes: truncate recorded bodies to this many bytes (default 65536)
+ * - capture.redactAuthorization: shorten Authorization headers as FlightRecorder does (default true)
+ */
+public final class TrafficCapture {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("capture.enabled", "false"));
+    private static final String DIR = System.getProperty("capture.dir", "target/traffic");
+    private static final int SEGMENT_BYTES = (int) Math.min(Integer.MAX_VALUE - 8L,
+            Math.max(1L, Long.getLong("capture.segmentMb", 64L)) * 1024 * 1024);
+    private static final int MAX_SEGMENTS = Math.max(1, Integer.getInteger("capture.maxSegments", 10));
+    private static final int MAX_BODY_BYTES = Math.max(0, Integer.getInteger("capture.maxBodyBytes", 65536));
+    private static final boolean REDACT = Boolean.parseBoolean(System.getProperty("capture.redactAuthorization", "true"));
+
+    private static final int DATA_MAGIC = 0x54434150;   // "TCAP"
+    private static final int INDEX_MAGIC = 0x54494458;  // "TIDX"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+    // Header field holding the committed data length (data segment) or entry count (index)
+    private static final int COMMITTED_OFFSET = 12;
+    private static final int INDEX_ENTRY_BYTES = 32;
+    // Release/acquire access to the committed field of a mapped header
+    private static final VarHandle COMMITTED = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final byte REQUEST_BODY_TRUNCATED = 1;
+    private static final byte RESPONSE_BODY_TRUNCATED = 2;
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final Writer WRITER = ENABLED ? new Writer(Paths.get(DIR), SEGMENT_BYTES, MAX_SEGMENTS) : null;
+
+    /**
+     * RestAssured filter that records each exchange
+     */
+    public static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+        long startMicros = nowMicros();
+        long start = System.nanoTime();
+        return FilterOutcome.proceed(requestSpec, responseSpec, ctx, (response, error) ->
+                record(requestSpec.getMethod(), requestSpec.getURI(), requestSpec.getHeaders(), requestSpec.getBody(),
+                        response, error, startMicros, System.nanoTime() - start));
+    };
+
+    /**
+     * One recorded exchange, as read back by Segment
+     *
+     * @param sequence position of the exchange in the run by completion, from 1
+     * @param startEpochMicros when the request was sent
+     * @param durationNanos time until the response (or error) arrived
+     * @param status the response status, or -1 if the request failed
+     * @param method the HTTP method
+     * @param route the route template, e.g. "/api/orders/{n}"
+     * @param url the request URL
+     * @param requestHeaders the request headers, in order
+     * @param requestBody the request body, possibly truncated
+     * @param requestBodyTruncated true if the request body was longer than capture.maxBodyBytes
+     * @param responseHeaders the response headers, in order
+     * @param responseBody the response body, possibly truncated
+     * @param responseBodyTruncated true if the response body was longer than capture.maxBodyBytes
+     * @param error the failure, or null
+     */
+    public record Exchange(long sequence, long startEpochMicros, long durationNanos, int status, String method,
+                           String route, String url, Map<String, List<String>> requestHeaders, byte[] requestBody,
+                           boolean requestBodyTruncated, Map<String, List<String>> responseHeaders,
+                           byte[] responseBody, boolean responseBodyTruncated, String error) {
+
+        /**
+         * @return the request body as UTF-8 text
+         */
+        public String requestBodyText() {
+            return new String(requestBody, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return the response body as UTF-8 text
+         */
+        public String responseBodyText() {
+            return new String(responseBody, StandardCharsets.UTF_8);
+        }
+    }
+
+    private TrafficCapture() {
+    }
+
+    /**
+     * @return true if -Dcapture.enabled=true
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return the current time in microseconds since the epoch, as recorded for the start of an exchange
+     */
+    static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1000;
+    }
+
+    /**
+     * Record one exchange; a no-op unless capture is enabled
+     *
+     * @param method the HTTP method
+     * @param url the request URL
+     * @param requestHeaders RestAssured Headers or a header map
+     * @param requestBody the request body (String or byte[]), may be null
+     * @param response the response, or null if the request failed
+     * @param error the failure, or null
+     * @param startEpochMicros when the request was sent, from nowMicros()
+     * @param durationNanos time taken by the exchange
+     */
+    static void record(String method, String url, Object requestHeaders, Object requestBody, Response response,
+                       Throwable error, long startEpochMicros, long durationNanos) {
+        if (WRITER != null) {
+            WRITER.record(method, url, requestHeaders, requestBody, response, error, startEpochMicros, durationNanos);
+        }
+    }
+
+    /**
+     * @return one line with exchanges recorded, bytes written, segments and exchanges dropped
+     */
+    public static String stats() {
+        return WRITER != null ? WRITER.stats() : "disabled";
+    }
+
+    /**
+     * Finish the current segment; later exchanges are not recorded
+     */
+    public static void close() {
+        if (WRITER != null) {
+            WRITER.close();
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : EMPTY;
+    }
+
+    /**
+     * Flatten headers to alternating name and value bytes
+     */
+    private static List<byte[]> headers(Object headers) {
+        List<byte[]> flat = new ArrayList<>();
+        if (headers instanceof Headers) {
+            for (Header header : (Headers) headers) {
+                addHeader(flat, header.getName(), header.getValue());
+            }
+        } else if (headers instanceof Map) {
+            for (Map.Entry<?, ?> header : ((Map<?, ?>) headers).entrySet()) {
+                Object values = header.getValue();
+                for (Object value : values instanceof List ? (List<?>) values : List.of(String.valueOf(values))) {
+                    addHeader(flat, String.valueOf(header.getKey()), String.valueOf(value));
+                }
+            }
+        }
+        return flat;
+    }
+
+    private static void addHeader(List<byte[]> flat, String name, String value) {
+        if (REDACT && "Authorization".equalsIgnoreCase(name) && value.length() > 27) {
+            value = value.substring(0, 27) + "...";
+        }
+        flat.add(utf8(name));
+        flat.add(utf8(value));
+    }
+
+    /**
+     * An exchange encoded outside the lock, ready to be copied into the mapped segment
+     */
+    private static final class Record {
+        private long sequence;
+        private long startEpochMicros;
+        private long durationNanos;
+        private int status;
+        private byte[] method;
+        private byte[] route;
+        private byte[] url;
+        private List<byte[]> requestHeaders;
+        private byte[] requestBody;
+        private List<byte[]> responseHeaders;
+        private byte[] responseBody;
+        private byte[] error;
+
+        /**
+         * @return the encoded size, including the leading length
+         */
+        private int size() {
+            long size = 4 + 8 + 8 + 8 + 4 + 1
+                    + 4L + method.length + 4L + route.length + 4L + url.length
+                    + headersSize(requestHeaders) + 4L + Math.min(requestBody.length, MAX_BODY_BYTES)
+                    + headersSize(responseHeaders) + 4L + Math.min(responseBody.length, MAX_BODY_BYTES)
+                    + 4L + error.length;
+            return (int) Math.min(Integer.MAX_VALUE, size);
+        }
+
+        private void writeTo(ByteBuffer out, int size) {
+            out.putInt(size - 4);
+            out.putLong(sequence);
+            out.putLong(startEpochMicros);
+            out.putLong(durationNanos);
+            out.putInt(status);
+            byte flags = 0;
+            if (requestBody.length > MAX_BODY_BYTES) {
+                flags |= REQUEST_BODY_TRUNCATED;
+            }
+            if (responseBody.length > MAX_BODY_BYTES) {
+                flags |= RESPONSE_BODY_TRUNCATED;
+            }
+            out.put(flags);
+            putBytes(out, method, method.length);
+            putBytes(out, route, route.length);
+            putBytes(out, url, url.length);
+            putHeaders(out, requestHeaders);
+            putBytes(out, requestBody, Math.min(requestBody.length, MAX_BODY_BYTES));
+            putHeaders(out, responseHeaders);
+            putBytes(out, responseBody, Math.min(responseBody.length, MAX_BODY_BYTES));
+            putBytes(out, error, error.length);
+        }
+
+        private static long headersSize(List<byte[]> headers) {
+            long size = 4;
+            for (byte[] part : headers) {
+                size += 4 + part.length;
+            }
+            return size;
+        }
+
+        private static void putHeaders(ByteBuffer out, List<byte[]> headers) {
+            out.putInt(headers.size() / 2);
+            for (byte[] part : headers) {
+                putBytes(out, part, part.length);
+            }
+        }
+
+        private static void putBytes(ByteBuffer out, byte[] bytes, int length) {
+            out.putInt(length);
+            out.put(bytes, 0, length);
+        }
+    }
+
+    /**
+     * Owner of the segment files being written
+     */
+    static final class Writer {
+        private final Path dir;
+        private final int segmentBytes;
+        private final int maxSegments;
+        private final int indexEntries;
+        private final String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        private final Deque<Path> segments = new ArrayDeque<>();
+        // Old segments that could not be deleted yet (e.g. still mapped on Windows); retried on each rotation
+        private final List<Path> pendingDeletes = new ArrayList<>();
+        private final LongAdder recorded = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private long bytesWritten;
+        private long sequence;
+        private long lastCompletedMicros;
+        private int segmentNumber;
+        private FileChannel dataChannel;
+        private FileChannel indexChannel;
+        private MappedByteBuffer data;
+        private MappedByteBuffer index;
+        private boolean closed;
+
+        /**
+         * @param dir directory for the segment files
+         * @param segmentBytes size of one data segment
+         * @param maxSegments segments kept; older ones are deleted
+         */
+        Writer(Path dir, int segmentBytes, int maxSegments) {
+            this.dir = dir;
+            this.segmentBytes = segmentBytes;
+            this.maxSegments = maxSegments;
+            // Room for one index entry per 256 bytes of data; small exchanges fill the index first and rotate early
+            this.indexEntries = Math.max(1024, segmentBytes / 256);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "traffic-capture-shutdown"));
+        }
+
+        /**
+         * Encode one exchange on the calling thread and append it
+         *
+         * @see TrafficCapture#record(String, String, Object, Object, Response, Throwable, long, long)
+         */
+        void record(String method, String url, Object requestHeaders, Object requestBody, Response response,
+                    Throwable error, long startEpochMicros, long durationNanos) {
+            Record record = new Record();
+            record.startEpochMicros = startEpochMicros;
+            record.durationNanos = durationNanos;
+            record.status = response != null ? response.getStatusCode() : -1;
+            record.method = utf8(method);
+            record.route = utf8(RouteTemplate.path(url));
+            record.url = utf8(url);
+            record.requestHeaders = headers(requestHeaders);
+            record.requestBody = requestBody instanceof byte[] ? (byte[]) requestBody
+                    : requestBody != null ? utf8(String.valueOf(requestBody)) : EMPTY;
+            record.responseHeaders = response != null ? headers(response.getHeaders()) : Collections.emptyList();
+            byte[] responseBody = response != null ? response.asByteArray() : null;
+            record.responseBody = responseBody != null ? responseBody : EMPTY;
+            record.error = error != null ? utf8(error.toString()) : EMPTY;
+            append(record);
+        }
+
+        private synchronized void append(Record record) {
+            int size = record.size();
+            if (closed || size > segmentBytes - HEADER_BYTES) {
+                dropped.increment();
+                return;
+            }
+            try {
+                if (data == null || data.remaining() < size || index.remaining() < INDEX_ENTRY_BYTES) {
+                    rotate();
+                }
+                record.sequence = ++sequence;
+                // Clamped, so the index stays sorted for seekTime even if the wall clock steps back
+                lastCompletedMicros = Math.max(lastCompletedMicros, nowMicros());
+                int offset = data.position();
+                record.writeTo(data, size);
+                COMMITTED.setRelease(data, COMMITTED_OFFSET, data.position());
+                // Committed after the data, so a reader never sees an entry for a record that is not there yet
+                index.putLong(record.sequence).putLong(lastCompletedMicros).putLong(offset).putInt(size)
+                        .putInt(record.status);
+                COMMITTED.setRelease(index, COMMITTED_OFFSET, (index.position() - HEADER_BYTES) / INDEX_ENTRY_BYTES);
+                recorded.increment();
+                bytesWritten += size;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("TrafficCapture - Failed to write " + dataPath(segmentNumber) + ", capture stopped: " + e);
+                dropped.increment();
+                closed = true;
+                finishSegment();
+            }
+        }
+
+        private void rotate() throws IOException {
+            finishSegment();
+            segmentNumber++;
+            Files.createDirectories(dir);
+            Path dataPath = dataPath(segmentNumber);
+            long created = System.currentTimeMillis();
+            dataChannel = FileChannel.open(dataPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            indexChannel = FileChannel.open(indexPath(dataPath), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) indexEntries * INDEX_ENTRY_BYTES);
+            data.putInt(DATA_MAGIC).putInt(VERSION).putInt(segmentNumber).putInt(HEADER_BYTES).putLong(created);
+            index.putInt(INDEX_MAGIC).putInt(VERSION).putInt(segmentNumber).putInt(0).putLong(created);
+            segments.addLast(dataPath);
+            while (segments.size() > maxSegments) {
+                Path oldest = segments.removeFirst();
+                pendingDeletes.add(oldest);
+                pendingDeletes.add(indexPath(oldest));
+            }
+            pendingDeletes.removeIf(this::delete);
+        }
+
+        /**
+         * @return true if the file is gone
+         */
+        private boolean delete(Path file) {
+            try {
+                Files.deleteIfExists(file);
+                return true;
+            } catch (IOException e) {
+                System.err.println("TrafficCapture - Cannot delete " + file + " yet, will retry: " + e.getMessage());
+                return false;
+            }
+        }
+
+        /**
+         * Release the current segment; the files keep their mapped size and the headers say what is committed
+         */
+        private void finishSegment() {
+            if (dataChannel == null) {
+                return;
+            }
+            try {
+                dataChannel.close();
+                indexChannel.close();
+            } catch (IOException e) {
+                System.err.println("TrafficCapture - Failed to close " + dataPath(segmentNumber) + ": " + e.getMessage());
+            }
+            dataChannel = null;
+            indexChannel = null;
+            data = null;
+            index = null;
+        }
+
+        /**
+         * Finish the current segment and stop recording
+         */
+        synchronized void close() {
+            closed = true;
+            finishSegment();
+        }
+
+        synchronized String stats() {
+            return "exchanges=" + recorded.sum() + ", bytes=" + bytesWritten + ", segments=" + segments.size()
+                    + " (" + segmentNumber + " written), dropped=" + dropped.sum() + ", dir=" + dir.toAbsolutePath();
+        }
+
+        private Path dataPath(int number) {
+            return dir.resolve(String.format("capture-%s-%05d.bin", runId, number));
+        }
+    }
+
+    private static Path indexPath(Path dataPath) {
+        String name = dataPath.getFileName().toString();
+        return dataPath.resolveSibling(name.substring(0, name.length() - ".bin".length()) + ".idx");
+    }
+
+    /**
+     * Read access to one captured segment and its index
+     * Only the part of each file its header marks as committed is mapped, read-only, so a segment still being
+     * written can be opened too; it then shows the exchanges committed when it was opened.
+     */
+    public static final class Segment implements AutoCloseable {
+        private final Path path;
+        private final FileChannel dataChannel;
+        private final FileChannel indexChannel;
+        private final ByteBuffer data;
+        private final ByteBuffer index;
+        private final int size;
+
+        private Segment(Path path) throws IOException {
+            this.path = path;
+            this.dataChannel = FileChannel.open(path, StandardOpenOption.READ);
+            this.indexChannel = FileChannel.open(indexPath(path), StandardOpenOption.READ);
+            try {
+                if (dataChannel.size() < HEADER_BYTES || indexChannel.size() < HEADER_BYTES) {
+                    throw new IOException("Not a traffic capture segment: " + path);
+                }
+                ByteBuffer dataHeader = dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+                ByteBuffer indexHeader = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+                if (dataHeader.getInt(0) != DATA_MAGIC || indexHeader.getInt(0) != INDEX_MAGIC) {
+                    throw new IOException("Not a traffic capture segment: " + path);
+                }
+                if (dataHeader.getInt(4) != VERSION) {
+                    throw new IOException("Unsupported capture version " + dataHeader.getInt(4) + " in " + path);
+                }
+                // Index count first: the writer commits the data length before the entries that point into it
+                int count = (int) COMMITTED.getAcquire(indexHeader, COMMITTED_OFFSET);
+                int length = (int) COMMITTED.getAcquire(dataHeader, COMMITTED_OFFSET);
+                long indexLength = HEADER_BYTES + (long) count * INDEX_ENTRY_BYTES;
+                if (count < 0 || indexLength > indexChannel.size() || length < HEADER_BYTES
+                        || length > dataChannel.size()) {
+                    throw new IOException("Corrupt traffic capture header in " + path);
+                }
+                this.index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexLength);
+                this.data = dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                this.size = count;
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Open a data segment (.bin); its index (.idx) must sit next to it
+         *
+         * @param path the data segment
+         * @return the segment
+         * @throws IOException if either file cannot be read or is not a capture segment
+         */
+        public static Segment open(Path path) throws IOException {
+            return new Segment(path);
+        }
+
+        /**
+         * The data segments in a capture directory, oldest first
+         *
+         * @param dir the capture directory, e.g. target/traffic
+         * @return the segment paths
+         * @throws IOException if the directory cannot be listed
+         */
+        public static List<Path> list(Path dir) throws IOException {
+            try (Stream<Path> files = Files.list(dir)) {
+                return files.filter(file -> file.getFileName().toString().matches("capture-.*\\.bin")).sorted().toList();
+            }
+        }
+
+        /**
+         * @return the data segment path
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * @return number of exchanges in the segment
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param i position in the segment, from 0
+         * @return the sequence number of the exchange, without decoding it
+         */
+        public long sequenceAt(int i) {
+            return index.getLong(entryOffset(checkIndex(i)));
+        }
+
+        /**
+         * @param i position in the segment, from 0
+         * @return when the exchange completed (epoch microseconds), without decoding it
+         */
+        public long completedAt(int i) {
+            return index.getLong(entryOffset(checkIndex(i)) + 8);
+        }
+
+        /**
+         * @param i position in the segment, from 0
+         * @return the response status of the exchange (-1 for an error), without decoding it
+         */
+        public int statusAt(int i) {
+            return index.getInt(entryOffset(checkIndex(i)) + 28);
+        }
+
+        /**
+         * Position of the first exchange that completed at or after a time
+         *
+         * @param epochMillis the time
+         * @return the position, or size() if every exchange completed earlier
+         */
+        public int seekTime(long epochMillis) {
+            long target = epochMillis * 1000L;
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (completedAt(mid) < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Position of an exchange by sequence number
+         *
+         * @param sequence the sequence number
+         * @return the position, or -1 if the exchange is not in this segment
+         */
+        public int seekSequence(long sequence) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = sequenceAt(mid);
+                if (value < sequence) {
+                    low = mid + 1;
+                } else if (value > sequence) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Decode one exchange
+         *
+         * @param i position in the segment, from 0
+         * @return the exchange
+         */
+        public Exchange read(int i) {
+            long offset = index.getLong(entryOffset(checkIndex(i)) + 16);
+            ByteBuffer in = data.duplicate();
+            in.position((int) offset + 4);
+            long sequence = in.getLong();
+            long start = in.getLong();
+            long duration = in.getLong();
+            int status = in.getInt();
+            byte flags = in.get();
+            String method = getString(in);
+            String route = getString(in);
+            String url = getString(in);
+            Map<String, List<String>> requestHeaders = getHeaders(in);
+            byte[] requestBody = getBytes(in);
+            Map<String, List<String>> responseHeaders = getHeaders(in);
+            byte[] responseBody = getBytes(in);
+            String error = getString(in);
+            return new Exchange(sequence, start, duration, status, method, route, url, requestHeaders, requestBody,
+                    (flags & REQUEST_BODY_TRUNCATED) != 0, responseHeaders, responseBody,
+                    (flags & RESPONSE_BODY_TRUNCATED) != 0, error.isEmpty() ? null : error);
+        }
+
+        @Override
+        public void close() throws IOException {
+            dataChannel.close();
+            indexChannel.close();
+        }
+
+        private int checkIndex(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException("Exchange " + i + " of " + size + " in " + path);
+            }
+            return i;
+        }
+
+        private static int entryOffset(int i) {
+            return HEADER_BYTES + i * INDEX_ENTRY_BYTES;
+        }
+
+        private static byte[] getBytes(ByteBuffer in) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            return bytes;
+        }
+
+        private static String getString(ByteBuffer in) {
+            return new String(getBytes(in), StandardCharsets.UTF_8);
+        }
+
+        private static Map<String, List<String>> getHeaders(ByteBuffer in) {
+            int count = in.getInt();
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = getString(in);
+                headers.computeIfAbsent(name, key -> new ArrayList<>(1)).add(getString(in));
+            }
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of pre-registered users with cached JWTs
+ * Users are bulk-registered in parallel up front so tests and load runs can lease a ready user instead of
+ * paying for a register (password hash) and login round trip on the measured path. Leasing and returning
+ * are lock-free; an empty pool registers a new user on demand. Tokens live in the shared TokenCache,
+ * which refreshes them before they expire.
+ *
+ * Supported system properties:
+ * - userpool.size: users to provision before the suite runs (default 0 = pool disabled)
+ * - userpool.provisionConcurrency: registrations in flight while provisioning (default 16)
+ */
+public final class UserPool {
+
+    private static final String PASSWORD = "password123";
+    private static final int POOL_SIZE = Integer.getInteger("userpool.size", 0);
+    private static final int PROVISION_CONCURRENCY = Integer.getInteger("userpool.provisionConcurrency", 16);
+    private static final long PROVISION_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(2);
+
+    private static final UserPool SHARED = new UserPool("pool");
+
+    /**
+     * A provisioned user; while the TokenCache is enabled its token is kept fresh there
+     */
+    public static final class PooledUser {
+        private final String username;
+        private final String email;
+        private final String password;
+        private final String token;
+
+        private PooledUser(String username, String email, String password, String token) {
+            this.username = username;
+            this.email = email;
+            this.password = password;
+            this.token = token;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        /**
+         * @return the cached token, logging in again if it has expired (null if that login fails); the token the
+         *         user was provisioned with if the TokenCache is disabled
+         */
+        public String getToken() {
+            if (username == null || !TokenCache.isEnabled()) {
+                return token;
+            }
+            String cached = TokenCache.shared().peek(username);
+            return cached != null ? cached : TokenCache.shared().getToken(username, password);
+        }
+    }
+
+    /**
+     * Exclusive use of a pooled user until closed
+     * Use with try-with-resources, or return explicitly with close().
+     */
+    public static final class Lease implements AutoCloseable {
+        private final UserPool pool;
+        private final PooledUser user;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(UserPool pool, PooledUser user) {
+            this.pool = pool;
+            this.user = user;
+        }
+
+        public String getUsername() {
+            return user.getUsername();
+        }
+
+        public String getEmail() {
+            return user.getEmail();
+        }
+
+        public String getPassword() {
+            return user.getPassword();
+        }
+
+        public String getToken() {
+            return user.getToken();
+        }
+
+        public PooledUser getUser() {
+            return user;
+        }
+
+        /**
+         * Return the user to the pool; later calls have no effect
+         */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true) && pool != null) {
+                pool.available.offer(user);
+            }
+        }
+    }
+
+    private final String prefix;
+    private final String runId = Long.toString(System.currentTimeMillis() % 1000000L, 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Queue<PooledUser> available = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger provisioned = new AtomicInteger();
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder onDemand = new LongAdder();
+
+    /**
+     * @param prefix username prefix, up to 6 characters
+     */
+    public UserPool(String prefix) {
+        this.prefix = prefix.length() > 6 ? prefix.substring(0, 6) : prefix;
+    }
+
+    /**
+     * The pool shared by the test suite, sized by userpool.size
+     *
+     * @return the shared pool
+     */
+    public static UserPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return true if userpool.size is set, i.e. tests should lease users instead of registering their own
+     */
+    public static boolean isEnabled() {
+        return POOL_SIZE > 0;
+    }
+
+    /**
+     * Provision the shared pool up to userpool.size users
+     *
+     * @return the number of users added
+     */
+    public static int provisionShared() {
+        int missing = POOL_SIZE - SHARED.provisioned.get();
+        return missing > 0 ? SHARED.provision(missing) : 0;
+    }
+
+    /**
+     * Register users in parallel (up to userpool.provisionConcurrency at a time) and add them to the pool
+     *
+     * @param count number of users to register
+     * @return the number of users successfully added
+     */
+    public int provision(int count) {
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(PROVISION_CONCURRENCY);
+        List<CompletableFuture<Void>> pending = new ArrayList<>(count);
+        AtomicInteger added = new AtomicInteger();
+
+        for (int i = 0; i < count; i++) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            String username = nextUsername();
+            pending.add(registerAsync(username)
+                    .handle((user, error) -> {
+                        permits.release();
+                        if (user != null) {
+                            available.offer(user);
+                            provisioned.incrementAndGet();
+                            added.incrementAndGet();
+                        } else {
+                            System.err.println("UserPool - Failed to provision " + username + ": "
+                                    + (error != null ? error.getMessage() : "no token"));
+                        }
+                        return null;
+                    }));
+        }
+
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                    .get(PROVISION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("UserPool - Provisioning did not finish cleanly: " + e);
+        }
+        System.out.println("UserPool - Provisioned " + added.get() + "/" + count + " users in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        return added.get();
+    }
+
+    /**
+     * Lease a user, registering one on demand if the pool is empty
+     *
+     * @return the lease, or a lease with a null token if no user could be registered
+     */
+    public Lease lease() {
+        leases.increment();
+        PooledUser user = available.poll();
+        if (user == null) {
+            onDemand.increment();
+            String username = nextUsername();
+            user = registerAsync(username).exceptionally(error -> null).join();
+            if (user == null) {
+                return unpooled(username, username + "@example.com", PASSWORD, null);
+            }
+            provisioned.incrementAndGet();
+        }
+        return new Lease(this, user);
+    }
+
+    /**
+     * Wrap a user that is not managed by any pool; closing the lease has no effect
+     *
+     * @param username the username
+     * @param email the email address
+     * @param password the password
+     * @param token the JWT token as obtained (and cached) by the caller, may be null if registration failed
+     * @return the lease
+     */
+    public static Lease unpooled(String username, String email, String password, String token) {
+        return new Lease(null, new PooledUser(username, email, password, token));
+    }
+
+    /**
+     * @return number of users currently available for lease
+     */
+    public int available() {
+        return available.size();
+    }
+
+    /**
+     * @return one-line summary of pool usage
+     */
+    public String stats() {
+        return "provisioned=" + provisioned.get() + ", available=" + available.size() + ", leases=" + leases.sum()
+                + ", onDemand=" + onDemand.sum();
+    }
+
+    private CompletableFuture<PooledUser> registerAsync(String username) {
+        String email = username + "@example.com";
+        return ApiClient.registerUserAsync(username, email, PASSWORD)
+                .thenCompose(response -> {
+                    String token = TokenCache.tokenFrom(response);
+                    if (token != null) {
+                        return CompletableFuture.completedFuture(token);
+                    }
+                    // Registration can fail if the user already exists; fall back to a login
+                    return ApiClient.loginUserAsync(username, PASSWORD).thenApply(TokenCache::tokenFrom);
+                })
+                .thenApply(token -> {
+                    if (token == null) {
+                        return null;
+                    }
+                    TokenCache.shared().put(username, PASSWORD, token);
+                    return new PooledUser(username, email, PASSWORD, token);
+                });
+    }
+
+    private String nextUsername() {
+        // prefix (<= 6) + run id (<= 4) + sequence: well inside the 3-20 character limit
+        return prefix + runId + Long.toString(sequence.getAndIncrement(), 36);
+    }
+}
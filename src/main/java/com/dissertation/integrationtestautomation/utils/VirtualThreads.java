@@ -0,0 +1,73 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Helper for creating virtual threads when running on Java 21+
+ * The project still compiles for Java 17, so virtual threads are looked up reflectively.
+ * On older runtimes the factories fall back to named daemon platform threads.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = lookup("java.lang.Thread", "ofVirtual");
+    private static final Method BUILDER_NAME = lookup("java.lang.Thread$Builder", "name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = lookup("java.lang.Thread$Builder", "factory");
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running JVM supports virtual threads
+     */
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_FACTORY != null;
+    }
+
+    /**
+     * Create a thread factory producing threads named prefix-0, prefix-1, ...
+     * Threads are virtual when supported, otherwise daemon platform threads.
+     *
+     * @param prefix the thread name prefix
+     * @return the thread factory
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        if (isAvailable()) {
+            try {
+                Object builder = OF_VIRTUAL.invoke(null);
+                builder = BUILDER_NAME.invoke(builder, prefix + "-", 0L);
+                return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("VirtualThreads - Could not create virtual thread factory, using platform threads: " + e.getMessage());
+            }
+        }
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Create an unbounded executor backed by threadFactory(prefix)
+     * With virtual threads this is effectively a thread per task.
+     *
+     * @param prefix the thread name prefix
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        return Executors.newCachedThreadPool(threadFactory(prefix));
+    }
+
+    private static Method lookup(String className, String methodName, Class<?>... parameterTypes) {
+        try {
+            return Class.forName(className).getMethod(methodName, parameterTypes);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package com.dissertation.integrationtestautomation.tests;
 
 import com.dissertation.integrationtestautomation.utils.ApiClient;
+import com.dissertation.integrationtestautomation.utils.AsyncAwaiter;
+import com.dissertation.integrationtestautomation.utils.BufferedResponse;
+import com.dissertation.integrationtestautomation.utils.JsonStreams;
+import com.dissertation.integrationtestautomation.utils.ReadinessProbe;
 import com.dissertation.integrationtestautomation.utils.TestDataUtils;
+import com.dissertation.integrationtestautomation.utils.UserPool;
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import org.testng.Assert;
 import org.testng.Reporter;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -27,114 +33,23 @@ public class MicroservicesIntegrationTest {
         // Wait for API Gateway to be fully ready before running tests
         waitForGatewayReady();
     }
+
+    @AfterMethod(alwaysRun = true)
+    public void releaseUsers() {
+        // Return users leased from the UserPool (no-op unless -Duserpool.size is set)
+        TestDataUtils.releaseLeasedUsers();
+    }
     
     /**
-     * Wait for API Gateway to be ready and routes to be loaded
+     * Wait for the gateway and every service to be ready and all routes to be loaded
      * This prevents 405 errors from route configuration not being fully loaded
      */
     private void waitForGatewayReady() {
-        Reporter.log("Waiting for API Gateway to be ready...", true);
-        int maxAttempts = 30;
-        int attempt = 0;
-        boolean gatewayReady = false;
-        
-        while (attempt < maxAttempts && !gatewayReady) {
-            attempt++;
-            try {
-                // Check gateway health
-                Response healthResponse = RestAssured.given()
-                        .baseUri(BASE_URL)
-                        .when()
-                        .get("/actuator/health")
-                        .then()
-                        .extract()
-                        .response();
-                
-                if (healthResponse.getStatusCode() == 200) {
-                    // Verify POST route for /api/orders is loaded
-                    Response routesResponse = RestAssured.given()
-                            .baseUri(BASE_URL)
-                            .when()
-                            .get("/actuator/gateway/routes")
-                            .then()
-                            .extract()
-                            .response();
-                    
-                    if (routesResponse.getStatusCode() == 200) {
-                        String routesBody = routesResponse.getBody().asString();
-                        // Check if order-service-post route exists
-                        if (routesBody.contains("order-service-post") && 
-                            routesBody.contains("Methods: [POST]")) {
-                            // Verify the route actually works by testing a POST request
-                            // This ensures routes are fully loaded and cached, not just registered
-                            Reporter.log("Route detected, verifying POST /api/orders route is functional...", true);
-                            boolean routeFunctional = verifyPostRouteFunctional();
-                            
-                            if (routeFunctional) {
-                                gatewayReady = true;
-                                Reporter.log("API Gateway is ready! Routes loaded and verified successfully.", true);
-                                // Add additional delay to ensure routes are fully warmed up
-                                Thread.sleep(2000);
-                                break;
-                            } else {
-                                Reporter.log("Route exists but not yet functional, waiting...", true);
-                            }
-                        }
-                    }
-                }
-                
-                if (!gatewayReady && attempt < maxAttempts) {
-                    Reporter.log("Gateway not ready yet (attempt " + attempt + "/" + maxAttempts + "), waiting 2 seconds...", true);
-                    Thread.sleep(2000);
-                }
-            } catch (Exception e) {
-                Reporter.log("Error checking gateway readiness (attempt " + attempt + "): " + e.getMessage(), true);
-                if (attempt < maxAttempts) {
-                    try {
-                        Thread.sleep(2000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            }
-        }
-        
-        if (!gatewayReady) {
-            Reporter.log("WARNING: API Gateway may not be fully ready. Tests may fail with 405 errors.", true);
-        }
-    }
-    
-    /**
-     * Verify that POST /api/orders route is actually functional (not just registered)
-     * This helps catch cases where routes are registered but not yet fully loaded
-     */
-    private boolean verifyPostRouteFunctional() {
-        try {
-            // Make a test POST request to verify the route works
-            // Use a dummy request that will fail validation but should not return 405
-            Response testResponse = RestAssured.given()
-                    .baseUri(BASE_URL)
-                    .contentType("application/json")
-                    .body("{\"test\":\"data\"}")
-                    .when()
-                    .post("/api/orders")
-                    .then()
-                    .extract()
-                    .response();
-            
-            int statusCode = testResponse.getStatusCode();
-            // If we get 405, the route isn't functional yet
-            // If we get 400/401/500, the route is working (just validation/auth/processing failed)
-            if (statusCode == 405) {
-                Reporter.log("POST route verification: Got 405 - route not functional yet", true);
-                return false;
-            } else {
-                Reporter.log("POST route verification: Got " + statusCode + " - route is functional", true);
-                return true;
-            }
-        } catch (Exception e) {
-            Reporter.log("POST route verification failed with exception: " + e.getMessage(), true);
-            return false;
+        Reporter.log("Waiting for API Gateway and services to be ready...", true);
+        ReadinessProbe.Report report = ApiClient.readinessProbe().await();
+        Reporter.log(report.summary(), true);
+        if (!report.isReady()) {
+            Reporter.log("WARNING: API Gateway or services may not be fully ready. Tests may fail with 405 errors.", true);
         }
     }
 
@@ -521,18 +436,9 @@ public class MicroservicesIntegrationTest {
                         // Fallback to user orders
                         Response userOrdersResponse = ApiClient.getUserOrders(username, token);
                         if (userOrdersResponse.getStatusCode() == 200) {
-                            java.util.List<Object> orders = userOrdersResponse.jsonPath().getList("");
-                            if (orders != null && !orders.isEmpty()) {
-                                Object lastOrder = orders.get(orders.size() - 1);
-                                if (lastOrder instanceof java.util.Map) {
-                                    @SuppressWarnings("unchecked")
-                                    java.util.Map<String, Object> orderMap = (java.util.Map<String, Object>) lastOrder;
-                                    Object orderNum = orderMap.get("orderNumber");
-                                    if (orderNum != null) {
-                                        orderNumber = orderNum.toString();
-                                        Reporter.log("Found order number from user orders: " + orderNumber, true);
-                                    }
-                                }
+                            orderNumber = JsonStreams.lastValue(userOrdersResponse, "orderNumber").orElse(null);
+                            if (orderNumber != null) {
+                                Reporter.log("Found order number from user orders: " + orderNumber, true);
                             }
                         }
                     }
@@ -543,18 +449,9 @@ public class MicroservicesIntegrationTest {
                     try {
                         Response userOrdersResponse = ApiClient.getUserOrders(username, token);
                         if (userOrdersResponse.getStatusCode() == 200) {
-                            java.util.List<Object> orders = userOrdersResponse.jsonPath().getList("");
-                            if (orders != null && !orders.isEmpty()) {
-                                Object lastOrder = orders.get(orders.size() - 1);
-                                if (lastOrder instanceof java.util.Map) {
-                                    @SuppressWarnings("unchecked")
-                                    java.util.Map<String, Object> orderMap = (java.util.Map<String, Object>) lastOrder;
-                                    Object orderNum = orderMap.get("orderNumber");
-                                    if (orderNum != null) {
-                                        orderNumber = orderNum.toString();
-                                        Reporter.log("Found order number from user orders (fallback): " + orderNumber, true);
-                                    }
-                                }
+                            orderNumber = JsonStreams.lastValue(userOrdersResponse, "orderNumber").orElse(null);
+                            if (orderNumber != null) {
+                                Reporter.log("Found order number from user orders (fallback): " + orderNumber, true);
                             }
                         }
                     } catch (Exception e2) {
@@ -617,10 +514,11 @@ public class MicroservicesIntegrationTest {
     @Test(priority = 6)
     public void testGetUserOrders() {
         // Use dynamic username to avoid conflicts - ensure it's between 3 and 20 characters
-        String username = TestDataUtils.generateValidUsername("orders");
+        UserPool.Lease user = TestDataUtils.leaseUser("orders");
+        String username = user.getUsername();
         Reporter.log("Testing get user orders: username=" + username + " (length: " + username.length() + ")", true);
         
-        String token = TestDataUtils.registerAndGetToken(username, username + "@example.com");
+        String token = user.getToken();
         
         if (token == null) {
             Reporter.log("Registration/login failed, attempting manual registration and login as fallback", true);
@@ -689,23 +587,23 @@ public class MicroservicesIntegrationTest {
         
         Reporter.log("Order 1: " + order1 + ", Order 2: " + order2, true);
         
-        Response response = ApiClient.getUserOrders(username, token);
+        BufferedResponse response = BufferedResponse.of(ApiClient.getUserOrders(username, token));
 
         Reporter.log("Response Status: " + response.getStatusCode(), true);
-        Reporter.log("Response Body: " + response.getBody().asString(), true);
+        Reporter.log("Response Body: " + response.asString(), true);
         
         Assert.assertEquals(response.getStatusCode(), 200, 
                 "Get user orders should return 200, but got: " + response.getStatusCode() +
-                ". Response: " + response.getBody().asString() +
+                ". Response: " + response.asString() +
                 ". Token: " + (token != null ? token.substring(0, Math.min(20, token.length())) + "..." : "null"));
         
         // Only check order count if we got a successful response
         if (response.getStatusCode() == 200) {
-            int orderCount = response.jsonPath().getList("").size();
+            int orderCount = JsonStreams.countElements(response);
             Reporter.log("Order Count: " + orderCount, true);
             Assert.assertTrue(orderCount >= 2, 
                     "Should have at least 2 orders, but got: " + orderCount +
-                    ". Response: " + response.getBody().asString());
+                    ". Response: " + response.asString());
         }
     }
 
@@ -839,26 +737,27 @@ public class MicroservicesIntegrationTest {
         Assert.assertNotNull(orderNumber, "Order number must not be null. Order creation may have failed.");
         Reporter.log("Order created for notification: " + orderNumber, true);
         
-        // Wait for notification to be processed
-        TestDataUtils.waitForAsyncOperation(2000);
-        
-        Response response = ApiClient.getUserNotifications(username, token);
+        // Poll until the notification has been processed instead of sleeping for a fixed time
+        AsyncAwaiter.Result<Response> notificationWait = AsyncAwaiter.awaitNotifications(username, token, 1);
+        Reporter.log("Notification wait: satisfied=" + notificationWait.isSatisfied() + 
+                " after " + notificationWait.getElapsedMs() + "ms (" + notificationWait.getAttempts() + " attempts)", true);
+        BufferedResponse response = BufferedResponse.of(notificationWait.getValue());
 
         Reporter.log("Response Status: " + response.getStatusCode(), true);
-        Reporter.log("Response Body: " + response.getBody().asString(), true);
+        Reporter.log("Response Body: " + response.asString(), true);
         
         Assert.assertEquals(response.getStatusCode(), 200, 
                 "Get notifications should return 200, but got: " + response.getStatusCode() +
-                ". Response: " + response.getBody().asString() +
+                ". Response: " + response.asString() +
                 ". Token: " + (token != null ? token.substring(0, Math.min(20, token.length())) + "..." : "null"));
         
         // Only check notification count if we got a successful response
         if (response.getStatusCode() == 200) {
-            int notificationCount = response.jsonPath().getList("").size();
+            int notificationCount = JsonStreams.countElements(response);
             Reporter.log("Notification Count: " + notificationCount, true);
             Assert.assertTrue(notificationCount >= 1, 
                     "Should have at least 1 notification, but got: " + notificationCount +
-                    ". Response: " + response.getBody().asString());
+                    ". Response: " + response.asString());
         }
     }
 
@@ -868,10 +767,11 @@ public class MicroservicesIntegrationTest {
     @Test(priority = 8)
     public void testGetPaymentDetails() {
         // Use dynamic username to avoid conflicts - ensure it's between 3 and 20 characters
-        String username = TestDataUtils.generateValidUsername("pay");
+        UserPool.Lease user = TestDataUtils.leaseUser("pay");
+        String username = user.getUsername();
         Reporter.log("Testing get payment details: username=" + username + " (length: " + username.length() + ")", true);
         
-        String token = TestDataUtils.registerAndGetToken(username, username + "@example.com");
+        String token = user.getToken();
         
         if (token == null) {
             Reporter.log("Registration/login failed, attempting manual registration and login as fallback", true);
@@ -940,36 +840,13 @@ public class MicroservicesIntegrationTest {
         Assert.assertNotNull(orderNumber, "Order number must not be null. Order creation may have failed.");
         Reporter.log("Order Number: " + orderNumber, true);
         
-        // Wait for payment processing to complete (payment is created asynchronously during order creation)
+        // Poll until payment processing completes (payment is created asynchronously during order creation)
+        // Keeps polling while the payment is missing or the payment service is unavailable (circuit breaker might be open)
         Reporter.log("Waiting for payment processing to complete...", true);
-        TestDataUtils.waitForAsyncOperation(3000); // Wait 3 seconds for payment processing
-        
-        // Retry getting payment details with exponential backoff (circuit breaker might be open)
-        Response response = null;
-        int maxRetries = 5;
-        int retryDelay = 1000; // Start with 1 second
-        
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            Reporter.log("Attempt " + attempt + " to get payment details for order: " + orderNumber, true);
-            response = ApiClient.getPaymentDetails(orderNumber, token);
-            
-            int statusCode = response.getStatusCode();
-            Reporter.log("Response Status: " + statusCode + ", Response Body: " + response.getBody().asString(), true);
-            
-            if (statusCode == 200) {
-                Reporter.log("Successfully retrieved payment details on attempt " + attempt, true);
-                break;
-            } else if (statusCode == 503) {
-                Reporter.log("Payment service unavailable (503) on attempt " + attempt + ". Retrying...", true);
-                if (attempt < maxRetries) {
-                    TestDataUtils.waitForAsyncOperation(retryDelay);
-                    retryDelay *= 2; // Exponential backoff
-                }
-            } else {
-                Reporter.log("Unexpected status code: " + statusCode + ". Stopping retries.", true);
-                break;
-            }
-        }
+        AsyncAwaiter.Result<Response> paymentWait = AsyncAwaiter.awaitPayment(orderNumber, token);
+        Response response = paymentWait.getValue();
+        Reporter.log("Payment wait: satisfied=" + paymentWait.isSatisfied() + 
+                " after " + paymentWait.getElapsedMs() + "ms (" + paymentWait.getAttempts() + " attempts)", true);
         
         // Check if we got a successful response
         if (response != null && response.getStatusCode() == 200) {
@@ -986,7 +863,7 @@ public class MicroservicesIntegrationTest {
             String finalBody = response != null && response.getBody() != null ? 
                     response.getBody().asString() : "null";
             
-            Reporter.log("WARNING: Could not retrieve payment details after " + maxRetries + " attempts. " +
+            Reporter.log("WARNING: Could not retrieve payment details after " + paymentWait.getAttempts() + " attempts. " +
                     "Final status: " + finalStatus + ", Response: " + finalBody + 
                     ". This might be due to payment service being unavailable or circuit breaker being open.", true);
             
@@ -0,0 +1,108 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for BatchResult.runAsync ordering, in-flight bound and failure handling
+ */
+public class BatchResultTest {
+
+    private static List<Integer> inputs(int count) {
+        List<Integer> inputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            inputs.add(i);
+        }
+        return inputs;
+    }
+
+    /**
+     * Completes with input * 2 after a random delay of up to 5 ms, so calls finish out of order
+     */
+    private static CompletableFuture<Integer> doubledLater(int input, AtomicInteger outstanding) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        Executor delayed = CompletableFuture.delayedExecutor(ThreadLocalRandom.current().nextInt(5000),
+                TimeUnit.MICROSECONDS);
+        delayed.execute(() -> {
+            outstanding.decrementAndGet();
+            future.complete(input * 2);
+        });
+        return future;
+    }
+
+    @Test(description = "Items come back in input order although calls complete out of order", timeOut = 30000)
+    public void testItemsAreInInputOrder() {
+        AtomicInteger outstanding = new AtomicInteger();
+        List<Integer> completionOrder = new ArrayList<>();
+        BatchResult<Integer> result = BatchResult.runAsync("double", inputs(200), 16, input -> {
+            outstanding.incrementAndGet();
+            return doubledLater(input, outstanding);
+        }, item -> {
+            synchronized (completionOrder) {
+                completionOrder.add(item.index());
+            }
+        }).join();
+
+        Assert.assertEquals(result.items().size(), 200);
+        for (int i = 0; i < 200; i++) {
+            BatchResult.Item<Integer> item = result.items().get(i);
+            Assert.assertEquals(item.index(), i);
+            Assert.assertEquals(item.value(), Integer.valueOf(i * 2));
+        }
+        Assert.assertEquals(result.values().size(), 200);
+        Assert.assertEquals(completionOrder.size(), 200, "The callback should see every item");
+        Assert.assertNotEquals(completionOrder, inputs(200), "Calls should have completed out of order");
+    }
+
+    @Test(description = "No more than maxInFlight calls are outstanding at once", timeOut = 30000)
+    public void testInFlightNeverExceedsMax() {
+        int maxInFlight = 8;
+        AtomicInteger outstanding = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        BatchResult<Integer> result = BatchResult.runAsync("double", inputs(300), maxInFlight, input -> {
+            peak.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+            return doubledLater(input, outstanding);
+        }, null).join();
+
+        Assert.assertEquals(result.succeeded(), 300);
+        Assert.assertTrue(peak.get() <= maxInFlight, "Peak in flight was " + peak.get());
+        Assert.assertEquals(peak.get(), maxInFlight, "The window should fill up");
+    }
+
+    @Test(description = "A long batch of immediate failures completes without deep recursion", timeOut = 60000)
+    public void testImmediateFailuresDoNotRecurse() {
+        int count = 100_000;
+        int baseDepth = Thread.currentThread().getStackTrace().length;
+        AtomicInteger maxDepth = new AtomicInteger();
+        BatchResult<Integer> result = BatchResult.<Integer, Integer>runAsync("fail", inputs(count), 4, input -> {
+            maxDepth.accumulateAndGet(Thread.currentThread().getStackTrace().length, Math::max);
+            if (input % 2 == 0) {
+                throw new IllegalStateException("thrown " + input);
+            }
+            return CompletableFuture.failedFuture(new ApiException("GET /fail", 503, "down"));
+        }, null).join();
+
+        Assert.assertEquals(result.failed(), count);
+        Assert.assertTrue(maxDepth.get() - baseDepth < 50,
+                "Stack grew by " + (maxDepth.get() - baseDepth) + " frames");
+        Assert.assertEquals(result.errorCounts(), Map.of("HTTP 503", count / 2, "IllegalStateException", count / 2));
+    }
+
+    @Test(description = "An empty batch completes at once")
+    public void testEmptyBatchCompletes() {
+        BatchResult<Integer> result = BatchResult.<Integer, Integer>runAsync("none", List.of(), 4,
+                input -> CompletableFuture.completedFuture(input), null).join();
+
+        Assert.assertTrue(result.items().isEmpty());
+        Assert.assertEquals(result.failed(), 0);
+    }
+}
@@ -0,0 +1,124 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for CircuitBreaker state changes
+ */
+public class CircuitBreakerTest {
+
+    private static final long OPEN_MS = 100;
+
+    /**
+     * Window of 4 outcomes, evaluated from 4 calls, opens at 50% failures, 2 trial requests
+     */
+    private static CircuitBreaker newBreaker() {
+        return new CircuitBreaker("GET /test", 4, 4, 0.5, OPEN_MS, 2);
+    }
+
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void waitForHalfOpen(CircuitBreaker breaker) throws InterruptedException {
+        Thread.sleep(OPEN_MS + 20);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test(description = "The breaker stays closed until the window holds minimumCalls outcomes")
+    public void testStaysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        breaker.acquire();
+
+        breaker.onFailure();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+    }
+
+    @Test(description = "The breaker opens once the failure rate in the window reaches the threshold")
+    public void testOpensAtFailureRate() {
+        CircuitBreaker breaker = newBreaker();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED, "25% failures should not open it");
+
+        // The oldest success slides out of the window: 2 failures in 4 calls
+        breaker.onFailure();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+    }
+
+    @Test(description = "5xx statuses count as failures, other statuses as successes")
+    public void testOnResultClassifiesStatus() {
+        CircuitBreaker breaker = newBreaker();
+        breaker.onResult(404);
+        breaker.onResult(200);
+        breaker.onResult(503);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        breaker.onResult(500);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+    }
+
+    @Test(description = "An open breaker rejects requests until openMs has passed, then lets trial requests through")
+    public void testOpenBecomesHalfOpenAfterOpenMs() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquire);
+
+        waitForHalfOpen(breaker);
+        breaker.acquire();
+        breaker.acquire();
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquire);
+    }
+
+    @Test(description = "Successful trial requests close the breaker")
+    public void testHalfOpenClosesAfterTrialSuccesses() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        waitForHalfOpen(breaker);
+
+        breaker.acquire();
+        breaker.onSuccess();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        breaker.acquire();
+        breaker.onSuccess();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+
+        // The window starts empty again, so old failures do not reopen it
+        breaker.onFailure();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test(description = "A failed trial request opens the breaker again")
+    public void testHalfOpenFailureReopens() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        waitForHalfOpen(breaker);
+
+        breaker.acquire();
+        breaker.onSuccess();
+        breaker.acquire();
+        breaker.onFailure();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquire);
+    }
+
+    @Test(description = "A cancelled trial request gives its permit back")
+    public void testCancelledTrialReleasesPermit() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        waitForHalfOpen(breaker);
+
+        breaker.acquire();
+        breaker.acquire();
+        breaker.onCancelled();
+        breaker.acquire();
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquire);
+    }
+}
@@ -0,0 +1,82 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for MpscRingBuffer
+ */
+public class MpscRingBufferTest {
+
+    @Test(description = "Capacity is rounded up to a power of two")
+    public void testCapacityRoundsUpToPowerOfTwo() {
+        Assert.assertEquals(new MpscRingBuffer<Integer>(1000).capacity(), 1024);
+        Assert.assertEquals(new MpscRingBuffer<Integer>(1024).capacity(), 1024);
+    }
+
+    @Test(description = "A full buffer rejects offers until the consumer frees a slot")
+    public void testFullBufferDropsOffers() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        Assert.assertTrue(buffer.isEmpty());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(i), "Offer " + i + " should fit");
+        }
+        Assert.assertFalse(buffer.offer(4), "Offer into a full buffer should fail");
+        Assert.assertFalse(buffer.isEmpty());
+
+        Assert.assertEquals(buffer.poll(), Integer.valueOf(0));
+        Assert.assertTrue(buffer.offer(4), "Offer should succeed once a slot is freed");
+        for (int i = 1; i <= 4; i++) {
+            Assert.assertEquals(buffer.poll(), Integer.valueOf(i));
+        }
+        Assert.assertNull(buffer.poll());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test(description = "Concurrent producers lose nothing and keep their own order", timeOut = 60000)
+    public void testConcurrentProducersKeepPerProducerOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(256);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            }, "producer-" + p);
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] next = new long[producers];
+        long received = 0;
+        while (received < (long) producers * perProducer) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) element[0];
+            Assert.assertEquals(element[1], next[producer], "Out of order element from producer " + producer);
+            next[producer]++;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertNull(buffer.poll(), "No elements should remain after all were received");
+        for (int p = 0; p < producers; p++) {
+            Assert.assertEquals(next[p], perProducer, "Producer " + p + " lost elements");
+        }
+    }
+}
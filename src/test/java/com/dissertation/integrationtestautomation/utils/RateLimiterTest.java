@@ -0,0 +1,104 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for RateLimiter modes and route selection
+ */
+public class RateLimiterTest {
+
+    private static final String ORDERS = "http://localhost:8080/api/orders/5";
+    private static final String USERS = "http://localhost:8080/api/users/7";
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test(description = "Block mode hands out ever later permits and never rejects")
+    public void testBlockModeWaits() {
+        RateLimiter limiter = new RateLimiter("10", "", 1, RateLimiter.Mode.BLOCK, 0);
+        Assert.assertTrue(limiter.isEnabled());
+
+        Assert.assertEquals(limiter.reserve("GET", ORDERS), 0L);
+        long second = limiter.reserve("GET", ORDERS);
+        long third = limiter.reserve("GET", ORDERS);
+        Assert.assertTrue(second > INTERVAL_NANOS / 2 && second <= INTERVAL_NANOS, "Second wait was " + second);
+        Assert.assertTrue(third > INTERVAL_NANOS && third <= 2 * INTERVAL_NANOS, "Third wait was " + third);
+    }
+
+    @Test(description = "Queue mode waits up to maxQueueMs and rejects beyond it")
+    public void testQueueModeRejectsBeyondMaxQueue() {
+        RateLimiter limiter = new RateLimiter("10", "", 1, RateLimiter.Mode.QUEUE, 150);
+
+        Assert.assertEquals(limiter.reserve("GET", ORDERS), 0L);
+        Assert.assertTrue(limiter.reserve("GET", ORDERS) > 0, "The second request should queue");
+        RateLimitExceededException e = Assert.expectThrows(RateLimitExceededException.class,
+                () -> limiter.reserve("GET", ORDERS));
+        Assert.assertTrue(e.getMessage().contains("Rate limit global exceeded"), e.getMessage());
+        Assert.assertEquals(e.getEndpoint(), "GET /api/orders/{n}");
+    }
+
+    @Test(description = "Reject mode only lets through requests whose permit is available now")
+    public void testRejectModeRejectsWithoutPermit() {
+        RateLimiter limiter = new RateLimiter("10", "", 2, RateLimiter.Mode.REJECT, 0);
+
+        Assert.assertEquals(limiter.reserve("GET", ORDERS), 0L);
+        Assert.assertEquals(limiter.reserve("GET", ORDERS), 0L, "The burst allows a second request now");
+        Assert.assertThrows(RateLimitExceededException.class, () -> limiter.reserve("GET", ORDERS));
+    }
+
+    @Test(description = "A global permit taken for a request the route bucket rejects is given back")
+    public void testRouteRejectionReleasesGlobalPermit() {
+        RateLimiter limiter = new RateLimiter("10", "/api/orders=1:1", 2, RateLimiter.Mode.REJECT, 0);
+
+        Assert.assertEquals(limiter.reserve("GET", ORDERS), 0L);
+        RateLimitExceededException e = Assert.expectThrows(RateLimitExceededException.class,
+                () -> limiter.reserve("GET", ORDERS));
+        Assert.assertTrue(e.getMessage().contains("Rate limit /api/orders exceeded"), e.getMessage());
+
+        // Without the release the rejected request would have used up the second global permit
+        Assert.assertEquals(limiter.reserve("GET", USERS), 0L);
+        Assert.assertThrows(RateLimitExceededException.class, () -> limiter.reserve("GET", USERS));
+    }
+
+    @Test(description = "The same release applies to tryAcquire")
+    public void testTryAcquireReleasesGlobalPermit() {
+        RateLimiter limiter = new RateLimiter("10", "/api/orders=1:1", 2, RateLimiter.Mode.BLOCK, 0);
+
+        Assert.assertTrue(limiter.tryAcquire("GET", ORDERS));
+        Assert.assertFalse(limiter.tryAcquire("GET", ORDERS));
+        Assert.assertTrue(limiter.tryAcquire("GET", USERS));
+        Assert.assertFalse(limiter.tryAcquire("GET", USERS));
+    }
+
+    @Test(description = "The longest matching route applies, and a method-specific route wins a tie")
+    public void testLongestMatchingRouteApplies() {
+        RateLimiter limiter = new RateLimiter("0",
+                "/api=1000:1000, /api/orders=1000:1000, POST /api/orders=1:1, /api/orders/user=1:1",
+                1, RateLimiter.Mode.REJECT, 0);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.reserve("GET", ORDERS);
+            limiter.reserve("GET", USERS);
+        }
+
+        limiter.reserve("POST", "http://localhost:8080/api/orders");
+        RateLimitExceededException post = Assert.expectThrows(RateLimitExceededException.class,
+                () -> limiter.reserve("POST", "http://localhost:8080/api/orders"));
+        Assert.assertTrue(post.getMessage().contains("Rate limit POST /api/orders exceeded"), post.getMessage());
+
+        limiter.reserve("GET", "http://localhost:8080/api/orders/user/alice");
+        RateLimitExceededException user = Assert.expectThrows(RateLimitExceededException.class,
+                () -> limiter.reserve("GET", "http://localhost:8080/api/orders/user/alice"));
+        Assert.assertTrue(user.getMessage().contains("Rate limit /api/orders/user exceeded"), user.getMessage());
+    }
+
+    @Test(description = "Without limits the limiter is disabled and never waits")
+    public void testNoLimitsIsDisabled() {
+        RateLimiter limiter = new RateLimiter("0", "", 1, RateLimiter.Mode.REJECT, 0);
+        Assert.assertFalse(limiter.isEnabled());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(limiter.reserve("GET", ORDERS), 0L);
+        }
+    }
+}
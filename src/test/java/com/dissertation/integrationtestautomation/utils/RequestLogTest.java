@@ -0,0 +1,84 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the asynchronous RequestLog sink
+ */
+public class RequestLogTest {
+
+    @Test(description = "Flush waits until every enqueued entry has been written", timeOut = 30000)
+    public void testFlushWritesAllEntries() {
+        StringWriter out = new StringWriter();
+        RequestLog.Sink sink = new RequestLog.Sink(1024, out);
+        for (int i = 0; i < 100; i++) {
+            sink.enqueue(RequestLog.Entry.message("entry-" + i));
+        }
+
+        sink.flush(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(sink.written(), 100);
+        Assert.assertEquals(sink.dropped(), 0);
+        String text = out.toString();
+        Assert.assertTrue(text.contains("entry-0") && text.contains("entry-99"), "All entries should be written");
+    }
+
+    @Test(description = "An idle writer is woken by the next entry", timeOut = 30000)
+    public void testIdleWriterWakesOnEnqueue() throws InterruptedException {
+        StringWriter out = new StringWriter();
+        RequestLog.Sink sink = new RequestLog.Sink(64, out);
+        sink.enqueue(RequestLog.Entry.message("first"));
+        sink.flush(10, TimeUnit.SECONDS);
+        // Let the writer go idle, then check the next entry is written well within the idle park timeout
+        Thread.sleep(50);
+
+        sink.enqueue(RequestLog.Entry.message("second"));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        while (sink.written() < 2 && System.nanoTime() - deadline < 0) {
+            Thread.sleep(1);
+        }
+
+        Assert.assertEquals(sink.written(), 2, "Writer should be woken by the enqueue");
+    }
+
+    @Test(description = "Entries are dropped rather than blocking when the buffer is full", timeOut = 30000)
+    public void testFullBufferDropsEntries() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter target = new StringWriter();
+        StringWriter blocking = new StringWriter() {
+            @Override
+            public void write(String str) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                target.write(str);
+            }
+        };
+        RequestLog.Sink sink = new RequestLog.Sink(8, blocking);
+
+        // The writer takes the first entry and blocks in write(), leaving the buffer empty
+        sink.enqueue(RequestLog.Entry.message("blocked"));
+        Assert.assertTrue(writing.await(10, TimeUnit.SECONDS), "Writer should start writing");
+        for (int i = 0; i < 20; i++) {
+            sink.enqueue(RequestLog.Entry.message("entry-" + i));
+        }
+        Assert.assertEquals(sink.dropped(), 20 - sink.capacity(), "Entries beyond capacity should be dropped");
+
+        release.countDown();
+        sink.flush(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(sink.written() + sink.dropped(), 21);
+        Assert.assertEquals(sink.written(), 1 + sink.capacity());
+        Assert.assertTrue(target.toString().contains("entry-7"));
+        Assert.assertFalse(target.toString().contains("entry-8"));
+    }
+}
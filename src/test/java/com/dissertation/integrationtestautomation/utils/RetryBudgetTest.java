@@ -0,0 +1,63 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for RetryBudget deposits, refill and cap
+ */
+public class RetryBudgetTest {
+
+    @Test(description = "Each request deposits the ratio and each retry withdraws a whole token")
+    public void testRequestsDepositRatio() {
+        RetryBudget budget = new RetryBudget(0.5, 0, 100);
+        Assert.assertFalse(budget.tryRetry(), "An empty budget should deny retries");
+
+        budget.recordRequest();
+        Assert.assertFalse(budget.tryRetry(), "Half a token is not enough for a retry");
+        budget.recordRequest();
+        Assert.assertTrue(budget.tryRetry());
+        Assert.assertFalse(budget.tryRetry());
+
+        Assert.assertEquals(budget.stats(), "requests=2, retries=1, denied=3, balance=0.0");
+    }
+
+    @Test(description = "The balance never exceeds maxTokens")
+    public void testBalanceIsCapped() {
+        RetryBudget budget = new RetryBudget(1, 0, 3);
+        for (int i = 0; i < 10; i++) {
+            budget.recordRequest();
+        }
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(budget.tryRetry(), "Retry " + i + " should be within the cap");
+        }
+        Assert.assertFalse(budget.tryRetry(), "Deposits beyond maxTokens should be lost");
+    }
+
+    @Test(description = "minPerSecond tokens are available at start and refill over time")
+    public void testPerSecondRefill() throws InterruptedException {
+        RetryBudget budget = new RetryBudget(0, 20, 100);
+        int initial = 0;
+        while (budget.tryRetry()) {
+            initial++;
+        }
+        // One second's allowance up front, plus whatever refilled while draining it
+        Assert.assertTrue(initial >= 20 && initial <= 21, "Expected about 20 initial retries, got " + initial);
+
+        Thread.sleep(200);
+        int refilled = 0;
+        while (budget.tryRetry()) {
+            refilled++;
+        }
+        Assert.assertTrue(refilled >= 3 && refilled <= 10, "Expected about 4 refilled retries, got " + refilled);
+    }
+
+    @Test(description = "Refill also stops at maxTokens")
+    public void testRefillIsCapped() throws InterruptedException {
+        RetryBudget budget = new RetryBudget(0, 100, 2);
+        Thread.sleep(100);
+        Assert.assertTrue(budget.tryRetry());
+        Assert.assertTrue(budget.tryRetry());
+        Assert.assertFalse(budget.tryRetry(), "10 refilled tokens should be capped at 2");
+    }
+}
@@ -0,0 +1,177 @@
+package com.dissertation.integrationtestautomation.utils;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for TrafficCapture segment writing, rotation and reading
+ */
+public class TrafficCaptureTest {
+
+    // Small segments so a few dozen exchanges rotate through several of them
+    private static final int SEGMENT_BYTES = 4096;
+
+    private Path dir;
+
+    @BeforeMethod
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("traffic-capture-test");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDir() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static Response response(int status, String body) {
+        return new ResponseBuilder()
+                .setStatusCode(status)
+                .setStatusLine("HTTP/1.1 " + status)
+                .setHeaders(new Headers(new Header("Content-Type", "application/json")))
+                .setBody(body)
+                .build();
+    }
+
+    /**
+     * Exchange i: every fifth one fails to connect, the others alternate between 201 and 500
+     */
+    private static void record(TrafficCapture.Writer writer, int i) {
+        String url = "http://localhost:8080/api/orders/" + i;
+        Map<String, List<String>> headers = Map.of("Authorization", List.of("Bearer " + "x".repeat(40)));
+        String body = "{\"item\":\"widget-" + i + "\",\"padding\":\"" + "p".repeat(200) + "\"}";
+        if (i % 5 == 0) {
+            writer.record("POST", url, headers, body, null, new ConnectException("Connection refused"),
+                    TrafficCapture.nowMicros(), 1_000L * i);
+        } else {
+            int status = i % 2 == 0 ? 201 : 500;
+            writer.record("POST", url, headers, body, response(status, "{\"orderNumber\":\"ORD-" + i + "\"}"), null,
+                    TrafficCapture.nowMicros(), 1_000L * i);
+        }
+    }
+
+    @Test(description = "Exchanges written across several segments read back in sequence order with their fields")
+    public void testWriteRotateReadRoundTrip() throws IOException, InterruptedException {
+        TrafficCapture.Writer writer = new TrafficCapture.Writer(dir, SEGMENT_BYTES, 100);
+        long beforeMillis = System.currentTimeMillis();
+        int count = 60;
+        for (int i = 1; i <= count; i++) {
+            record(writer, i);
+        }
+        Thread.sleep(5);
+        long afterMillis = System.currentTimeMillis();
+        writer.close();
+
+        List<Path> paths = TrafficCapture.Segment.list(dir);
+        Assert.assertTrue(paths.size() > 2, "Expected several segments, got " + paths.size());
+
+        long expectedSequence = 1;
+        for (Path path : paths) {
+            Assert.assertEquals(Files.size(path), SEGMENT_BYTES, "Segments keep their mapped size");
+            try (TrafficCapture.Segment segment = TrafficCapture.Segment.open(path)) {
+                Assert.assertTrue(segment.size() > 0, path + " should hold exchanges");
+                Assert.assertEquals(segment.seekTime(beforeMillis), 0);
+                Assert.assertEquals(segment.seekTime(afterMillis), segment.size());
+                for (int i = 0; i < segment.size(); i++) {
+                    long sequence = expectedSequence++;
+                    Assert.assertEquals(segment.sequenceAt(i), sequence);
+                    Assert.assertEquals(segment.seekSequence(sequence), i);
+
+                    TrafficCapture.Exchange exchange = segment.read(i);
+                    int n = (int) sequence;
+                    Assert.assertEquals(exchange.sequence(), sequence);
+                    Assert.assertEquals(exchange.method(), "POST");
+                    Assert.assertEquals(exchange.route(), "/api/orders/{n}");
+                    Assert.assertEquals(exchange.url(), "http://localhost:8080/api/orders/" + n);
+                    Assert.assertEquals(exchange.durationNanos(), 1_000L * n);
+                    Assert.assertEquals(exchange.requestHeaders().get("Authorization"),
+                            List.of("Bearer " + "x".repeat(20) + "..."), "Bearer tokens should be shortened");
+                    Assert.assertTrue(exchange.requestBodyText().startsWith("{\"item\":\"widget-" + n + "\""));
+                    Assert.assertFalse(exchange.requestBodyTruncated());
+                    if (n % 5 == 0) {
+                        Assert.assertEquals(exchange.status(), -1);
+                        Assert.assertEquals(segment.statusAt(i), -1);
+                        Assert.assertEquals(exchange.error(), "java.net.ConnectException: Connection refused");
+                        Assert.assertTrue(exchange.responseHeaders().isEmpty());
+                    } else {
+                        int status = n % 2 == 0 ? 201 : 500;
+                        Assert.assertEquals(exchange.status(), status);
+                        Assert.assertEquals(segment.statusAt(i), status);
+                        Assert.assertNull(exchange.error());
+                        Assert.assertEquals(exchange.responseHeaders().get("Content-Type"), List.of("application/json"));
+                        Assert.assertEquals(exchange.responseBodyText(), "{\"orderNumber\":\"ORD-" + n + "\"}");
+                    }
+                }
+                Assert.assertEquals(segment.seekSequence(expectedSequence), -1);
+                Assert.assertEquals(segment.seekSequence(0), -1);
+            }
+        }
+        Assert.assertEquals(expectedSequence - 1, count, "Every exchange should be read back once");
+    }
+
+    @Test(description = "A segment still being written shows the exchanges committed when it was opened")
+    public void testLiveSegmentShowsCommittedExchanges() throws IOException {
+        TrafficCapture.Writer writer = new TrafficCapture.Writer(dir, 64 * 1024, 10);
+        for (int i = 1; i <= 3; i++) {
+            record(writer, i);
+        }
+        Path path = TrafficCapture.Segment.list(dir).get(0);
+        try (TrafficCapture.Segment live = TrafficCapture.Segment.open(path)) {
+            Assert.assertEquals(live.size(), 3);
+            record(writer, 4);
+            Assert.assertEquals(live.size(), 3, "An open segment should not see later exchanges");
+            Assert.assertEquals(live.read(2).sequence(), 3);
+            Assert.assertThrows(IndexOutOfBoundsException.class, () -> live.read(3));
+        }
+        try (TrafficCapture.Segment reopened = TrafficCapture.Segment.open(path)) {
+            Assert.assertEquals(reopened.size(), 4);
+            Assert.assertEquals(reopened.read(3).url(), "http://localhost:8080/api/orders/4");
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test(description = "Only the newest maxSegments segments are kept")
+    public void testMaxSegmentsDeletesOldestFiles() throws IOException {
+        TrafficCapture.Writer writer = new TrafficCapture.Writer(dir, SEGMENT_BYTES, 2);
+        for (int i = 1; i <= 100; i++) {
+            record(writer, i);
+        }
+        writer.close();
+
+        List<Path> paths = TrafficCapture.Segment.list(dir);
+        Assert.assertEquals(paths.size(), 2);
+        try (Stream<Path> files = Files.list(dir)) {
+            Assert.assertEquals(files.filter(file -> file.toString().endsWith(".idx")).count(), 2,
+                    "Index files should be deleted with their segments");
+        }
+        Assert.assertTrue(paths.get(1).getFileName().toString().compareTo(paths.get(0).getFileName().toString()) > 0);
+
+        // The kept segments are the newest: the last one ends with the last exchange
+        try (TrafficCapture.Segment newest = TrafficCapture.Segment.open(paths.get(1))) {
+            Assert.assertEquals(newest.sequenceAt(newest.size() - 1), 100);
+        }
+        try (TrafficCapture.Segment older = TrafficCapture.Segment.open(paths.get(0))) {
+            Assert.assertTrue(older.sequenceAt(0) > 1, "The first segments should have been deleted");
+        }
+        Assert.assertTrue(writer.stats().contains("segments=2 ("), writer.stats());
+    }
+}